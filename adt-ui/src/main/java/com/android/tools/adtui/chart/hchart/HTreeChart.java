@@ -42,10 +42,9 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import javax.swing.AbstractAction;
 import javax.swing.KeyStroke;
 import org.jetbrains.annotations.NotNull;
@@ -111,6 +110,20 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
   @NotNull
   private final List<Rectangle2D.Float> myDrawnRectangles;
 
+  /**
+   * Rectangles reused across passes, so that updating and drawing the chart does not allocate a rectangle per node each time.
+   * The first {@link #myPooledRectangleCount} rectangles of {@link #myRectanglePool} are in use by {@link #myRectangles}.
+   */
+  @NotNull
+  private final List<Rectangle2D.Float> myRectanglePool;
+  private int myPooledRectangleCount;
+
+  @NotNull
+  private final List<Rectangle2D.Float> myDrawnRectanglePool;
+
+  @NotNull
+  private final Rectangle2D.Float myClampedDrawingArea = new Rectangle2D.Float();
+
   @NotNull
   private final List<N> myDrawnNodes;
 
@@ -128,6 +141,22 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
 
   private int myCachedMaxHeight;
 
+  /**
+   * Depth of the deepest node of {@link #myRoot}, computed when the tree is set as it doesn't change with the visible range.
+   */
+  private int myMaxDepth;
+
+  /**
+   * If true, the children of every node are sorted by start time and don't overlap. The visible children are then found by binary search,
+   * and runs of siblings that fit within a single pixel are collected as one aggregate node whose descendants are not visited.
+   */
+  private final boolean myLevelOfDetailEnabled;
+
+  /**
+   * The width in pixels the nodes were last collected for. Nodes are collected again when it changes and level of detail is enabled.
+   */
+  private int myNodesWidthPx;
+
   /**
    * Height of a tree node in pixels. If not set, we use the default font height.
    */
@@ -154,13 +183,17 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
     myCustomNodeHeightPx = builder.myCustomNodeHeightPx;
     myNodeXPaddingPx = builder.myNodeXPaddingPx;
     myNodeYPaddingPx = builder.myNodeYPaddingPx;
+    myLevelOfDetailEnabled = builder.myLevelOfDetailEnabled;
 
     myYRange = new Range(INITIAL_Y_POSITION, INITIAL_Y_POSITION);
     myRectangles = new ArrayList<>();
     myNodes = new ArrayList<>();
     myDrawnNodes = new ArrayList<>();
     myDrawnRectangles = new ArrayList<>();
+    myRectanglePool = new ArrayList<>();
+    myDrawnRectanglePool = new ArrayList<>();
     mySelectedNode = null;
+    myMaxDepth = calculateMaximumDepth();
 
     setFocusable(true);
     initializeInputMap();
@@ -213,9 +246,9 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
   @Override
   protected void draw(Graphics2D g, Dimension dim) {
     long startTime = System.nanoTime();
-    if (myDataUpdated) {
+    if (myDataUpdated || (myLevelOfDetailEnabled && myNodesWidthPx != dim.width)) {
       // Nulling out the canvas will trigger a render pass, below
-      updateNodesAndClearCanvas();
+      updateNodesAndClearCanvas(dim.width);
       myDataUpdated = false;
     }
     g.setFont(getFont());
@@ -259,8 +292,12 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
 
     myDrawnRectangles.clear();
     // Transform
-    for (Rectangle2D.Float rect : myRectangles) {
-      Rectangle2D.Float newRect = new Rectangle2D.Float();
+    for (int i = 0; i < myRectangles.size(); ++i) {
+      Rectangle2D.Float rect = myRectangles.get(i);
+      if (i == myDrawnRectanglePool.size()) {
+        myDrawnRectanglePool.add(new Rectangle2D.Float());
+      }
+      Rectangle2D.Float newRect = myDrawnRectanglePool.get(i);
       newRect.x = rect.x * (float)dim.getWidth();
       newRect.y = rect.y;
       newRect.width = Math.max(0, rect.width * (float)dim.getWidth() - myNodeXPaddingPx);
@@ -280,20 +317,22 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
     for (int i = 0; i < myDrawnNodes.size(); ++i) {
       N node = myDrawnNodes.get(i);
       Rectangle2D.Float drawingArea = myDrawnRectangles.get(i);
-      Rectangle2D.Float clampedDrawingArea = new Rectangle2D.Float(
+      myClampedDrawingArea.setRect(
         Math.max(0, drawingArea.x),
         drawingArea.y,
         Math.min(drawingArea.x + drawingArea.width, dim.width - myNodeXPaddingPx) - Math.max(0, drawingArea.x),
         drawingArea.height);
-      myRenderer.render(g, node, drawingArea, clampedDrawingArea, node == myFocusedNode, mySelectedNode != null && node != mySelectedNode);
+      myRenderer.render(g, node, drawingArea, myClampedDrawingArea, node == myFocusedNode, mySelectedNode != null && node != mySelectedNode);
     }
 
     g.dispose();
   }
 
-  private void updateNodesAndClearCanvas() {
+  private void updateNodesAndClearCanvas(int widthPx) {
     myNodes.clear();
     myRectangles.clear();
+    myPooledRectangleCount = 0;
+    myNodesWidthPx = widthPx;
     myCanvas = null;
     if (myRoot == null) {
       return;
@@ -306,7 +345,17 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
 
     int head = 0;
     while (head < myNodes.size()) {
-      N curNode = myNodes.get(head++);
+      N curNode = myNodes.get(head);
+      Rectangle2D.Float curRect = myRectangles.get(head);
+      head++;
+
+      if (myLevelOfDetailEnabled) {
+        // A node within a single pixel is drawn as (part of) a one pixel wide block, so its descendants are not needed.
+        if (Math.floor(curRect.x * widthPx) < Math.floor((curRect.x + curRect.width) * widthPx)) {
+          addVisibleChildren(curNode, widthPx);
+        }
+        continue;
+      }
 
       for (int i = 0; i < curNode.getChildCount(); ++i) {
         N child = curNode.getChildAt(i);
@@ -322,6 +371,59 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
     }
   }
 
+  /**
+   * Adds the children of {@code node} that are within the X range, assuming they are sorted by start time and don't overlap. Consecutive
+   * children that fit within the same pixel are added as their first child, with a rectangle covering all of them.
+   */
+  private void addVisibleChildren(@NotNull N node, int widthPx) {
+    int childCount = node.getChildCount();
+    int i = findFirstChildEndingAfter(node, myXRange.getMin());
+    while (i < childCount) {
+      N child = node.getChildAt(i++);
+      if (child.getStart() > myXRange.getMax()) {
+        break;
+      }
+
+      Rectangle2D.Float rect = createRectangle(child);
+      myNodes.add(child);
+      myRectangles.add(rect);
+
+      double pixel = Math.floor((rect.x + rect.width) * widthPx);
+      if (Math.floor(rect.x * widthPx) < pixel) {
+        continue;
+      }
+      // Merge the following children that are within the same pixel.
+      while (i < childCount) {
+        N next = node.getChildAt(i);
+        double nextLeft = (next.getStart() - myXRange.getMin()) / myXRange.getLength();
+        double nextRight = (next.getEnd() - myXRange.getMin()) / myXRange.getLength();
+        if (Math.floor(nextLeft * widthPx) != pixel || Math.floor(nextRight * widthPx) != pixel) {
+          break;
+        }
+        rect.width = (float)(nextRight - rect.x);
+        ++i;
+      }
+    }
+  }
+
+  /**
+   * @return the index of the first child of {@code node} that ends at or after {@code time}, or the child count if there is none.
+   */
+  private int findFirstChildEndingAfter(@NotNull N node, double time) {
+    int low = 0;
+    int high = node.getChildCount();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (node.getChildAt(mid).getEnd() < time) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
   private boolean inRange(@NotNull N node) {
     return node.getStart() <= myXRange.getMax() && node.getEnd() >= myXRange.getMin();
   }
@@ -330,7 +432,10 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
   private Rectangle2D.Float createRectangle(@NotNull N node) {
     float left = (float)((node.getStart() - myXRange.getMin()) / myXRange.getLength());
     float right = (float)((node.getEnd() - myXRange.getMin()) / myXRange.getLength());
-    Rectangle2D.Float rect = new Rectangle2D.Float();
+    if (myPooledRectangleCount == myRectanglePool.size()) {
+      myRectanglePool.add(new Rectangle2D.Float());
+    }
+    Rectangle2D.Float rect = myRectanglePool.get(myPooledRectangleCount++);
     rect.x = left;
     rect.y = (float)((getNodeHeight() + myNodeYPaddingPx) * node.getDepth() - getYRange().getMin());
     rect.width = right - left;
@@ -344,6 +449,7 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
 
   public void setHTree(@Nullable N root) {
     this.myRoot = root;
+    myMaxDepth = calculateMaximumDepth();
     changed();
   }
 
@@ -513,27 +619,34 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
     return myCachedMaxHeight;
   }
 
-  private int calculateMaximumHeight() {
+  private int calculateMaximumDepth() {
     if (myRoot == null) {
-      return 0;
+      return -1;
     }
 
     int maxDepth = -1;
-    Queue<N> queue = new LinkedList<>();
-    queue.add(myRoot);
+    ArrayDeque<N> stack = new ArrayDeque<>();
+    stack.push(myRoot);
 
-    while (!queue.isEmpty()) {
-      N n = queue.poll();
-      assert n != null;
+    while (!stack.isEmpty()) {
+      N n = stack.pop();
       if (n.getDepth() > maxDepth) {
         maxDepth = n.getDepth();
       }
 
       for (int i = 0; i < n.getChildCount(); ++i) {
-        queue.add(n.getChildAt(i));
+        stack.push(n.getChildAt(i));
       }
     }
-    maxDepth += 1;
+    return maxDepth;
+  }
+
+  private int calculateMaximumHeight() {
+    if (myRoot == null) {
+      return 0;
+    }
+
+    int maxDepth = myMaxDepth + 1;
     // The HEIGHT_PADDING is for the chart's toe (the innermost frame on call stacks).
     // We have this because the padding near the chart's head (the outermost frame on call stacks)
     // is there because the root node of the tree is invisible.
@@ -560,6 +673,7 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
     private int myCustomNodeHeightPx = 0;
     private int myNodeXPaddingPx = PADDING;
     private int myNodeYPaddingPx = PADDING;
+    private boolean myLevelOfDetailEnabled = false;
 
     /**
      * Creates a builder for {@link HTreeChart<N>}
@@ -625,6 +739,17 @@ public final class HTreeChart<N extends HNode<N>> extends AnimatedComponent {
       return this;
     }
 
+    /**
+     * Enables level of detail culling, which requires the children of every node to be sorted by start time and not to overlap (e.g.
+     * call charts and flame charts). Only the visible children of each node are visited, and runs of children that fit within a single
+     * pixel are drawn as one block without their descendants.
+     */
+    @NotNull
+    public Builder<N> setLevelOfDetailEnabled(boolean levelOfDetailEnabled) {
+      myLevelOfDetailEnabled = levelOfDetailEnabled;
+      return this;
+    }
+
     @NotNull
     public HTreeChart<N> build() {
       return new HTreeChart<>(this);
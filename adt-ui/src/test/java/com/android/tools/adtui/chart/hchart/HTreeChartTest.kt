@@ -27,6 +27,7 @@ import java.awt.*
 import com.google.common.truth.Truth.assertThat
 import com.intellij.openapi.util.SystemInfo.isMac
 import java.awt.geom.Rectangle2D
+import java.awt.image.BufferedImage
 
 class HTreeChartTest {
   private lateinit var myUi: FakeUi
@@ -344,6 +345,41 @@ class HTreeChartTest {
     assertThat(myChart.yRange.max).isWithin(EPSILON).of(18.0)
   }
 
+  @Test
+  fun testLevelOfDetailMergesSubPixelNodes() {
+    // 1000 children of 0.1 each, i.e. 10 children per pixel in a 100px wide chart, each with a child of its own.
+    val root = DefaultHNode("root", 0, 1000)
+    for (i in 0 until 1000) {
+      val child = DefaultHNode("child$i", i.toLong(), i + 1L)
+      child.depth = 1
+      val grandchild = DefaultHNode("grandchild$i", i.toLong(), i + 1L)
+      grandchild.depth = 2
+      child.addChild(grandchild)
+      root.addChild(child)
+    }
+    val range = Range(0.0, 1000.0)
+    val chart = HTreeChart.Builder(root, range, FakeRenderer())
+      .setOrientation(HTreeChart.Orientation.TOP_DOWN)
+      .setCustomNodeHeightPx(10)
+      .setNodeYPaddingPx(0)
+      .setLevelOfDetailEnabled(true)
+      .build()
+    chart.size = Dimension(100, 50)
+    assertThat(chart.maximumHeight).isEqualTo(30 + 15)
+
+    // Zoomed out, the children within a pixel are merged into their first child, and their own children are not shown.
+    chart.paint(BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB).createGraphics())
+    assertThat(chart.getNodeAt(Point(50, 15))?.data).isEqualTo("child500")
+    assertThat(chart.getNodeAt(Point(50, 25))).isNull()
+
+    // Zoomed in, the visible children and their own children are shown.
+    range.set(500.0, 510.0)
+    chart.paint(BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB).createGraphics())
+    assertThat(chart.getNodeAt(Point(15, 15))?.data).isEqualTo("child501")
+    assertThat(chart.getNodeAt(Point(15, 25))?.data).isEqualTo("grandchild501")
+    assertThat(chart.getNodeAt(Point(95, 15))?.data).isEqualTo("child509")
+  }
+
   class FakeRenderer : DefaultHRenderer<String>() {
     override fun getFillColor(nodeData: String) = Color.white
 
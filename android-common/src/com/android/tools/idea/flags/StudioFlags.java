@@ -446,6 +446,16 @@ public final class StudioFlags {
 
   public static final Flag<Boolean> ALLOW_DIFFERENT_JDK_VERSION = Flag.create(
     GRADLE_IDE, "jdk.allow.different", "Allow different Gradle JDK", "Allow usage of a different JDK version when running Gradle.", true);
+
+  public static final Flag<Boolean> COMPACT_MODEL_CACHE_ONLY = Flag.create(
+    GRADLE_IDE, "compact.model.cache.only", "Keep synced models only in the compact model cache",
+    "Removes the Android, NDK, Java and Gradle module models from the IDE's external project data cache after sync, and restores them " +
+    "from the compact model cache when the project is loaded from the cache.", false);
+
+  public static final Flag<Boolean> ANDROID_VIEW_PAGED_RES_FOLDERS = Flag.create(
+    GRADLE_IDE, "android.view.paged.res.folders", "Show large res folders in pages in the Android project view",
+    "Only creates the nodes of the first resources of a res folder type in the Android project view. The other resources are shown " +
+    "under a node that creates the next page when expanded.", false);
   //endregion
 
   //region Database Inspector
@@ -600,6 +610,13 @@ public final class StudioFlags {
     true
   );
 
+  public static final Flag<Boolean> LINT_PARALLEL_BATCH_ANALYSIS = Flag.create(
+    EDITOR, "lint.parallel.batch.analysis",
+    "Run batch lint analysis in parallel",
+    "If enabled, Inspect Code splits the modules into groups that do not depend on each other and runs lint on the groups concurrently.",
+    false
+  );
+
   //endregion
 
   //region Analyzer
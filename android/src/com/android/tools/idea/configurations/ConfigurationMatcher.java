@@ -63,6 +63,7 @@ import com.intellij.openapi.fileTypes.StdFileTypes;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.ContainerUtil;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -72,6 +73,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jetbrains.android.uipreview.VirtualFileWrapper;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -87,6 +89,8 @@ import org.jetbrains.annotations.Nullable;
 public class ConfigurationMatcher {
   private static final Logger LOG = Logger.getInstance("#com.android.tools.idea.rendering.ConfigurationMatcher");
 
+  private static final Map<LocalResourceRepository, MatchIndex> ourMatchIndexes = ContainerUtil.createConcurrentWeakMap();
+
   @NotNull private final Configuration myConfiguration;
   @NotNull private final ConfigurationManager myManager;
   @Nullable private final LocalResourceRepository myResources;
@@ -135,6 +139,18 @@ public class ConfigurationMatcher {
     }
   }
 
+  /**
+   * Files matching each resource and folder configuration, valid for one modification count of a resource repository.
+   */
+  private static final class MatchIndex {
+    final long modificationCount;
+    final Map<ResourceReference, Map<FolderConfiguration, List<VirtualFile>>> filesByReference = new ConcurrentHashMap<>();
+
+    MatchIndex(long modificationCount) {
+      this.modificationCount = modificationCount;
+    }
+  }
+
   private static class ConfigMatch {
     final FolderConfiguration testConfig;
     final Device device;
@@ -170,7 +186,7 @@ public class ConfigurationMatcher {
   public boolean isCurrentFileBestMatchFor(@NotNull FolderConfiguration config) {
     if (myResources != null && myNamespace != null && myFile != null) {
       ResourceReference reference = new ResourceReference(myNamespace, getResourceType(myFile), ResourceHelper.getResourceName(myFile));
-      List<VirtualFile> files = getMatchingFiles(myResources, reference, config, new HashSet<>(), true, 0);
+      List<VirtualFile> files = getMatchingFiles(myResources, reference, config);
       VirtualFile match = files.isEmpty() ? null : files.get(0);
       if (match != null) {
         return myFile.equals(match);
@@ -243,7 +259,38 @@ public class ConfigurationMatcher {
                                                    @NotNull ResourceType type,
                                                    @NotNull FolderConfiguration config) {
     ResourceReference reference = new ResourceReference(namespace, type, ResourceHelper.getResourceName(file));
-    return getMatchingFiles(repository, reference, config, new HashSet<>(), false, 0);
+    return getMatchingFiles(repository, reference, config);
+  }
+
+  /**
+   * Returns the files matching the given configuration, reusing the result of a previous lookup of the same resource and configuration
+   * if the repository has not changed since. When finding the best configuration for a file, the same few folder configurations are
+   * checked over and over for every device, state and locale.
+   */
+  @NotNull
+  private static List<VirtualFile> getMatchingFiles(@NotNull ResourceRepository repository,
+                                                    @NotNull ResourceReference reference,
+                                                    @NotNull FolderConfiguration config) {
+    if (!(repository instanceof LocalResourceRepository)) {
+      return getMatchingFiles(repository, reference, config, new HashSet<>(), 0);
+    }
+
+    long modificationCount = ((LocalResourceRepository)repository).getModificationCount();
+    MatchIndex index = ourMatchIndexes.get(repository);
+    if (index == null || index.modificationCount != modificationCount) {
+      index = new MatchIndex(modificationCount);
+      ourMatchIndexes.put((LocalResourceRepository)repository, index);
+    }
+
+    Map<FolderConfiguration, List<VirtualFile>> filesByConfig =
+      index.filesByReference.computeIfAbsent(reference, key -> new ConcurrentHashMap<>());
+    List<VirtualFile> files = filesByConfig.get(config);
+    if (files == null) {
+      files = ImmutableList.copyOf(getMatchingFiles(repository, reference, config, new HashSet<>(), 0));
+      // The caller may modify the configuration afterwards, so the key has to be a copy.
+      filesByConfig.put(FolderConfiguration.copyOf(config), files);
+    }
+    return files;
   }
 
   @NotNull
@@ -251,7 +298,6 @@ public class ConfigurationMatcher {
                                                     @NotNull ResourceReference reference,
                                                     @NotNull FolderConfiguration config,
                                                     @NotNull Set<ResourceReference> seenResources,
-                                                    boolean firstOnly,
                                                     int depth) {
     if (depth >= MAX_RESOURCE_INDIRECTION || !seenResources.add(reference)) {
       return Collections.emptyList();
@@ -264,9 +310,6 @@ public class ConfigurationMatcher {
     List<VirtualFile> output = new ArrayList<>();
     List<ResourceItem> matches = config.findMatchingConfigurables(matchingItems);
     for (ResourceItem match : matches) {
-      if (firstOnly && !output.isEmpty()) {
-        break;
-      }
       // If match is an alias, it has to be resolved.
       ResourceValue resourceValue = match.getResourceValue();
       if (resourceValue != null) {
@@ -279,7 +322,7 @@ public class ConfigurationMatcher {
             if (namespace != null) {
               ResourceReference ref = new ResourceReference(namespace, reference.getResourceType(), url.name);
               // This resource alias needs to be resolved again.
-              output.addAll(getMatchingFiles(repository, ref, config, seenResources, firstOnly, depth + 1));
+              output.addAll(getMatchingFiles(repository, ref, config, seenResources, depth + 1));
             }
             continue;
           }
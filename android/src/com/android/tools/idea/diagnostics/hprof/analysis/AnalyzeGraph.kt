@@ -28,10 +28,14 @@ import com.android.tools.idea.diagnostics.hprof.util.TruncatingPrintBuffer
 import com.android.tools.idea.diagnostics.hprof.visitors.HistogramVisitor
 import com.google.common.base.Stopwatch
 import com.intellij.openapi.progress.ProgressIndicator
+import com.intellij.util.concurrency.AppExecutorUtil
 import gnu.trove.TIntArrayList
 import gnu.trove.TIntHashSet
 import gnu.trove.TIntIntHashMap
 import gnu.trove.TLongArrayList
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
 
 class AnalyzeGraph(private val analysisContext: AnalysisContext) {
 
@@ -109,32 +113,59 @@ class AnalyzeGraph(private val analysisContext: AnalysisContext) {
     }
 
     val nav = analysisContext.navigator
-    var counter = 0
     val nominatedClassNames = config.perClassOptions.classNames
-    val stopwatch = Stopwatch.createUnstarted()
-    nominatedClassNames.forEach { className ->
-      val classDefinition = nav.classStore[className]
-      val set = nominatedInstances[classDefinition]!!
-      progress.fraction = counter.toDouble() / nominatedInstances.size
-      progress.text2 = "Processing: ${set.size()} ${classDefinition.prettyName}"
-      stopwatch.reset().start()
-      appendln("CLASS: ${classDefinition.prettyName} (${set.size()} objects)")
-      val referenceRegistry = GCRootPathsTree(analysisContext, perClassOptions.treeDisplayOptions, classDefinition)
-      set.forEach { objectId ->
-        referenceRegistry.registerObject(objectId)
-        true
+
+    // GC-root paths of each nominated class are independent, so the trees are built concurrently, each with its own navigator.
+    // Parent, size and reference index lists are only read at this point.
+    val executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+      "AnalyzeGraph", nominatedClassNames.size.coerceIn(1, Runtime.getRuntime().availableProcessors()))
+    try {
+      val sections = nominatedClassNames.map { className ->
+        val classDefinition = nav.classStore[className]
+        val set = nominatedInstances[classDefinition]!!
+        val classNavigator = nav.createCopy()
+        executor.submit(Callable {
+          prepareClassSection(classDefinition, set, classNavigator)
+        })
       }
-      set.clear()
-      append(referenceRegistry.printTree())
-      if (config.metaInfoOptions.include) {
-        appendln("Report for ${classDefinition.prettyName} created in $stopwatch")
+      sections.forEachIndexed { index, section ->
+        progress.fraction = index.toDouble() / sections.size
+        progress.text2 = "Processing: ${nominatedClassNames[index]}"
+        append(getSectionOrRethrow(section))
       }
-      appendln()
-      counter++
+    }
+    finally {
+      executor.shutdownNow()
     }
     progress.fraction = 1.0
   }
 
+  private fun prepareClassSection(classDefinition: ClassDefinition, set: TIntHashSet, navigator: ObjectNavigator): String = buildString {
+    val perClassOptions = analysisContext.config.perClassOptions
+    val stopwatch = Stopwatch.createStarted()
+    appendln("CLASS: ${classDefinition.prettyName} (${set.size()} objects)")
+    val referenceRegistry = GCRootPathsTree(analysisContext, perClassOptions.treeDisplayOptions, classDefinition, navigator)
+    set.forEach { objectId ->
+      referenceRegistry.registerObject(objectId)
+      true
+    }
+    set.clear()
+    append(referenceRegistry.printTree())
+    if (config.metaInfoOptions.include) {
+      appendln("Report for ${classDefinition.prettyName} created in $stopwatch")
+    }
+    appendln()
+  }
+
+  private fun getSectionOrRethrow(section: Future<String>): String {
+    try {
+      return section.get()
+    }
+    catch (e: ExecutionException) {
+      throw e.cause ?: e
+    }
+  }
+
   private fun prepareHistogramSection(): String = buildString {
     val strongRefHistogram = getAndClearStrongRefHistogram()
     val softWeakRefHistogram = getAndClearSoftWeakHistogram()
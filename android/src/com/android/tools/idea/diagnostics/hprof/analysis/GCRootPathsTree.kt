@@ -32,7 +32,8 @@ import java.util.HashMap
 class GCRootPathsTree(
   private val context: AnalysisContext,
   private val treeDisplayOptions: AnalysisConfig.TreeDisplayOptions,
-  allObjectsOfClass: ClassDefinition?
+  allObjectsOfClass: ClassDefinition?,
+  private val navigator: ObjectNavigator = context.navigator
 ) {
   private val topNode = RootNode(context.classStore)
   private var countOfIgnoredObjects = 0
@@ -107,7 +108,7 @@ class GCRootPathsTree(
   }
 
   fun registerObject(objectId: Int) {
-    val nav = context.navigator
+    val nav = navigator
     val parentMapping = context.parentList
     val refIndexMapping = context.refIndexList
     val sizesMapping = context.sizesList
@@ -158,7 +159,7 @@ class GCRootPathsTree(
       append("Ignored ${countOfIgnoredObjects} too-deep objects\n")
     }
     val rootReasonGetter = { id: Int ->
-      (context.navigator.getRootReasonForObjectId(id.toLong())?.description ?: "<Couldn't find root description>")
+      (navigator.getRootReasonForObjectId(id.toLong())?.description ?: "<Couldn't find root description>")
     }
     append(topNode.createHotPathReport(treeDisplayOptions, rootReasonGetter))
   }
@@ -16,7 +16,6 @@
 package com.android.tools.idea.diagnostics.hprof.analysis
 
 import com.android.tools.idea.diagnostics.hprof.classstore.HProfMetadata
-import com.android.tools.idea.diagnostics.hprof.histogram.Histogram
 import com.android.tools.idea.diagnostics.hprof.navigator.ObjectNavigator
 import com.android.tools.idea.diagnostics.hprof.parser.HProfEventBasedParser
 import com.android.tools.idea.diagnostics.hprof.util.FileBackedIntList
@@ -24,6 +23,7 @@ import com.android.tools.idea.diagnostics.hprof.util.FileBackedUByteList
 import com.android.tools.idea.diagnostics.hprof.util.HeapReportUtils.sectionHeader
 import com.android.tools.idea.diagnostics.hprof.util.HeapReportUtils.toShortStringAsCount
 import com.android.tools.idea.diagnostics.hprof.util.PartialProgressIndicator
+import com.android.tools.idea.diagnostics.hprof.visitors.HistogramVisitor
 import com.android.tools.idea.diagnostics.hprof.visitors.RemapIDsVisitor
 import com.google.common.base.Stopwatch
 import com.intellij.openapi.progress.ProgressIndicator
@@ -81,15 +81,13 @@ class HProfAnalysis(private val hprofFileChannel: FileChannel,
 
     val parser = HProfEventBasedParser(hprofFileChannel)
     try {
-      progress.text2 = "Collect heap metadata"
+      progress.text2 = "Collect heap metadata and histogram"
       progress.fraction = 0.0
 
-      val hprofMetadata = HProfMetadata.create(parser)
-
-      progress.text2 = "Create histogram"
-      progress.fraction = 0.1
-
-      val histogram = Histogram.create(parser, hprofMetadata.classStore)
+      // Histogram is collected in the same pass as metadata.
+      val histogramVisitor = HistogramVisitor()
+      val hprofMetadata = HProfMetadata.create(parser, histogramVisitor)
+      val histogram = histogramVisitor.createHistogram(hprofMetadata.classStore)
 
       val nominatedClasses = ClassNomination(histogram, 5).nominateClasses()
 
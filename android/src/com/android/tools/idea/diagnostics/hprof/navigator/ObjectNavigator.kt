@@ -56,6 +56,12 @@ abstract class ObjectNavigator(val classStore: ClassStore, val instanceCount: Lo
   abstract fun getWeakReferenceId(): Long
   abstract fun getSoftWeakReferenceIndex(): Int
 
+  /**
+   * Creates a navigator over the same data, but with its own current object. Navigators are not thread-safe, so each thread
+   * walking the graph needs its own copy.
+   */
+  abstract fun createCopy(): ObjectNavigator
+
   fun goToInstanceField(className: String?, fieldName: String) {
     val objectId = getInstanceFieldObjectId(className, fieldName)
     goTo(objectId, ReferenceResolution.ALL_REFERENCES)
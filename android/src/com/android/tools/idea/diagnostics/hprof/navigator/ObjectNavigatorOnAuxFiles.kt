@@ -56,6 +56,11 @@ class ObjectNavigatorOnAuxFiles(
   override val id: Long
     get() = currentObjectId
 
+  override fun createCopy(): ObjectNavigator {
+    // Duplicates share the mapped memory but have independent positions.
+    return ObjectNavigatorOnAuxFiles(roots, auxOffsets.duplicate(), aux.duplicate(), classStore, instanceCount, idSize)
+  }
+
   override fun createRootsIterator(): Iterator<RootObject> {
     return object : Iterator<RootObject> {
       val internalIterator = roots.iterator()
@@ -25,14 +25,25 @@ import com.android.tools.idea.diagnostics.hprof.parser.HeapDumpRecordType
 import com.android.tools.idea.diagnostics.hprof.parser.InstanceFieldEntry
 import com.android.tools.idea.diagnostics.hprof.parser.StaticFieldEntry
 import com.android.tools.idea.diagnostics.hprof.parser.Type
+import gnu.trove.TLongObjectHashMap
 import java.nio.ByteBuffer
+import java.util.EnumMap
 
-class HistogramVisitor(private val classStore: ClassStore) : HProfVisitor() {
+/**
+ * Counts instances and bytes per class.
+ *
+ * Instances are counted by class id and only resolved against the [ClassStore] in [createHistogram], so this visitor doesn't need
+ * the class store while visiting and can run in the same pass as [CreateClassStoreVisitor] (see
+ * [com.android.tools.idea.diagnostics.hprof.classstore.HProfMetadata.create]).
+ */
+class HistogramVisitor : HProfVisitor() {
   private var completed = false
 
   private var instanceCount = 0L
 
-  private var classToHistogramEntryInternal = HashMap<ClassDefinition, InternalHistogramEntry>()
+  private val classIdToCounter = TLongObjectHashMap<InstanceCounter>()
+  private val primitiveArrayTypeToCounter = EnumMap<Type, InstanceCounter>(Type::class.java)
+  private val classObjectsCounter = InstanceCounter()
 
   override fun preVisit() {
     assert(!completed)
@@ -45,9 +56,8 @@ class HistogramVisitor(private val classStore: ClassStore) : HProfVisitor() {
 
   override fun visitPrimitiveArrayDump(arrayObjectId: Long, stackTraceSerialNumber: Long, numberOfElements: Long, elementType: Type) {
     instanceCount++
-    val classDefinition = classStore.getClassForPrimitiveArray(elementType)!!
-    classToHistogramEntryInternal.getOrPut(classDefinition) {
-      InternalHistogramEntry(classDefinition)
+    primitiveArrayTypeToCounter.getOrPut(elementType) {
+      InstanceCounter()
     }.addInstance(numberOfElements * elementType.size + ClassDefinition.ARRAY_PREAMBLE_SIZE)
   }
 
@@ -60,34 +70,57 @@ class HistogramVisitor(private val classStore: ClassStore) : HProfVisitor() {
                               staticFields: Array<StaticFieldEntry>,
                               instanceFields: Array<InstanceFieldEntry>) {
     instanceCount++
-    val classDefinition = classStore.classClass
-    classToHistogramEntryInternal.getOrPut(classDefinition) {
-      InternalHistogramEntry(classDefinition)
-    }.addInstance(classDefinition.instanceSize.toLong() + ClassDefinition.OBJECT_PREAMBLE_SIZE)
+    // Size of java.lang.Class instances is only known once the class store is created.
+    classObjectsCounter.addInstance(0)
   }
 
   override fun visitObjectArrayDump(arrayObjectId: Long, stackTraceSerialNumber: Long, arrayClassObjectId: Long, objects: LongArray) {
     instanceCount++
-    val classDefinition = classStore[arrayClassObjectId]
-    classToHistogramEntryInternal.getOrPut(classDefinition) {
-      InternalHistogramEntry(classDefinition)
-    }.addInstance(objects.size.toLong() * visitorContext.idSize + ClassDefinition.ARRAY_PREAMBLE_SIZE)
+    getCounterForClassId(arrayClassObjectId).addInstance(objects.size.toLong() * visitorContext.idSize + ClassDefinition.ARRAY_PREAMBLE_SIZE)
   }
 
   override fun visitInstanceDump(objectId: Long, stackTraceSerialNumber: Long, classObjectId: Long, bytes: ByteBuffer) {
     instanceCount++
-    val classDefinition = classStore[classObjectId]
-    classToHistogramEntryInternal.getOrPut(classDefinition) {
-      InternalHistogramEntry(classDefinition)
-    }.addInstance(classDefinition.instanceSize.toLong() + ClassDefinition.OBJECT_PREAMBLE_SIZE)
+    // Instance size is added when the class is resolved, as it is the same for all instances of the class.
+    getCounterForClassId(classObjectId).addInstance(0)
+  }
+
+  private fun getCounterForClassId(classId: Long): InstanceCounter {
+    var counter = classIdToCounter[classId]
+    if (counter == null) {
+      counter = InstanceCounter()
+      classIdToCounter.put(classId, counter)
+    }
+    return counter
   }
 
   override fun postVisit() {
     completed = true
   }
 
-  fun createHistogram(): Histogram {
+  fun createHistogram(classStore: ClassStore): Histogram {
     assert(completed)
+    val classToHistogramEntryInternal = HashMap<ClassDefinition, InternalHistogramEntry>()
+    fun addCounter(classDefinition: ClassDefinition, counter: InstanceCounter, instanceSize: Long) {
+      classToHistogramEntryInternal.getOrPut(classDefinition) {
+        InternalHistogramEntry(classDefinition)
+      }.addInstances(counter.instances, counter.bytes + counter.instances * instanceSize)
+    }
+
+    primitiveArrayTypeToCounter.forEach { (type, counter) ->
+      addCounter(classStore.getClassForPrimitiveArray(type)!!, counter, 0)
+    }
+    if (classObjectsCounter.instances > 0) {
+      val classClass = classStore.classClass
+      addCounter(classClass, classObjectsCounter, classClass.instanceSize.toLong() + ClassDefinition.OBJECT_PREAMBLE_SIZE)
+    }
+    classIdToCounter.forEachEntry { classId, counter ->
+      val classDefinition = classStore[classId]
+      val instanceSize = if (classDefinition.isArray()) 0 else classDefinition.instanceSize.toLong() + ClassDefinition.OBJECT_PREAMBLE_SIZE
+      addCounter(classDefinition, counter, instanceSize)
+      true
+    }
+
     val result = ArrayList<HistogramEntry>(classToHistogramEntryInternal.size)
 
     classToHistogramEntryInternal.forEach { (_, internalEntry) ->
@@ -97,6 +130,16 @@ class HistogramVisitor(private val classStore: ClassStore) : HProfVisitor() {
     return Histogram(result, instanceCount)
   }
 
+  private class InstanceCounter {
+    var instances = 0L
+    var bytes = 0L
+
+    fun addInstance(sizeInBytes: Long) {
+      instances++
+      bytes += sizeInBytes
+    }
+  }
+
   class InternalHistogramEntry(private val classDefinition: ClassDefinition) {
 
     private var totalInstances = 0L
@@ -107,6 +150,11 @@ class HistogramVisitor(private val classStore: ClassStore) : HProfVisitor() {
       totalBytes += sizeInBytes
     }
 
+    fun addInstances(instances: Long, sizeInBytes: Long) {
+      totalInstances += instances
+      totalBytes += sizeInBytes
+    }
+
     fun asHistogramEntry(): HistogramEntry {
       return HistogramEntry(classDefinition, totalInstances, totalBytes)
     }
@@ -27,13 +27,18 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ModifiableRootModel;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderBase;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.List;
 
-public class ModuleSetupContext {
+/**
+ * State shared by the setup steps of a module during sync. Steps can keep data computed in
+ * {@link com.android.tools.idea.gradle.project.sync.setup.module.ModuleSetupStep#prepare} as user data of the context.
+ */
+public class ModuleSetupContext extends UserDataHolderBase {
   public static final Key<ModuleFinder> MODULES_BY_GRADLE_PATH_KEY = Key.create("gradle.sync.modules.by.gradle.path");
 
   @NotNull private final Module myModule;
@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.gradle.project.sync.idea.data;
+
+import com.android.builder.model.level2.Library;
+import com.android.tools.idea.gradle.project.model.AndroidModuleModel;
+import com.android.tools.idea.gradle.project.model.GradleModuleModel;
+import com.android.tools.idea.gradle.project.model.JavaModuleModel;
+import com.android.tools.idea.gradle.project.model.NdkModuleModel;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compact on-disk copy of the models obtained from Gradle during sync, keyed by module name.
+ * <p>
+ * The models are still written with Java serialization, but strings and libraries are shared by all modules: each distinct string and
+ * each distinct {@link Library} is written once, in tables at the start of the file, and the modules refer to them by index. Every module
+ * is written to its own block, so that it can be decoded without decoding the others. The file starts with a header containing a format
+ * version and the serial version ids of the model classes; files with a different header are ignored.
+ * <p>
+ * File layout:
+ * <pre>
+ *   int magic, int format version, long model classes stamp
+ *   int string count, strings
+ *   int library block size, library block
+ *   int module count, (module name, int module block size) for each module
+ *   module blocks
+ * </pre>
+ */
+public final class CompactModelCache {
+  private static final int MAGIC = 0x41534d43; // "ASMC"
+  // Increase the value when changing the layout of the file or the way the tables are referenced.
+  private static final int FORMAT_VERSION = 1;
+
+  // Shorter strings take less space written inline than as a reference to the table.
+  private static final int MIN_SHARED_STRING_LENGTH = 8;
+  // Keeps strings within the limit of DataOutput#writeUTF.
+  private static final int MAX_SHARED_STRING_LENGTH = 4096;
+
+  @NotNull private final byte[] myBytes;
+  @NotNull private final String[] myStrings;
+  @NotNull private final List<?> myLibraries;
+  @NotNull private final Map<String, int[]> myModuleBlocks; // Module name -> {offset, size}.
+  @NotNull private final Map<String, File> myFiles = new HashMap<>();
+
+  private CompactModelCache(@NotNull byte[] bytes,
+                            @NotNull String[] strings,
+                            @NotNull List<?> libraries,
+                            @NotNull Map<String, int[]> moduleBlocks) {
+    myBytes = bytes;
+    myStrings = strings;
+    myLibraries = libraries;
+    myModuleBlocks = moduleBlocks;
+  }
+
+  /**
+   * Writes the given models to the given file.
+   *
+   * @param modelsByModule the models of each module, in the order in which they should be restored.
+   */
+  public static void write(@NotNull File file, @NotNull Map<String, List<Object>> modelsByModule) throws IOException {
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    Map<Object, Integer> libraries = new LinkedHashMap<>();
+
+    Map<String, byte[]> moduleBlocks = new LinkedHashMap<>();
+    for (Map.Entry<String, List<Object>> entry : modelsByModule.entrySet()) {
+      moduleBlocks.put(entry.getKey(), encode(new ArrayList<>(entry.getValue()), strings, libraries));
+    }
+    // Libraries may add strings to the table, but not other libraries.
+    byte[] libraryBlock = encode(new ArrayList<>(libraries.keySet()), strings, null);
+
+    try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(getModelClassesStamp());
+      out.writeInt(strings.size());
+      for (String string : strings.keySet()) {
+        out.writeUTF(string);
+      }
+      out.writeInt(libraryBlock.length);
+      out.write(libraryBlock);
+      out.writeInt(moduleBlocks.size());
+      for (Map.Entry<String, byte[]> entry : moduleBlocks.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeInt(entry.getValue().length);
+      }
+      for (byte[] block : moduleBlocks.values()) {
+        out.write(block);
+      }
+    }
+  }
+
+  /**
+   * Reads the tables of the given file. Module models are only decoded when requested through {@link #getModels(String)}.
+   *
+   * @return the cache, or {@code null} if the file does not exist or was written with a different format or different model classes.
+   */
+  @Nullable
+  public static CompactModelCache read(@NotNull File file) throws IOException, ClassNotFoundException {
+    if (!file.isFile()) {
+      return null;
+    }
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (bytes.length < 16 || in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != getModelClassesStamp()) {
+      return null;
+    }
+
+    String[] strings = new String[in.readInt()];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = in.readUTF();
+    }
+    int libraryBlockOffset = bytes.length - in.available();
+    int libraryBlockSize = in.readInt();
+    libraryBlockOffset += Integer.BYTES;
+    in.skipBytes(libraryBlockSize);
+
+    int moduleCount = in.readInt();
+    List<String> moduleNames = new ArrayList<>(moduleCount);
+    List<Integer> moduleSizes = new ArrayList<>(moduleCount);
+    for (int i = 0; i < moduleCount; i++) {
+      moduleNames.add(in.readUTF());
+      moduleSizes.add(in.readInt());
+    }
+    int offset = bytes.length - in.available();
+    Map<String, int[]> moduleBlocks = new LinkedHashMap<>();
+    for (int i = 0; i < moduleCount; i++) {
+      int size = moduleSizes.get(i);
+      if (offset + size > bytes.length) {
+        throw new IOException("Truncated model cache " + file.getPath());
+      }
+      moduleBlocks.put(moduleNames.get(i), new int[]{offset, size});
+      offset += size;
+    }
+
+    CompactModelCache cache = new CompactModelCache(bytes, strings, Collections.emptyList(), moduleBlocks);
+    List<?> libraries = cache.decode(libraryBlockOffset, libraryBlockSize);
+    return new CompactModelCache(bytes, strings, libraries, moduleBlocks);
+  }
+
+  @NotNull
+  public Set<String> getModuleNames() {
+    return Collections.unmodifiableSet(myModuleBlocks.keySet());
+  }
+
+  /**
+   * Decodes the models of the given module. Every call returns new model instances, sharing strings, files and libraries with the
+   * models of other modules decoded from this cache.
+   */
+  @NotNull
+  public List<?> getModels(@NotNull String moduleName) throws IOException, ClassNotFoundException {
+    int[] block = myModuleBlocks.get(moduleName);
+    if (block == null) {
+      return Collections.emptyList();
+    }
+    return decode(block[0], block[1]);
+  }
+
+  @NotNull
+  private static byte[] encode(@NotNull ArrayList<Object> objects,
+                               @NotNull Map<String, Integer> strings,
+                               @Nullable Map<Object, Integer> libraries) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (SharingObjectOutputStream out = new SharingObjectOutputStream(bytes, strings, libraries)) {
+      out.writeObject(objects);
+    }
+    return bytes.toByteArray();
+  }
+
+  @NotNull
+  private List<?> decode(int offset, int size) throws IOException, ClassNotFoundException {
+    try (SharingObjectInputStream in = new SharingObjectInputStream(new ByteArrayInputStream(myBytes, offset, size))) {
+      return (List<?>)in.readObject();
+    }
+  }
+
+  @VisibleForTesting
+  static long getModelClassesStamp() {
+    long stamp = 17;
+    for (Class<?> modelClass : new Class<?>[]{GradleModuleModel.class, NdkModuleModel.class, AndroidModuleModel.class,
+      JavaModuleModel.class}) {
+      ObjectStreamClass streamClass = ObjectStreamClass.lookup(modelClass);
+      stamp = 31 * stamp + (streamClass != null ? streamClass.getSerialVersionUID() : 0);
+    }
+    return stamp;
+  }
+
+  private static final class StringRef implements Serializable {
+    private final int myIndex;
+
+    StringRef(int index) {
+      myIndex = index;
+    }
+  }
+
+  private static final class LibraryRef implements Serializable {
+    private final int myIndex;
+
+    LibraryRef(int index) {
+      myIndex = index;
+    }
+  }
+
+  private static final class SharingObjectOutputStream extends ObjectOutputStream {
+    @NotNull private final Map<String, Integer> myStrings;
+    @Nullable private final Map<Object, Integer> myLibraries;
+
+    SharingObjectOutputStream(@NotNull OutputStream out,
+                              @NotNull Map<String, Integer> strings,
+                              @Nullable Map<Object, Integer> libraries) throws IOException {
+      super(out);
+      myStrings = strings;
+      myLibraries = libraries;
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object obj) {
+      if (obj instanceof String) {
+        String string = (String)obj;
+        if (string.length() >= MIN_SHARED_STRING_LENGTH && string.length() <= MAX_SHARED_STRING_LENGTH) {
+          return new StringRef(myStrings.computeIfAbsent(string, key -> myStrings.size()));
+        }
+      }
+      else if (myLibraries != null && obj instanceof Library && obj instanceof Serializable) {
+        return new LibraryRef(myLibraries.computeIfAbsent(obj, key -> myLibraries.size()));
+      }
+      return obj;
+    }
+  }
+
+  private final class SharingObjectInputStream extends ObjectInputStream {
+    SharingObjectInputStream(@NotNull InputStream in) throws IOException {
+      super(in);
+      enableResolveObject(true);
+    }
+
+    @Override
+    protected Object resolveObject(Object obj) throws IOException {
+      if (obj instanceof StringRef) {
+        return myStrings[((StringRef)obj).myIndex];
+      }
+      if (obj instanceof LibraryRef) {
+        return myLibraries.get(((LibraryRef)obj).myIndex);
+      }
+      if (obj instanceof File) {
+        synchronized (myFiles) {
+          return myFiles.computeIfAbsent(((File)obj).getPath(), path -> (File)obj);
+        }
+      }
+      return obj;
+    }
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.android.tools.idea.gradle.project.sync.idea.data;
 
+import com.android.tools.idea.flags.StudioFlags;
 import com.android.tools.idea.gradle.project.facet.gradle.GradleFacet;
 import com.android.tools.idea.gradle.project.facet.java.JavaFacet;
 import com.android.tools.idea.gradle.project.facet.ndk.NdkFacet;
@@ -22,8 +23,10 @@ import com.android.tools.idea.gradle.project.model.AndroidModuleModel;
 import com.android.tools.idea.gradle.project.model.GradleModuleModel;
 import com.android.tools.idea.gradle.project.model.JavaModuleModel;
 import com.android.tools.idea.gradle.project.model.NdkModuleModel;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.externalSystem.model.DataNode;
 import com.intellij.openapi.externalSystem.model.ExternalProjectInfo;
 import com.intellij.openapi.externalSystem.model.Key;
@@ -39,16 +42,30 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.gradle.util.GradleConstants;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.android.tools.idea.Projects.getBaseDirPath;
+import static com.android.tools.idea.gradle.util.GradleUtil.getCacheFolderRootPath;
 import static com.android.tools.idea.gradle.project.sync.idea.data.service.AndroidProjectKeys.*;
 import static com.intellij.openapi.externalSystem.model.ProjectKeys.MODULE;
 import static com.intellij.openapi.externalSystem.util.ExternalSystemApiUtil.*;
+import static com.intellij.openapi.util.io.FileUtil.delete;
+import static com.intellij.openapi.util.io.FileUtil.ensureExists;
 
 public class DataNodeCaches {
+  private static final List<Key<?>> MODEL_KEYS = ImmutableList.of(GRADLE_MODULE_MODEL, NDK_MODEL, ANDROID_MODEL, JAVA_MODULE_MODEL);
+
   @NotNull private final Project myProject;
+  // Whether the models have been restored from the compact model cache since it was last written. Restoring reads the whole file, so it
+  // only happens on the first lookup of the external project data cache.
+  @NotNull private final AtomicBoolean myModelsRestored = new AtomicBoolean();
 
   @NotNull
   public static DataNodeCaches getInstance(@NotNull Project project) {
@@ -61,10 +78,109 @@ public class DataNodeCaches {
 
   @Nullable
   public DataNode<ProjectData> getCachedProjectData() {
+    DataNode<ProjectData> cache = getExternalProjectStructure();
+    if (cache != null && StudioFlags.COMPACT_MODEL_CACHE_ONLY.get() && myModelsRestored.compareAndSet(false, true)) {
+      restoreModels(cache);
+    }
+    return cache;
+  }
+
+  @Nullable
+  private DataNode<ProjectData> getExternalProjectStructure() {
     ExternalProjectInfo projectInfo = getExternalProjectInfo();
     return projectInfo != null ? projectInfo.getExternalProjectStructure() : null;
   }
 
+  /**
+   * If {@link StudioFlags#COMPACT_MODEL_CACHE_ONLY} is enabled, writes the models of the last sync to the compact model cache and removes
+   * them from the external project data cache. {@link #getCachedProjectData()} then restores them from the compact cache.
+   */
+  public void saveModels() {
+    File file = getCompactModelCacheFile();
+    if (!StudioFlags.COMPACT_MODEL_CACHE_ONLY.get()) {
+      // The external project data cache keeps the models; don't leave a stale copy behind from when the flag was enabled.
+      if (file.exists()) {
+        delete(file);
+      }
+      return;
+    }
+    DataNode<ProjectData> cache = getExternalProjectStructure();
+    if (cache == null) {
+      return;
+    }
+    Map<String, List<Object>> modelsByModule = new LinkedHashMap<>();
+    for (DataNode<ModuleData> moduleDataNode : findAll(cache, MODULE)) {
+      List<Object> models = new ArrayList<>();
+      for (Key<?> key : MODEL_KEYS) {
+        DataNode<?> modelDataNode = find(moduleDataNode, key);
+        if (modelDataNode != null) {
+          models.add(modelDataNode.getData());
+        }
+      }
+      if (!models.isEmpty()) {
+        modelsByModule.put(moduleDataNode.getData().getInternalName(), models);
+      }
+    }
+
+    try {
+      ensureExists(file.getParentFile());
+      CompactModelCache.write(file, modelsByModule);
+    }
+    catch (Throwable e) {
+      getLog().info(String.format("Error while saving the model cache of project '%1$s'", myProject.getName()), e);
+      delete(file);
+      return;
+    }
+
+    clearExternalProjectDataCaches();
+    // The models were removed from the cache in memory too, so the next lookup needs to restore them.
+    myModelsRestored.set(false);
+  }
+
+  private void restoreModels(@NotNull DataNode<ProjectData> cache) {
+    List<DataNode<ModuleData>> modulesWithoutModels = new ArrayList<>();
+    for (DataNode<ModuleData> moduleDataNode : findAll(cache, MODULE)) {
+      if (MODEL_KEYS.stream().noneMatch(key -> find(moduleDataNode, key) != null)) {
+        modulesWithoutModels.add(moduleDataNode);
+      }
+    }
+    if (modulesWithoutModels.isEmpty()) {
+      return;
+    }
+
+    try {
+      CompactModelCache modelCache = CompactModelCache.read(getCompactModelCacheFile());
+      if (modelCache == null) {
+        return;
+      }
+      for (DataNode<ModuleData> moduleDataNode : modulesWithoutModels) {
+        for (Object model : modelCache.getModels(moduleDataNode.getData().getInternalName())) {
+          if (model instanceof GradleModuleModel) {
+            moduleDataNode.createChild(GRADLE_MODULE_MODEL, (GradleModuleModel)model);
+          }
+          else if (model instanceof NdkModuleModel) {
+            moduleDataNode.createChild(NDK_MODEL, (NdkModuleModel)model);
+          }
+          else if (model instanceof AndroidModuleModel) {
+            moduleDataNode.createChild(ANDROID_MODEL, (AndroidModuleModel)model);
+          }
+          else if (model instanceof JavaModuleModel) {
+            moduleDataNode.createChild(JAVA_MODULE_MODEL, (JavaModuleModel)model);
+          }
+        }
+      }
+    }
+    catch (IOException | ClassNotFoundException | RuntimeException e) {
+      // Modules that did not get their models are reported by isCacheMissingModels, and a Gradle sync takes place.
+      getLog().info(String.format("Cannot recover the model cache of project '%1$s'", myProject.getName()), e);
+    }
+  }
+
+  @NotNull
+  private File getCompactModelCacheFile() {
+    return new File(getCacheFolderRootPath(myProject), "gradle_models.bin");
+  }
+
   @Nullable
   private ExternalProjectInfo getExternalProjectInfo() {
     ProjectDataManager dataManager = ProjectDataManager.getInstance();
@@ -142,6 +258,12 @@ public class DataNodeCaches {
   }
 
   public void clearCaches() {
+    delete(getCompactModelCacheFile());
+    myModelsRestored.set(false);
+    clearExternalProjectDataCaches();
+  }
+
+  private void clearExternalProjectDataCaches() {
     ExternalProjectInfo projectInfo = getExternalProjectInfo();
     if (projectInfo == null) {
       return;
@@ -168,4 +290,9 @@ public class DataNodeCaches {
       dataNode.clear(true);
     }
   }
+
+  @NotNull
+  private static Logger getLog() {
+    return Logger.getInstance(DataNodeCaches.class);
+  }
 }
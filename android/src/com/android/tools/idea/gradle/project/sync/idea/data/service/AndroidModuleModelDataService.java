@@ -21,20 +21,26 @@ import com.android.tools.idea.gradle.project.model.AndroidModuleModel;
 import com.android.tools.idea.gradle.project.sync.ModuleSetupContext;
 import com.android.tools.idea.gradle.project.sync.setup.module.AndroidModuleSetup;
 import com.android.tools.idea.gradle.project.sync.setup.module.android.AndroidModuleCleanupStep;
+import com.android.tools.idea.gradle.project.sync.setup.module.dependency.LibraryRegistry;
 import com.android.tools.idea.gradle.project.sync.setup.post.MemorySettingsPostSyncChecker;
 import com.android.tools.idea.gradle.project.sync.setup.post.ProjectStructureUsageTracker;
 import com.android.tools.idea.gradle.project.sync.setup.post.TimeBasedReminder;
 import com.android.tools.idea.gradle.project.sync.setup.post.upgrade.GradlePluginUpgrade;
 import com.android.tools.idea.gradle.project.sync.validation.android.AndroidModuleValidator;
 import com.google.common.annotations.VisibleForTesting;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.externalSystem.model.DataNode;
 import com.intellij.openapi.externalSystem.model.Key;
 import com.intellij.openapi.externalSystem.model.project.ProjectData;
 import com.intellij.openapi.externalSystem.service.project.IdeModelsProvider;
 import com.intellij.openapi.externalSystem.service.project.IdeModifiableModelsProvider;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import org.jetbrains.annotations.NotNull;
@@ -45,6 +51,9 @@ import org.jetbrains.annotations.TestOnly;
  * Service that sets an Android SDK and facets to the modules of a project that has been imported from an Android-Gradle project.
  */
 public class AndroidModuleModelDataService extends ModuleModelDataService<AndroidModuleModel> {
+  private static final com.intellij.openapi.util.Key<Map<Module, ModuleSetupContext>> PREPARED_CONTEXTS_KEY =
+    com.intellij.openapi.util.Key.create("android.module.setup.prepared.contexts");
+
   @NotNull private final ModuleSetupContext.Factory myModuleSetupContextFactory;
   @NotNull private final AndroidModuleSetup myModuleSetup;
   @NotNull private final AndroidModuleValidator.Factory myModuleValidatorFactory;
@@ -73,15 +82,69 @@ public class AndroidModuleModelDataService extends ModuleModelDataService<Androi
     return ANDROID_MODEL;
   }
 
+  @Override
+  protected void prepareImport(@NotNull Project project,
+                               @NotNull IdeModifiableModelsProvider modelsProvider,
+                               @NotNull Map<String, AndroidModuleModel> modelsByModuleName) {
+    Map<Module, ModuleSetupContext> contextsByModule = new LinkedHashMap<>();
+    Map<ModuleSetupContext, AndroidModuleModel> modelsByContext = new LinkedHashMap<>();
+    ReadAction.run(() -> {
+      for (Module module : modelsProvider.getModules()) {
+        AndroidModuleModel androidModel = modelsByModuleName.get(module.getName());
+        if (androidModel != null) {
+          ModuleSetupContext context = myModuleSetupContextFactory.create(module, modelsProvider);
+          contextsByModule.put(module, context);
+          modelsByContext.put(context, androidModel);
+        }
+      }
+    });
+    if (modelsByContext.isEmpty()) {
+      return;
+    }
+
+    // Work out what every module needs (e.g. its dependencies) concurrently and away from the EDT, before the write action that applies the
+    // changes to the IDE models.
+    Runnable prepareTask = () -> myModuleSetup.prepareModules(modelsByContext);
+    if (ApplicationManager.getApplication().isDispatchThread()) {
+      if (!ProgressManager.getInstance().runProcessWithProgressSynchronously(prepareTask, "Preparing Modules", true, project)) {
+        throw new ProcessCanceledException();
+      }
+    }
+    else {
+      prepareTask.run();
+    }
+    project.putUserData(PREPARED_CONTEXTS_KEY, contextsByModule);
+  }
+
   @Override
   protected void importData(@NotNull Collection<DataNode<AndroidModuleModel>> toImport,
                             @NotNull Project project,
                             @NotNull IdeModifiableModelsProvider modelsProvider,
                             @NotNull Map<String, AndroidModuleModel> modelsByModuleName) {
+    Map<Module, ModuleSetupContext> preparedContexts = project.getUserData(PREPARED_CONTEXTS_KEY);
+    project.putUserData(PREPARED_CONTEXTS_KEY, null);
+
     AndroidModuleValidator moduleValidator = myModuleValidatorFactory.create(project);
-    for (Module module : modelsProvider.getModules()) {
-      AndroidModuleModel androidModel = modelsByModuleName.get(module.getName());
-      setUpModule(module, moduleValidator, modelsProvider, androidModel);
+    // Libraries shared by several modules are only set up once, see LibraryRegistry.
+    LibraryRegistry.install(project);
+    try {
+      for (Module module : modelsProvider.getModules()) {
+        AndroidModuleModel androidModel = modelsByModuleName.get(module.getName());
+        if (androidModel != null) {
+          ModuleSetupContext context = preparedContexts != null ? preparedContexts.get(module) : null;
+          if (context == null) {
+            context = myModuleSetupContextFactory.create(module, modelsProvider);
+          }
+          myModuleSetup.setUpModule(context, androidModel);
+          moduleValidator.validate(module, androidModel);
+        }
+        else {
+          onModelNotFound(module, modelsProvider);
+        }
+      }
+    }
+    finally {
+      LibraryRegistry.remove(project);
     }
 
     if (!modelsByModuleName.isEmpty()) {
@@ -89,20 +152,6 @@ public class AndroidModuleModelDataService extends ModuleModelDataService<Androi
     }
   }
 
-  private void setUpModule(@NotNull Module module,
-                           @NotNull AndroidModuleValidator moduleValidator,
-                           @NotNull IdeModifiableModelsProvider modelsProvider,
-                           @Nullable AndroidModuleModel androidModel) {
-    if (androidModel != null) {
-      ModuleSetupContext context = myModuleSetupContextFactory.create(module, modelsProvider);
-      myModuleSetup.setUpModule(context, androidModel);
-      moduleValidator.validate(module, androidModel);
-    }
-    else {
-      onModelNotFound(module, modelsProvider);
-    }
-  }
-
   @Override
   protected void onModelNotFound(@NotNull Module module, @NotNull IdeModifiableModelsProvider modelsProvider) {
     myCleanupStep.cleanUpModule(module, modelsProvider);
@@ -18,6 +18,7 @@ package com.android.tools.idea.gradle.project.sync.idea.data.service;
 import com.android.tools.idea.gradle.project.model.ModuleModel;
 import com.android.tools.idea.gradle.project.sync.GradleSyncState;
 import com.android.tools.idea.gradle.util.GradleUtil;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.externalSystem.model.DataNode;
@@ -71,15 +72,28 @@ public abstract class ModuleModelDataService<T extends ModuleModel> extends Abst
   private void importData(@NotNull Collection<DataNode<T>> toImport,
                           @NotNull Project project,
                           @NotNull IdeModifiableModelsProvider modelsProvider) {
+    if (project.isDisposed()) {
+      return;
+    }
+    Map<String, T> modelsByModuleName = ReadAction.compute(() -> indexByModuleName(toImport, modelsProvider));
+    prepareImport(project, modelsProvider, modelsByModuleName);
     WriteCommandAction.runWriteCommandAction(project, ()->  {
         if (project.isDisposed()) {
           return;
         }
-        Map<String, T> modelsByModuleName = indexByModuleName(toImport, modelsProvider);
         importData(toImport, project, modelsProvider, modelsByModuleName);
     });
   }
 
+  /**
+   * Called before {@link #importData(Collection, Project, IdeModifiableModelsProvider, Map)}, outside of the write action that method runs
+   * in. Implementations can compute here anything the import needs that does not modify IDE models.
+   */
+  protected void prepareImport(@NotNull Project project,
+                               @NotNull IdeModifiableModelsProvider modelsProvider,
+                               @NotNull Map<String, T> modelsByModuleName) {
+  }
+
   protected abstract void importData(@NotNull Collection<DataNode<T>> toImport,
                                      @NotNull Project project,
                                      @NotNull IdeModifiableModelsProvider modelsProvider,
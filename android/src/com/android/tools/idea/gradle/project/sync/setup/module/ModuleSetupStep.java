@@ -35,6 +35,14 @@ public abstract class ModuleSetupStep<T> {
 
   protected abstract void doSetUpModule(@NotNull ModuleSetupContext context, @NotNull T gradleModel);
 
+  /**
+   * Computes ahead of {@link #setUpModule(ModuleSetupContext, Object)} anything this step needs that can be derived from the Gradle
+   * model alone, and stores it in the given context. This method is called on pooled threads under a read action, concurrently for
+   * different modules, so it must not modify IDE models.
+   */
+  public void prepare(@NotNull ModuleSetupContext context, @NotNull T gradleModel) {
+  }
+
   public boolean invokeOnBuildVariantChange() {
     return false;
   }
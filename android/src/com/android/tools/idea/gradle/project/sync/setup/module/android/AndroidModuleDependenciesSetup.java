@@ -36,6 +36,7 @@ import com.intellij.openapi.roots.libraries.Library;
 import com.intellij.openapi.util.text.StringUtil;
 import java.io.File;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.gradle.util.GradleConstants;
 
 class AndroidModuleDependenciesSetup extends ModuleDependenciesSetup {
@@ -57,15 +58,28 @@ class AndroidModuleDependenciesSetup extends ModuleDependenciesSetup {
                               @NotNull File artifactPath,
                               @NotNull File[] binaryPaths,
                               boolean exported) {
-
-    // let's use the same format for libraries imported from Gradle, to be compatible with API like ExternalSystemApiUtil.isExternalSystemLibrary()
-    // and be able to reuse common cleanup service, see LibraryDataService.postProcess()
-    String prefix = GradleConstants.SYSTEM_ID.getReadableName() + ": ";
-    libraryName = libraryName.isEmpty() || StringUtil.startsWith(libraryName, prefix) ? libraryName : prefix + libraryName;
-
+    libraryName = toGradleLibraryName(libraryName);
     LibraryFilePaths libraryFilePaths = LibraryFilePaths.getInstance(module.getProject());
     File sourceJarPath = libraryFilePaths.findSourceJarPath(libraryName, artifactPath);
     File javadocJarPath = libraryFilePaths.findJavadocJarPath(libraryName, artifactPath);
+    setUpLibraryDependency(module, modelsProvider, libraryName, scope, artifactPath, binaryPaths, sourceJarPath, javadocJarPath, exported);
+  }
+
+  /**
+   * Same as {@link #setUpLibraryDependency(Module, IdeModifiableModelsProvider, String, DependencyScope, File, File[], boolean)}, with
+   * source and javadoc jars that have already been looked up.
+   */
+  void setUpLibraryDependency(@NotNull Module module,
+                              @NotNull IdeModifiableModelsProvider modelsProvider,
+                              @NotNull String libraryName,
+                              @NotNull DependencyScope scope,
+                              @NotNull File artifactPath,
+                              @NotNull File[] binaryPaths,
+                              @Nullable File sourceJarPath,
+                              @Nullable File javadocJarPath,
+                              boolean exported) {
+    String prefix = GradleConstants.SYSTEM_ID.getReadableName() + ": ";
+    libraryName = toGradleLibraryName(libraryName);
     boolean newLibrary = false;
     Library library = modelsProvider.getLibraryByName(libraryName);
     if (library == null || !isLibraryValid(modelsProvider.getModifiableLibraryModel(library), binaryPaths, javadocJarPath, sourceJarPath)) {
@@ -127,4 +141,12 @@ class AndroidModuleDependenciesSetup extends ModuleDependenciesSetup {
 
     addLibraryAsDependency(library, libraryName, scope, module, modelsProvider, exported);
   }
+
+  @NotNull
+  private static String toGradleLibraryName(@NotNull String libraryName) {
+    // let's use the same format for libraries imported from Gradle, to be compatible with API like ExternalSystemApiUtil.isExternalSystemLibrary()
+    // and be able to reuse common cleanup service, see LibraryDataService.postProcess()
+    String prefix = GradleConstants.SYSTEM_ID.getReadableName() + ": ";
+    return libraryName.isEmpty() || StringUtil.startsWith(libraryName, prefix) ? libraryName : prefix + libraryName;
+  }
 }
@@ -29,6 +29,7 @@ import static com.intellij.openapi.vfs.VfsUtilCore.virtualToIoFile;
 
 import com.android.builder.model.SyncIssue;
 import com.android.ide.common.gradle.model.IdeAndroidProject;
+import com.android.tools.idea.gradle.LibraryFilePaths;
 import com.android.tools.idea.gradle.project.model.AndroidModuleModel;
 import com.android.tools.idea.gradle.project.sync.ModuleSetupContext;
 import com.android.tools.idea.gradle.project.sync.issues.UnresolvedDependenciesReporter;
@@ -38,17 +39,20 @@ import com.android.tools.idea.gradle.project.sync.setup.module.common.Dependency
 import com.android.tools.idea.gradle.project.sync.setup.module.dependency.DependenciesExtractor;
 import com.android.tools.idea.gradle.project.sync.setup.module.dependency.DependencySet;
 import com.android.tools.idea.gradle.project.sync.setup.module.dependency.LibraryDependency;
+import com.android.tools.idea.gradle.project.sync.setup.module.dependency.LibraryRegistry;
 import com.android.tools.idea.gradle.project.sync.setup.module.dependency.ModuleDependency;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Sets;
 import com.intellij.openapi.externalSystem.service.project.IdeModifiableModelsProvider;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.projectRoots.SdkAdditionalData;
 import com.intellij.openapi.roots.ContentEntry;
 import com.intellij.openapi.roots.DependencyScope;
 import com.intellij.openapi.roots.ModifiableRootModel;
 import com.intellij.openapi.roots.ModuleOrderEntry;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
 import java.io.File;
 import java.util.Arrays;
@@ -60,6 +64,7 @@ import org.jetbrains.android.sdk.AndroidSdkData;
 import org.jetbrains.annotations.NotNull;
 
 public class DependenciesAndroidModuleSetupStep extends AndroidModuleSetupStep {
+  private static final Key<DependencySet> DEPENDENCIES_KEY = Key.create("android.module.setup.dependencies");
 
   @NotNull private final DependenciesExtractor myDependenciesExtractor;
   @NotNull private final AndroidModuleDependenciesSetup myDependenciesSetup;
@@ -76,14 +81,27 @@ public class DependenciesAndroidModuleSetupStep extends AndroidModuleSetupStep {
   }
 
   @Override
-  protected void doSetUpModule(@NotNull ModuleSetupContext context, @NotNull AndroidModuleModel androidModel) {
-    ModuleFinder moduleFinder = context.getModuleFinder();
-    assert moduleFinder != null;
+  public void prepare(@NotNull ModuleSetupContext context, @NotNull AndroidModuleModel androidModel) {
+    DependencySet dependencies = extractDependencies(context, androidModel);
+    // Modules are prepared concurrently, and a library shared by several modules is only looked up by the first of them.
+    LibraryFilePaths libraryFilePaths = LibraryFilePaths.getInstance(context.getModule().getProject());
+    for (LibraryDependency dependency : dependencies.onLibraries()) {
+      dependency.findFilePaths(libraryFilePaths);
+    }
+    context.putUserData(DEPENDENCIES_KEY, dependencies);
+  }
 
+  @Override
+  protected void doSetUpModule(@NotNull ModuleSetupContext context, @NotNull AndroidModuleModel androidModel) {
     Module module = context.getModule();
     IdeModifiableModelsProvider ideModelsProvider = context.getIdeModelsProvider();
-    File projectBasePath = new File(Objects.requireNonNull(module.getProject().getBasePath()));
-    DependencySet dependencies = myDependenciesExtractor.extractFrom(projectBasePath, androidModel.getSelectedVariant(), moduleFinder);
+    DependencySet dependencies = context.getUserData(DEPENDENCIES_KEY);
+    if (dependencies != null) {
+      context.putUserData(DEPENDENCIES_KEY, null);
+    }
+    else {
+      dependencies = extractDependencies(context, androidModel);
+    }
 
     for (LibraryDependency dependency : dependencies.onLibraries()) {
       updateLibraryDependency(module, ideModelsProvider, dependency, androidModel);
@@ -107,6 +125,17 @@ public class DependenciesAndroidModuleSetupStep extends AndroidModuleSetupStep {
     }
   }
 
+  @NotNull
+  private DependencySet extractDependencies(@NotNull ModuleSetupContext context, @NotNull AndroidModuleModel androidModel) {
+    ModuleFinder moduleFinder = context.getModuleFinder();
+    assert moduleFinder != null;
+
+    Project project = context.getModule().getProject();
+    File projectBasePath = new File(Objects.requireNonNull(project.getBasePath()));
+    LibraryRegistry libraryRegistry = LibraryRegistry.find(project);
+    return myDependenciesExtractor.extractFrom(projectBasePath, androidModel.getSelectedVariant(), moduleFinder, libraryRegistry);
+  }
+
   /**
    * @return true if the module dependency is in test scope, and it is the current module.
    */
@@ -143,8 +172,15 @@ public class DependenciesAndroidModuleSetupStep extends AndroidModuleSetupStep {
                                       @NotNull AndroidModuleModel moduleModel) {
     String name = dependency.getName();
     DependencyScope scope = dependency.getScope();
-    myDependenciesSetup.setUpLibraryDependency(module, modelsProvider, name, scope, dependency.getArtifactPath(),
-                                               dependency.getBinaryPaths(), getExported(moduleModel));
+    if (dependency.isFilePathsFound()) {
+      myDependenciesSetup.setUpLibraryDependency(module, modelsProvider, name, scope, dependency.getArtifactPath(),
+                                                 dependency.getBinaryPaths(), dependency.getSourceJarPath(), dependency.getJavadocJarPath(),
+                                                 getExported(moduleModel));
+    }
+    else {
+      myDependenciesSetup.setUpLibraryDependency(module, modelsProvider, name, scope, dependency.getArtifactPath(),
+                                                 dependency.getBinaryPaths(), getExported(moduleModel));
+    }
 
     File buildFolder = moduleModel.getAndroidProject().getBuildFolder();
 
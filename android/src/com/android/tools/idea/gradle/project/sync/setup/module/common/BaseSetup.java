@@ -17,6 +17,15 @@ package com.android.tools.idea.gradle.project.sync.setup.module.common;
 
 import com.android.tools.idea.gradle.project.sync.ModuleSetupContext;
 import com.android.tools.idea.gradle.project.sync.setup.module.ModuleSetupStep;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -42,6 +51,41 @@ public abstract class BaseSetup<T extends ModuleSetupStep<M>, M> {
     }
   }
 
+  /**
+   * Runs {@link ModuleSetupStep#prepare(ModuleSetupContext, Object)} of every step for all the given modules, concurrently and each under a
+   * read action. It must not be called from a write action. The results are picked up by {@link #setUpModule(ModuleSetupContext, Object)},
+   * which still needs to be called for each module.
+   *
+   * @throws ProcessCanceledException if the preparation was cancelled.
+   */
+  public void prepareModules(@NotNull Map<ModuleSetupContext, M> modelsByContext) {
+    if (modelsByContext.isEmpty()) {
+      return;
+    }
+    Application application = ApplicationManager.getApplication();
+    // The module finder is shared by all modules and built lazily from their facets, which cannot be done concurrently.
+    application.runReadAction(() -> {
+      modelsByContext.keySet().iterator().next().getModuleFinder();
+    });
+
+    List<Map.Entry<ModuleSetupContext, M>> entries = new ArrayList<>(modelsByContext.entrySet());
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(entries, indicator, entry -> {
+      application.runReadAction(() -> {
+        for (T step : mySetupSteps) {
+          if (shouldRunSyncStep(step)) {
+            step.prepare(entry.getKey(), entry.getValue());
+          }
+        }
+      });
+      return true;
+    });
+    // Every task returns true, so the modules were not all prepared only if the progress was cancelled.
+    if (!completed) {
+      throw new ProcessCanceledException();
+    }
+  }
+
   protected boolean shouldRunSyncStep(T step) {
     return true;
   }
@@ -36,6 +36,7 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.roots.DependencyScope;
 import java.io.File;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Creates {@link DependencySet} from variant or artifact.
@@ -57,14 +58,26 @@ public class DependenciesExtractor {
   public DependencySet extractFrom(@NotNull File basePath,
                                    @NotNull IdeVariant variant,
                                    @NotNull ModuleFinder moduleFinder) {
+    return extractFrom(basePath, variant, moduleFinder, null);
+  }
+
+  /**
+   * Same as {@link #extractFrom(File, IdeVariant, ModuleFinder)}, but the library dependencies share their paths with the dependencies
+   * of other modules on the same libraries through the given registry. Safe to call from several threads.
+   */
+  @NotNull
+  public DependencySet extractFrom(@NotNull File basePath,
+                                   @NotNull IdeVariant variant,
+                                   @NotNull ModuleFinder moduleFinder,
+                                   @Nullable LibraryRegistry registry) {
     DependencySet dependencies = new DependencySet();
 
     for (IdeBaseArtifact testArtifact : variant.getTestArtifacts()) {
-      populate(basePath, dependencies, testArtifact, moduleFinder, TEST);
+      populate(basePath, dependencies, testArtifact, moduleFinder, TEST, registry);
     }
 
     IdeAndroidArtifact mainArtifact = variant.getMainArtifact();
-    populate(basePath, dependencies, mainArtifact, moduleFinder, COMPILE);
+    populate(basePath, dependencies, mainArtifact, moduleFinder, COMPILE, registry);
 
     return dependencies;
   }
@@ -80,7 +93,7 @@ public class DependenciesExtractor {
                                    @NotNull DependencyScope scope,
                                    @NotNull ModuleFinder moduleFinder) {
     DependencySet dependencies = new DependencySet();
-    populate(basePath, dependencies, artifact, moduleFinder, scope);
+    populate(basePath, dependencies, artifact, moduleFinder, scope, null);
     return dependencies;
   }
 
@@ -88,18 +101,19 @@ public class DependenciesExtractor {
                                @NotNull DependencySet dependencies,
                                @NotNull IdeBaseArtifact artifact,
                                @NotNull ModuleFinder moduleFinder,
-                               @NotNull DependencyScope scope) {
+                               @NotNull DependencyScope scope,
+                               @Nullable LibraryRegistry registry) {
     IdeDependencies artifactDependencies = artifact.getLevel2Dependencies();
 
     for (Library library : artifactDependencies.getJavaLibraries()) {
       LibraryDependency libraryDependency =
         LibraryDependency
-          .create(basePath, library.getArtifact(), library.getArtifactAddress(), scope, ImmutableList.of(library.getArtifact()));
+          .create(basePath, library.getArtifact(), library.getArtifactAddress(), scope, ImmutableList.of(library.getArtifact()), registry);
       dependencies.add(libraryDependency);
     }
 
     for (Library library : artifactDependencies.getAndroidLibraries()) {
-      dependencies.add(createLibraryDependencyFromAndroidLibrary(basePath, library, scope));
+      dependencies.add(createLibraryDependencyFromAndroidLibrary(basePath, library, scope, registry));
     }
 
     for (Library library : artifactDependencies.getModuleDependencies()) {
@@ -125,14 +139,15 @@ public class DependenciesExtractor {
   @NotNull
   private static LibraryDependency createLibraryDependencyFromAndroidLibrary(@NotNull File basePath,
                                                                              @NotNull Library library,
-                                                                             @NotNull DependencyScope scope) {
+                                                                             @NotNull DependencyScope scope,
+                                                                             @Nullable LibraryRegistry registry) {
     ImmutableList.Builder<File> binaryPaths = new ImmutableList.Builder<>();
     binaryPaths.add(FilePaths.toSystemDependentPath(library.getCompileJarFile()));
     binaryPaths.add(FilePaths.toSystemDependentPath(library.getResFolder()));
     for (String localJar : library.getLocalJars()) {
       binaryPaths.add(FilePaths.toSystemDependentPath(localJar));
     }
-    return LibraryDependency.create(basePath, library.getArtifact(), library.getArtifactAddress(), scope, binaryPaths.build());
+    return LibraryDependency.create(basePath, library.getArtifact(), library.getArtifactAddress(), scope, binaryPaths.build(), registry);
   }
 
   /**
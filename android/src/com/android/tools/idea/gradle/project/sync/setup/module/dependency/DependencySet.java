@@ -18,7 +18,6 @@ package com.android.tools.idea.gradle.project.sync.setup.module.dependency;
 import com.google.common.collect.*;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
@@ -98,7 +97,7 @@ public class DependencySet {
   }
 
   private static boolean areSameArtifact(@NotNull LibraryDependency d1, @NotNull LibraryDependency d2) {
-    return Arrays.equals(d1.getBinaryPaths(), d2.getBinaryPaths());
+    return d1.hasSameBinaryPaths(d2);
   }
 
   /**
@@ -20,15 +20,17 @@ import static com.intellij.openapi.util.io.FileUtil.filesEqual;
 import static com.intellij.openapi.util.io.FileUtil.toSystemIndependentName;
 import static com.intellij.util.ArrayUtilRt.EMPTY_FILE_ARRAY;
 
+import com.android.tools.idea.gradle.LibraryFilePaths;
+import com.android.tools.idea.gradle.project.sync.setup.module.dependency.LibraryRegistry.SharedLibrary;
 import com.google.common.annotations.VisibleForTesting;
 import com.intellij.openapi.roots.DependencyScope;
 import com.intellij.openapi.util.text.StringUtil;
 import java.io.File;
 import java.util.Collection;
-import java.util.LinkedHashSet;
 import java.util.Objects;
 import kotlin.io.FilesKt;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.plugins.gradle.util.GradleConstants;
 
 /**
@@ -41,8 +43,8 @@ public class LibraryDependency extends Dependency {
   @NotNull
   public static final String NAME_PREFIX = GradleConstants.SYSTEM_ID.getReadableName() + ": ";
 
-  @NotNull private final Collection<File> myBinaryPaths;
-  @NotNull private final File myArtifactPath;
+  // Artifact and binary paths, shared with the dependencies of other modules on the same library.
+  @NotNull private final SharedLibrary myLibrary;
 
   private String myName;
 
@@ -59,13 +61,29 @@ public class LibraryDependency extends Dependency {
                                          @NotNull String artifactAddress,
                                          @NotNull DependencyScope scope,
                                          @NotNull Collection<File> binaryPaths) {
+    return create(basePath, artifactPath, artifactAddress, scope, binaryPaths, null);
+  }
+
+  /**
+   * Creates a new {@link LibraryDependency}, sharing the library's paths with other dependencies on the same library in the given
+   * registry.
+   */
+  public static LibraryDependency create(@NotNull File basePath,
+                                         @NotNull File artifactPath,
+                                         @NotNull String artifactAddress,
+                                         @NotNull DependencyScope scope,
+                                         @NotNull Collection<File> binaryPaths,
+                                         @Nullable LibraryRegistry registry) {
     String adjustedArtifactAddress;
     if (artifactAddress.startsWith(LOCAL_AARS)) {
       adjustedArtifactAddress = createShortLocalArtifactAddress(basePath, artifactPath);
     } else {
       adjustedArtifactAddress = artifactAddress;
     }
-    return new LibraryDependency(artifactPath, adjustedArtifactAddress, scope, binaryPaths);
+    if (registry == null) {
+      return new LibraryDependency(artifactPath, adjustedArtifactAddress, scope, binaryPaths);
+    }
+    return new LibraryDependency(registry.intern(toLibraryName(adjustedArtifactAddress), artifactPath, binaryPaths), scope);
   }
 
   /**
@@ -98,20 +116,53 @@ public class LibraryDependency extends Dependency {
                            @NotNull String artifactAddress,
                            @NotNull DependencyScope scope,
                            @NotNull Collection<File> binaryPaths) {
+    this(new SharedLibrary(toLibraryName(artifactAddress), artifactPath, binaryPaths), scope);
+  }
+
+  private LibraryDependency(@NotNull SharedLibrary library, @NotNull DependencyScope scope) {
     super(scope);
-    myBinaryPaths = new LinkedHashSet<>(binaryPaths);
-    myArtifactPath = artifactPath;
-    setName(artifactAddress);
+    myLibrary = library;
+    myName = library.getName();
   }
 
   @NotNull
   public File[] getBinaryPaths() {
-    return myBinaryPaths.isEmpty() ? EMPTY_FILE_ARRAY : myBinaryPaths.toArray(new File[0]);
+    return myLibrary.getBinaryPaths().isEmpty() ? EMPTY_FILE_ARRAY : myLibrary.getBinaryPaths().toArray(new File[0]);
   }
 
   @NotNull
   public File getArtifactPath() {
-    return myArtifactPath;
+    return myLibrary.getArtifactPath();
+  }
+
+  /**
+   * Looks up the source and javadoc jars of this library, unless they have already been looked up for a dependency of another module on
+   * the same library. Safe to call from several threads.
+   */
+  public void findFilePaths(@NotNull LibraryFilePaths libraryFilePaths) {
+    myLibrary.findFilePaths(libraryFilePaths);
+  }
+
+  /**
+   * @return whether {@link #findFilePaths(LibraryFilePaths)} has been called for this library, and the values of
+   * {@link #getSourceJarPath()} and {@link #getJavadocJarPath()} can be used.
+   */
+  public boolean isFilePathsFound() {
+    return myLibrary.isFilePathsFound();
+  }
+
+  @Nullable
+  public File getSourceJarPath() {
+    return myLibrary.getSourceJarPath();
+  }
+
+  @Nullable
+  public File getJavadocJarPath() {
+    return myLibrary.getJavadocJarPath();
+  }
+
+  boolean hasSameBinaryPaths(@NotNull LibraryDependency other) {
+    return myLibrary == other.myLibrary || myLibrary.getBinaryPaths().asList().equals(other.myLibrary.getBinaryPaths().asList());
   }
 
   @NotNull
@@ -120,9 +171,14 @@ public class LibraryDependency extends Dependency {
   }
 
   void setName(@NotNull String name) {
+    myName = toLibraryName(name);
+  }
+
+  @NotNull
+  private static String toLibraryName(@NotNull String name) {
     // Let's use the same format for libraries imported from Gradle, to be compatible with API like
     // ExternalSystemApiUtil.isExternalSystemLibrary() and be able to reuse common cleanup service, see LibraryDataService.postProcess()
-    myName = name.isEmpty() || StringUtil.startsWith(name, NAME_PREFIX) ? name : NAME_PREFIX + name;
+    return name.isEmpty() || StringUtil.startsWith(name, NAME_PREFIX) ? name : NAME_PREFIX + name;
   }
 
   @Override
@@ -134,14 +190,14 @@ public class LibraryDependency extends Dependency {
       return false;
     }
     LibraryDependency that = (LibraryDependency)o;
-    return Objects.equals(myBinaryPaths, that.myBinaryPaths) &&
-           Objects.equals(myArtifactPath, that.myArtifactPath) &&
+    return Objects.equals(myLibrary.getBinaryPaths(), that.myLibrary.getBinaryPaths()) &&
+           Objects.equals(myLibrary.getArtifactPath(), that.myLibrary.getArtifactPath()) &&
            Objects.equals(myName, that.myName);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(myBinaryPaths, myArtifactPath, myName);
+    return Objects.hash(myLibrary.getBinaryPaths(), myLibrary.getArtifactPath(), myName);
   }
 
   @Override
@@ -149,7 +205,7 @@ public class LibraryDependency extends Dependency {
     return getClass().getSimpleName() + "[" +
            "name='" + myName + '\'' +
            ", scope=" + getScope() +
-           ", pathsByType=" + myBinaryPaths +
+           ", pathsByType=" + myLibrary.getBinaryPaths() +
            "]";
   }
 }
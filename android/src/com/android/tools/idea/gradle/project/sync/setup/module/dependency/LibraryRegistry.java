@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.gradle.project.sync.setup.module.dependency;
+
+import com.android.tools.idea.gradle.LibraryFilePaths;
+import com.google.common.collect.ImmutableSet;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Libraries that the modules of a project depend on, shared by all modules while they are being set up.
+ * <p>
+ * The modules of a large project mostly depend on the same libraries. Each distinct library (same name, artifact and binary paths) is kept
+ * once here, and the {@link LibraryDependency} instances created for every module refer to it. The source and javadoc jars of a library
+ * are also looked up once, by the first module that needs them, instead of once per module depending on the library.
+ * <p>
+ * The registry only lives while the modules are set up: the jars found for a library are not reused by the next sync, since they may have
+ * been downloaded in between.
+ */
+public final class LibraryRegistry {
+  private static final Key<LibraryRegistry> KEY = Key.create("gradle.sync.library.registry");
+
+  // Key: name, artifact path and binary paths of the library.
+  @NotNull private final ConcurrentMap<List<Object>, SharedLibrary> myLibraries = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a registry to be used by the modules of the given project until {@link #remove(Project)} is called.
+   */
+  @NotNull
+  public static LibraryRegistry install(@NotNull Project project) {
+    LibraryRegistry registry = new LibraryRegistry();
+    project.putUserData(KEY, registry);
+    return registry;
+  }
+
+  /**
+   * @return the registry for the modules of the given project, or {@code null} if modules are not being set up.
+   */
+  @Nullable
+  public static LibraryRegistry find(@NotNull Project project) {
+    return project.getUserData(KEY);
+  }
+
+  public static void remove(@NotNull Project project) {
+    project.putUserData(KEY, null);
+  }
+
+  @NotNull
+  SharedLibrary intern(@NotNull String name, @NotNull File artifactPath, @NotNull Collection<File> binaryPaths) {
+    ImmutableSet<File> uniqueBinaryPaths = ImmutableSet.copyOf(binaryPaths);
+    List<Object> key = Arrays.asList(name, artifactPath, uniqueBinaryPaths.asList());
+    return myLibraries.computeIfAbsent(key, k -> new SharedLibrary(name, artifactPath, uniqueBinaryPaths));
+  }
+
+  /**
+   * @return the number of distinct libraries in this registry.
+   */
+  public int size() {
+    return myLibraries.size();
+  }
+
+  /**
+   * A library that may be depended on by more than one module.
+   */
+  static final class SharedLibrary {
+    @NotNull private final String myName;
+    @NotNull private final File myArtifactPath;
+    @NotNull private final ImmutableSet<File> myBinaryPaths;
+
+    private volatile boolean myFilePathsFound;
+    @Nullable private File mySourceJarPath;
+    @Nullable private File myJavadocJarPath;
+
+    SharedLibrary(@NotNull String name, @NotNull File artifactPath, @NotNull Collection<File> binaryPaths) {
+      myName = name;
+      myArtifactPath = artifactPath;
+      myBinaryPaths = ImmutableSet.copyOf(binaryPaths);
+    }
+
+    @NotNull
+    String getName() {
+      return myName;
+    }
+
+    @NotNull
+    File getArtifactPath() {
+      return myArtifactPath;
+    }
+
+    @NotNull
+    ImmutableSet<File> getBinaryPaths() {
+      return myBinaryPaths;
+    }
+
+    /**
+     * Looks up the source and javadoc jars of this library, unless they have been already looked up. Safe to call from several threads.
+     */
+    void findFilePaths(@NotNull LibraryFilePaths libraryFilePaths) {
+      if (myFilePathsFound) {
+        return;
+      }
+      synchronized (this) {
+        if (!myFilePathsFound) {
+          mySourceJarPath = libraryFilePaths.findSourceJarPath(myName, myArtifactPath);
+          myJavadocJarPath = libraryFilePaths.findJavadocJarPath(myName, myArtifactPath);
+          myFilePathsFound = true;
+        }
+      }
+    }
+
+    boolean isFilePathsFound() {
+      return myFilePathsFound;
+    }
+
+    @Nullable
+    File getSourceJarPath() {
+      return mySourceJarPath;
+    }
+
+    @Nullable
+    File getJavadocJarPath() {
+      return myJavadocJarPath;
+    }
+  }
+}
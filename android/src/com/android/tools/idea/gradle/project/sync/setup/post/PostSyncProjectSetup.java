@@ -39,6 +39,7 @@ import com.android.tools.idea.gradle.project.model.AndroidModuleModel;
 import com.android.tools.idea.gradle.project.sync.GradleSyncInvoker;
 import com.android.tools.idea.gradle.project.sync.GradleSyncListener;
 import com.android.tools.idea.gradle.project.sync.GradleSyncState;
+import com.android.tools.idea.gradle.project.sync.idea.data.DataNodeCaches;
 import com.android.tools.idea.gradle.project.sync.messages.GradleSyncMessages;
 import com.android.tools.idea.gradle.project.sync.setup.module.common.DependencySetupIssues;
 import com.android.tools.idea.gradle.run.MakeBeforeRunTaskProvider;
@@ -326,6 +327,7 @@ public final class PostSyncProjectSetup {
         mySyncState.syncSucceeded();
       }
       ProjectBuildFileChecksums.saveToDisk(myProject);
+      DataNodeCaches.getInstance(myProject).saveModels();
     }
   }
 
@@ -35,7 +35,9 @@ import com.android.tools.idea.gradle.structure.model.PsProjectImpl
 import com.android.tools.idea.gradle.structure.model.PsResolvedModuleModel
 import com.android.tools.idea.gradle.structure.model.repositories.search.ArtifactRepositorySearchService
 import com.android.tools.idea.structure.dialog.ProjectStructureConfigurable
+import com.google.common.util.concurrent.Futures
 import com.google.common.util.concurrent.ListenableFuture
+import com.google.common.util.concurrent.MoreExecutors.directExecutor
 import com.google.wireless.android.sdk.stats.PSDEvent
 import com.intellij.openapi.Disposable
 import com.intellij.openapi.application.ApplicationManager
@@ -106,13 +108,7 @@ class PsContextImpl constructor(
     }
 
     if (!disableAnalysis) {
-      project.onModuleChanged(this) { module ->
-        analyzerDaemon.queueCheck(module)
-        project
-          .modules
-          .filter { it.dependencies.modules.any { moduleDependency -> moduleDependency.gradlePath == module.gradlePath } }
-          .forEach { analyzerDaemon.queueCheck(it) }
-      }
+      project.onModuleChanged(this) { module -> analyzerDaemon.queueCheckWithDependents(module) }
       project.forEachModule(Consumer { module ->
         module.addDependencyChangedListener(this) { e -> if (e !is PsModule.DependenciesReloadedEvent) dependencyChanged() }
       })
@@ -136,6 +132,8 @@ class PsContextImpl constructor(
     gradleSync
       .requestProjectResolved(project, this)
       .also { future = it }
+      // Runs on the pooled thread which fetched the models, so that refreshing the project on the EDT doesn't read POM files.
+      .let { Futures.transform(it, { models -> models!!.also { this.project.prefetchPomDependencies(it) } }, directExecutor()) }
       .handleFailureOnEdt { ex ->
         LOG.warn("PSD failed to fetch Gradle models.", ex)
         gradleSyncEventDispatcher.multicaster.syncFailed(project, ex?.let { e -> ExceptionUtil.getRootCause(e).message }.orEmpty())
@@ -33,6 +33,7 @@ import com.android.tools.idea.gradle.structure.model.PsProject
 import com.android.tools.idea.gradle.structure.model.meta.DslText
 import com.android.tools.idea.gradle.structure.model.meta.ParsedValue
 import com.android.tools.idea.gradle.structure.quickfix.PsLibraryDependencyVersionQuickFixPath
+import com.google.common.annotations.VisibleForTesting
 import com.intellij.openapi.Disposable
 import com.intellij.openapi.application.ApplicationManager
 import com.intellij.openapi.application.ModalityState
@@ -63,6 +64,10 @@ class PsAnalyzerDaemon(
   private val onRunningEventDispatcher = EventDispatcher.create(IssuesUpdatedListener::class.java)
   private val issuesUpdatedEventDispatcher = EventDispatcher.create(IssuesUpdatedListener::class.java)
 
+  // Modules queued for analysis and the changed ones among them whose dependents need to be analyzed too. Accessed on the EDT only.
+  private val pendingModules = LinkedHashSet<PsModule>()
+  private val changedModules = LinkedHashSet<PsModule>()
+
   init {
     libraryUpdateCheckerDaemon.add({ recreateUpdatesAsIssues() }, this)
   }
@@ -123,10 +128,41 @@ class PsAnalyzerDaemon(
   @UiThread
   fun queueCheck(model: PsModule) {
     removeIssues(PROJECT_ANALYSIS, byPath = model.path, now = false)
-    mainQueue.queue(AnalyzeModuleStructure(model))
+    pendingModules.add(model)
+    mainQueue.queue(AnalyzePendingModules())
     notifyRunning()
   }
 
+  /**
+   * Queues the analysis of a changed [model] and of the modules which depend on it.
+   *
+   * The dependents are looked up when the daemon gets to the queued modules, once for all the modules changed in the meantime, and each
+   * affected module is analyzed once no matter how many of its dependencies changed.
+   */
+  @UiThread
+  fun queueCheckWithDependents(model: PsModule) {
+    changedModules.add(model)
+    queueCheck(model)
+  }
+
+  @UiThread
+  @VisibleForTesting
+  internal fun takePendingModules(): Set<PsModule> {
+    val modules = LinkedHashSet(pendingModules)
+    if (changedModules.isNotEmpty()) {
+      val changedGradlePaths = changedModules.mapNotNullTo(HashSet()) { it.gradlePath }
+      project.modules
+        .filter { module -> module !in modules && module.dependencies.modules.any { it.gradlePath in changedGradlePaths } }
+        .forEach { module ->
+          removeIssues(PROJECT_ANALYSIS, byPath = module.path, now = false)
+          modules.add(module)
+        }
+    }
+    pendingModules.clear()
+    changedModules.clear()
+    return modules
+  }
+
   /**
    * Runs validation-essential analysis (must be invoked on EDT).
    */
@@ -175,15 +211,18 @@ class PsAnalyzerDaemon(
     onRunningEventDispatcher.multicaster.issuesUpdated()
   }
 
-  private inner class AnalyzeModuleStructure internal constructor(private val myModel: PsModule) : Update(myModel) {
+  private inner class AnalyzePendingModules : Update(AnalyzePendingModules::class.java) {
     override fun run() {
-      try {
-        if (!isDisposed && !isStopped) {
-          doAnalyzeStructure(myModel)
+      if (isDisposed || isStopped) return
+      val modules = invokeAndWaitIfNeeded(ModalityState.any()) { takePendingModules() }
+      for (module in modules) {
+        if (isDisposed || isStopped) break
+        try {
+          doAnalyzeStructure(module)
+        }
+        catch (e: Throwable) {
+          LOG.error("Failed to analyze $module", e)
         }
-      }
-      catch (e: Throwable) {
-        LOG.error("Failed to analyze $myModel", e)
       }
     }
   }
@@ -15,17 +15,74 @@
  */
 package com.android.tools.idea.gradle.structure.model
 
+import com.android.ide.common.gradle.model.IdeBaseArtifact
+import com.android.ide.common.gradle.model.IdeVariant
+import com.android.ide.common.repository.GradleCoordinate
 import com.android.tools.idea.gradle.LibraryFilePaths
 import com.android.tools.idea.gradle.structure.model.pom.MavenPoms
+import com.intellij.openapi.diagnostic.Logger
 import com.intellij.openapi.project.Project
+import com.intellij.util.concurrency.AppExecutorUtil
 import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+
+private val LOG = Logger.getInstance(PsPomDependencies::class.java)
 
 internal class PsPomDependencies(private val ideProject: Project) : PsPomDependencyCache {
-  private val cache: MutableMap<String, List<PsArtifactDependencySpec>> = mutableMapOf()
+  private val cache: MutableMap<String, List<PsArtifactDependencySpec>> = ConcurrentHashMap()
 
   override fun getPomDependencies(libraryName: String, libraryPath: File): List<PsArtifactDependencySpec> =
-    cache.getOrPut(libraryName, {
-      val pomFilePath = LibraryFilePaths.getInstance(ideProject).findPomPathForLibrary(libraryName, libraryPath)
-      MavenPoms.findDependenciesInPomFile(pomFilePath)
-    })
+    cache[libraryName] ?: findPomDependencies(libraryName, libraryPath).let { cache.putIfAbsent(libraryName, it) ?: it }
+
+  /**
+   * Reads the POM dependencies of all the libraries of [models] in parallel, so that refreshing the project from [models] on the EDT
+   * does not need to read any POM file.
+   */
+  fun prefetch(models: List<PsResolvedModuleModel>) {
+    val executor = AppExecutorUtil.getAppExecutorService()
+    models
+      .flatMap { getLibraries(it) }
+      .distinctBy { (libraryName, _) -> libraryName }
+      .filter { (libraryName, _) -> !cache.containsKey(libraryName) }
+      .map { (libraryName, libraryPath) -> libraryName to executor.submit { getPomDependencies(libraryName, libraryPath) } }
+      .forEach { (libraryName, future) ->
+        // A library whose POM file cannot be read is read again, and the failure reported, when its dependencies are requested.
+        try {
+          future.get()
+        }
+        catch (e: ExecutionException) {
+          LOG.warn("Failed to read the POM dependencies of $libraryName", e.cause)
+        }
+      }
+  }
+
+  private fun findPomDependencies(libraryName: String, libraryPath: File): List<PsArtifactDependencySpec> {
+    val pomFilePath = LibraryFilePaths.getInstance(ideProject).findPomPathForLibrary(libraryName, libraryPath)
+                      ?: return listOf()
+    val storage = PsPomDependencyStorage.getInstance(ideProject)
+    return storage.findDependencies(pomFilePath)
+           ?: MavenPoms.findDependenciesInPomFile(pomFilePath).also { storage.store(pomFilePath, it) }
+  }
+
+  // Libraries are keyed the same way as in PsAndroidArtifactDependencyCollection and PsResolvedJavaDependencyCollection.
+  private fun getLibraries(model: PsResolvedModuleModel): List<Pair<String, File>> = when (model) {
+    is PsResolvedModuleModel.PsAndroidModuleResolvedModel ->
+      model.model.androidProject.variants
+        .filterIsInstance<IdeVariant>()
+        .flatMap { listOf(it.mainArtifact) + it.extraAndroidArtifacts + it.extraJavaArtifacts }
+        .filterIsInstance<IdeBaseArtifact>()
+        .flatMap { it.level2Dependencies.androidLibraries + it.level2Dependencies.javaLibraries }
+        .filter { GradleCoordinate.parseCoordinateString(it.artifactAddress) != null }
+        .map { it.artifactAddress to it.artifact }
+    is PsResolvedModuleModel.PsJavaModuleResolvedModel ->
+      model.model.jarLibraryDependencies.mapNotNull { library ->
+        val name = library.moduleVersion?.name
+        val version = library.moduleVersion?.version
+        val path = library.binaryPath
+        if (name != null && version != null && path != null)
+          GradleCoordinate(library.moduleVersion?.group ?: "", name, version).toString() to path
+        else null
+      }
+  }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.gradle.structure.model
+
+import com.android.annotations.concurrency.GuardedBy
+import com.intellij.openapi.components.PersistentStateComponent
+import com.intellij.openapi.components.ServiceManager
+import com.intellij.openapi.components.State
+import com.intellij.openapi.components.Storage
+import com.intellij.openapi.components.StoragePathMacros
+import com.intellij.openapi.project.Project
+import com.intellij.util.xmlb.annotations.Tag
+import com.intellij.util.xmlb.annotations.XCollection
+import java.io.File
+import java.util.concurrent.locks.Lock
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Stores the dependencies declared in the POM files of libraries to disk, so that the "Project Structure" dialog does not need to read
+ * the POM files of all the libraries of the project again each time it is opened. A stored entry is used only while the POM file has not
+ * been modified since it was read, and entries of POM files which were deleted or modified are dropped when the state is loaded.
+ */
+@State(name = "PsPomDependencyStorage", storages = [Storage(StoragePathMacros.CACHE_FILE)])
+class PsPomDependencyStorage : PersistentStateComponent<PsPomDependencyStorage.PomFiles> {
+  private val lock: Lock = ReentrantLock()
+  @GuardedBy("lock") private val pomFilesByPath = LinkedHashMap<String, PomFile>()
+
+  // The state is serialized outside of the lock while other threads may be storing entries, so it is a copy.
+  override fun getState(): PomFiles = PomFiles().also { state ->
+    state.pomFiles = lock.withLock { pomFilesByPath.values.mapTo(mutableListOf()) { it.copy() } }
+  }
+
+  override fun loadState(state: PomFiles) {
+    val upToDate = state.pomFiles.filter { it.path != null && File(it.path!!).lastModified() == it.lastModified }
+    lock.withLock {
+      pomFilesByPath.clear()
+      upToDate.forEach { pomFilesByPath[it.path!!] = it }
+    }
+  }
+
+  fun findDependencies(pomFile: File): List<PsArtifactDependencySpec>? {
+    val lastModified = pomFile.lastModified()
+    val stored = lock.withLock { pomFilesByPath[pomFile.path] } ?: return null
+    if (stored.lastModified != lastModified) return null
+    return stored.dependencies.map { PsArtifactDependencySpec.create(it.groupId, it.name.orEmpty(), it.version) }
+  }
+
+  fun store(pomFile: File, dependencies: List<PsArtifactDependencySpec>) {
+    val stored = PomFile().apply {
+      path = pomFile.path
+      lastModified = pomFile.lastModified()
+      this.dependencies = dependencies.mapTo(mutableListOf()) { PomDependency(it.group, it.name, it.version) }
+    }
+    lock.withLock { pomFilesByPath[pomFile.path] = stored }
+  }
+
+  class PomFiles {
+    @XCollection(propertyElementName = "pom-files")
+    var pomFiles: MutableList<PomFile> = mutableListOf()
+  }
+
+  @Tag("pom-file")
+  class PomFile {
+    @Tag("path") var path: String? = null
+    @Tag("last-modified") var lastModified: Long = -1L
+    @XCollection(propertyElementName = "dependencies")
+    var dependencies: MutableList<PomDependency> = mutableListOf()
+
+    fun copy(): PomFile = PomFile().also {
+      it.path = path
+      it.lastModified = lastModified
+      it.dependencies = dependencies.mapTo(mutableListOf()) { dependency -> dependency.copy() }
+    }
+  }
+
+  @Tag("dependency")
+  data class PomDependency(
+    @Tag("group-id") var groupId: String? = null,
+    @Tag("name") var name: String? = null,
+    @Tag("version") var version: String? = null
+  )
+
+  companion object {
+    fun getInstance(project: Project): PsPomDependencyStorage {
+      return ServiceManager.getService(project, PsPomDependencyStorage::class.java)
+    }
+  }
+}
@@ -41,7 +41,8 @@ class PsProjectImpl(
   final override val buildScriptVariables: PsVariables
   @Suppress("RedundantModalityModifier")  // Kotlin compiler bug (KT-24833)?
   final override val variables: PsVariables
-  override val pomDependencyCache: PsPomDependencyCache = PsPomDependencies(ideProject)
+  private val pomDependencies = PsPomDependencies(ideProject)
+  override val pomDependencyCache: PsPomDependencyCache get() = pomDependencies
   private var internalResolvedModuleModels: Map<String, PsResolvedModuleModel>? = null
   private val moduleCollection: PsModuleCollection
   val buildScript : PsBuildScript = PsBuildScript(this)
@@ -112,6 +113,12 @@ class PsProjectImpl(
     }
   }
 
+  /**
+   * Reads the POM dependencies of the libraries of [models] in parallel. Invoked on a pooled thread before [refreshFrom], which otherwise
+   * reads them one by one on the EDT.
+   */
+  fun prefetchPomDependencies(models: List<PsResolvedModuleModel>) = pomDependencies.prefetch(models)
+
   fun refreshFrom(models: List<PsResolvedModuleModel>) {
     internalResolvedModuleModels = models.associateBy { it.gradlePath }
     moduleCollection.refresh()
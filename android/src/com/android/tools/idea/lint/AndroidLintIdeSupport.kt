@@ -19,6 +19,7 @@ import com.android.SdkConstants.ANDROID_MANIFEST_XML
 import com.android.SdkConstants.DOT_GRADLE
 import com.android.ide.common.repository.GradleCoordinate
 import com.android.ide.common.repository.SdkMavenRepository
+import com.android.tools.idea.flags.StudioFlags
 import com.android.tools.idea.gradle.dependencies.GradleDependencyManager
 import com.android.tools.idea.gradle.project.model.AndroidModuleModel
 import com.android.tools.idea.lint.common.*
@@ -155,6 +156,8 @@ class AndroidLintIdeSupport : LintIdeSupport() {
     return true
   }
 
+  override fun canAnalyzeInParallel(project: Project): Boolean = StudioFlags.LINT_PARALLEL_BATCH_ANALYSIS.get()
+
   // Projects
   override fun createProject(client: LintIdeClient,
                              files: List<VirtualFile>?,
@@ -209,12 +212,12 @@ class AndroidLintIdeSupport : LintIdeSupport() {
   override fun requestFeedbackIntentionAction(issue: Issue): IntentionAction = ProvideLintFeedbackIntentionAction(issue.id)
   override fun logSession(lint: LintDriver, lintResult: LintEditorResult) {
     val analytics = LintIdeAnalytics(lintResult.getModule().project)
-    analytics.logSession(LintSession.AnalysisType.IDE_FILE, lint, lintResult.getModule(), lintResult.problems, null)
+    analytics.logSession(LintSession.AnalysisType.IDE_FILE, listOf(lint), lintResult.getModule(), lintResult.problems, null)
   }
 
-  override fun logSession(lint: LintDriver, module: Module?, lintResult: LintBatchResult) {
+  override fun logSession(drivers: List<LintDriver>, module: Module?, lintResult: LintBatchResult) {
     val analytics = LintIdeAnalytics(lintResult.project)
-    analytics.logSession(LintSession.AnalysisType.IDE_BATCH, lint, module, null, lintResult.problemMap)
+    analytics.logSession(LintSession.AnalysisType.IDE_BATCH, drivers, module, null, lintResult.problemMap)
   }
 
   override fun ensureNamespaceImported(file: XmlFile, namespaceUri: String, suggestedPrefix: String?): String {
@@ -58,10 +58,13 @@ class LintIdeAnalytics(private val project: com.intellij.openapi.project.Project
     UsageTracker.log(event)
   }
 
-  /** Logs feedback from user on a lint run (either on-the-fly in the editor, or explicit full inspection run) */
+  /**
+   * Logs feedback from user on a lint run (either on-the-fly in the editor, or explicit full inspection run). A batch run may use a
+   * separate driver for each independent group of modules, in which case their statistics are added up.
+   */
   fun logSession(
     type: LintSession.AnalysisType,
-    driver: LintDriver,
+    drivers: List<LintDriver>,
     severityModule: Module?,
     warnings1: List<LintProblemData>?,
     warnings2: Map<Issue, Map<File, List<LintProblemData>>>?
@@ -71,7 +74,9 @@ class LintIdeAnalytics(private val project: com.intellij.openapi.project.Project
     val session = LintSession.newBuilder().apply {
       analysisType = type
       projectId = computeProjectId(project)
-      lintPerformance = computePerformance(driver, type == LintSession.AnalysisType.IDE_FILE)
+      lintPerformance = computePerformance(drivers, type == LintSession.AnalysisType.IDE_FILE)
+      // All the drivers of a run share the same configuration.
+      val driver = drivers.first()
       baselineEnabled = driver.baseline != null
       includingGeneratedSources = driver.checkGeneratedSources
       includingTestSources = driver.checkTestSources
@@ -91,19 +96,19 @@ class LintIdeAnalytics(private val project: com.intellij.openapi.project.Project
     UsageTracker.log(event)
   }
 
-  private fun computePerformance(driver: LintDriver, singleFileAnalysis: Boolean): LintPerformance =
+  private fun computePerformance(drivers: List<LintDriver>, singleFileAnalysis: Boolean): LintPerformance =
     LintPerformance.newBuilder().apply {
-      analysisTimeMs = System.currentTimeMillis() - driver.analysisStartTime
-      fileCount = driver.fileCount.toLong()
+      analysisTimeMs = System.currentTimeMillis() - drivers.map { it.analysisStartTime }.min()!!
+      fileCount = drivers.map { it.fileCount.toLong() }.sum()
 
       // When doing single file analysis we don't have an accurate module count for
       // the project etc; the below statistics aren't interesting and are misleading
       if (!singleFileAnalysis) {
-        moduleCount = driver.moduleCount.toLong()
-        javaSourceCount = driver.javaFileCount.toLong()
-        kotlinSourceCount = driver.kotlinFileCount.toLong()
-        resourceFileCount = driver.resourceFileCount.toLong()
-        testSourceCount = driver.testSourceCount.toLong()
+        moduleCount = drivers.map { it.moduleCount.toLong() }.sum()
+        javaSourceCount = drivers.map { it.javaFileCount.toLong() }.sum()
+        kotlinSourceCount = drivers.map { it.kotlinFileCount.toLong() }.sum()
+        resourceFileCount = drivers.map { it.resourceFileCount.toLong() }.sum()
+        testSourceCount = drivers.map { it.testSourceCount.toLong() }.sum()
       }
     }.build()
 
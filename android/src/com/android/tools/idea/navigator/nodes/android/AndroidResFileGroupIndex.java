@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.navigator.nodes.android;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Groups the files of resource folders by resource name, for the res folder nodes of the Android project view.
+ * <p>
+ * The groups of a folder are computed the first time they are requested, and only computed again after a file is added to, removed from
+ * or renamed in that folder. Refreshing the project view after an unrelated change doesn't list the files of large folders again.
+ */
+@Service
+public final class AndroidResFileGroupIndex implements Disposable {
+  // Folder -> resource name -> files of that resource in the folder.
+  @NotNull private final Map<VirtualFile, SortedMap<String, List<VirtualFile>>> myGroupsByFolder = new ConcurrentHashMap<>();
+
+  @NotNull
+  public static AndroidResFileGroupIndex getInstance(@NotNull Project project) {
+    return ServiceManager.getService(project, AndroidResFileGroupIndex.class);
+  }
+
+  @SuppressWarnings("unused") // Instantiated by IDEA
+  public AndroidResFileGroupIndex(@NotNull Project project) {
+    project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void before(@NotNull List<? extends VFileEvent> events) {
+        // Deleted, moved and renamed files are still attached to their old parent.
+        for (VFileEvent event : events) {
+          if (!(event instanceof VFileCreateEvent) && !(event instanceof VFileCopyEvent) && !(event instanceof VFileContentChangeEvent)) {
+            invalidate(event.getFile());
+          }
+        }
+      }
+
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (event instanceof VFileCreateEvent) {
+            myGroupsByFolder.remove(((VFileCreateEvent)event).getParent());
+          }
+          else if (event instanceof VFileCopyEvent) {
+            myGroupsByFolder.remove(((VFileCopyEvent)event).getNewParent());
+          }
+          else if (event instanceof VFileMoveEvent) {
+            myGroupsByFolder.remove(((VFileMoveEvent)event).getNewParent());
+          }
+          else if (!(event instanceof VFileContentChangeEvent)) {
+            invalidate(event.getFile());
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns the files of the given folders grouped by resource name, i.e. the file name without extension, sorted by resource name.
+   * The returned map and lists must not be modified.
+   */
+  @NotNull
+  public SortedMap<String, List<VirtualFile>> getGroups(@NotNull Collection<VirtualFile> folders) {
+    if (folders.size() == 1) {
+      return getGroups(folders.iterator().next());
+    }
+
+    SortedMap<String, List<VirtualFile>> groups = new TreeMap<>();
+    for (VirtualFile folder : folders) {
+      for (Map.Entry<String, List<VirtualFile>> entry : getGroups(folder).entrySet()) {
+        groups.computeIfAbsent(entry.getKey(), name -> new ArrayList<>()).addAll(entry.getValue());
+      }
+    }
+    return groups;
+  }
+
+  @NotNull
+  private SortedMap<String, List<VirtualFile>> getGroups(@NotNull VirtualFile folder) {
+    if (!folder.isValid()) {
+      myGroupsByFolder.remove(folder);
+      return Collections.emptySortedMap();
+    }
+    return myGroupsByFolder.computeIfAbsent(folder, AndroidResFileGroupIndex::computeGroups);
+  }
+
+  @NotNull
+  private static SortedMap<String, List<VirtualFile>> computeGroups(@NotNull VirtualFile folder) {
+    SortedMap<String, List<VirtualFile>> groups = new TreeMap<>();
+    for (VirtualFile file : folder.getChildren()) {
+      if (!file.isDirectory()) {
+        groups.computeIfAbsent(FileUtilRt.getNameWithoutExtension(file.getName()), name -> new ArrayList<>(1)).add(file);
+      }
+    }
+    return Collections.unmodifiableSortedMap(groups);
+  }
+
+  private void invalidate(@Nullable VirtualFile file) {
+    if (file == null) {
+      return;
+    }
+    myGroupsByFolder.remove(file);
+    VirtualFile parent = file.getParent();
+    if (parent != null) {
+      myGroupsByFolder.remove(parent);
+    }
+  }
+
+  @Override
+  public void dispose() {
+    myGroupsByFolder.clear();
+  }
+}
@@ -16,19 +16,18 @@
 package com.android.tools.idea.navigator.nodes.android;
 
 import com.android.resources.ResourceFolderType;
+import com.android.tools.idea.flags.StudioFlags;
 import com.android.tools.idea.navigator.nodes.FolderGroupNode;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
 import com.intellij.ide.projectView.PresentationData;
 import com.intellij.ide.projectView.ProjectViewNode;
 import com.intellij.ide.projectView.ViewSettings;
 import com.intellij.ide.util.treeView.AbstractTreeNode;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Queryable;
-import com.intellij.openapi.util.io.FileUtilRt;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
 import com.intellij.util.PlatformIcons;
 import org.jetbrains.android.facet.AndroidFacet;
 import org.jetbrains.annotations.NotNull;
@@ -37,11 +36,15 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static com.intellij.openapi.vfs.VfsUtilCore.isAncestor;
 import static com.intellij.ui.SimpleTextAttributes.REGULAR_ATTRIBUTES;
 
 public class AndroidResFolderTypeNode extends ProjectViewNode<List<PsiDirectory>> implements FolderGroupNode {
+  // Number of resources for which nodes are created at once, when the res folders are shown in pages.
+  static final int PAGE_SIZE = 500;
+
   @NotNull private final AndroidFacet myFacet;
   @NotNull private final ResourceFolderType myFolderType;
 
@@ -78,23 +81,56 @@ public class AndroidResFolderTypeNode extends ProjectViewNode<List<PsiDirectory>
   @NotNull
   public Collection<? extends AbstractTreeNode<?>> getChildren() {
     // all resource folders of a given folder type
-    Multimap<String, PsiFile> multimap = HashMultimap.create();
+    List<VirtualFile> folders = new ArrayList<>();
     for (PsiDirectory resFolder : getResFolders()) {
-      for (PsiFile file : resFolder.getFiles()) {
-        String resName = FileUtilRt.getNameWithoutExtension(file.getName());
-        multimap.put(resName, file);
-      }
+      folders.add(resFolder.getVirtualFile());
     }
 
     assert myProject != null;
-    List<AbstractTreeNode<?>> children = new ArrayList<>(multimap.size());
-    for (String resName : multimap.keySet()) {
-      List<PsiFile> files = new ArrayList<>(multimap.get(resName));
+    List<Map.Entry<String, List<VirtualFile>>> groups =
+      new ArrayList<>(AndroidResFileGroupIndex.getInstance(myProject).getGroups(folders).entrySet());
+    if (StudioFlags.ANDROID_VIEW_PAGED_RES_FOLDERS.get()) {
+      return createPage(myProject, myFacet, groups, getSettings());
+    }
+    return createNodes(myProject, myFacet, groups, getSettings());
+  }
+
+  /**
+   * Creates the nodes of the first {@link #PAGE_SIZE} of the given resources, followed by a node holding the remaining ones if any.
+   */
+  @NotNull
+  static List<AbstractTreeNode<?>> createPage(@NotNull Project project,
+                                              @NotNull AndroidFacet facet,
+                                              @NotNull List<Map.Entry<String, List<VirtualFile>>> groups,
+                                              @NotNull ViewSettings settings) {
+    if (groups.size() <= PAGE_SIZE) {
+      return createNodes(project, facet, groups, settings);
+    }
+    List<AbstractTreeNode<?>> children = createNodes(project, facet, groups.subList(0, PAGE_SIZE), settings);
+    children.add(new AndroidResPageNode(project, facet, groups.subList(PAGE_SIZE, groups.size()), settings));
+    return children;
+  }
+
+  @NotNull
+  private static List<AbstractTreeNode<?>> createNodes(@NotNull Project project,
+                                                       @NotNull AndroidFacet facet,
+                                                       @NotNull List<Map.Entry<String, List<VirtualFile>>> groups,
+                                                       @NotNull ViewSettings settings) {
+    PsiManager psiManager = PsiManager.getInstance(project);
+    List<AbstractTreeNode<?>> children = new ArrayList<>(groups.size());
+    for (Map.Entry<String, List<VirtualFile>> group : groups) {
+      List<PsiFile> files = new ArrayList<>(group.getValue().size());
+      for (VirtualFile file : group.getValue()) {
+        PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+        if (psiFile != null) {
+          files.add(psiFile);
+        }
+      }
       if (files.size() > 1) {
-        children.add(new AndroidResGroupNode(myProject, myFacet, files, resName, getSettings()));
+        children.add(new AndroidResGroupNode(project, facet, files, group.getKey(), settings));
       }
-      else {
-        children.add(new AndroidResFileNode(myProject, files.get(0), getSettings(), myFacet));
+      else if (files.size() == 1) {
+        children.add(new AndroidResFileNode(project, files.get(0), settings, facet));
       }
     }
     return children;
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.navigator.nodes.android;
+
+import static com.intellij.ui.SimpleTextAttributes.GRAY_ATTRIBUTES;
+
+import com.intellij.ide.projectView.PresentationData;
+import com.intellij.ide.projectView.ProjectViewNode;
+import com.intellij.ide.projectView.ViewSettings;
+import com.intellij.ide.util.treeView.AbstractTreeNode;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Queryable;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.PlatformIcons;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.android.facet.AndroidFacet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link AndroidResPageNode} holds the resources of a res folder type beyond the ones already shown, when res folders are shown in pages.
+ * The nodes of its resources are only created when it is expanded, one page at a time.
+ */
+public class AndroidResPageNode extends ProjectViewNode<List<Map.Entry<String, List<VirtualFile>>>> {
+  @NotNull private final AndroidFacet myFacet;
+
+  AndroidResPageNode(@NotNull Project project,
+                     @NotNull AndroidFacet androidFacet,
+                     @NotNull List<Map.Entry<String, List<VirtualFile>>> groups,
+                     @NotNull ViewSettings settings) {
+    super(project, groups, settings);
+    myFacet = androidFacet;
+  }
+
+  @Override
+  public boolean contains(@NotNull VirtualFile file) {
+    for (Map.Entry<String, List<VirtualFile>> group : getGroups()) {
+      if (group.getValue().contains(file)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  @NotNull
+  public Collection<? extends AbstractTreeNode<?>> getChildren() {
+    assert myProject != null;
+    return AndroidResFolderTypeNode.createPage(myProject, myFacet, getGroups(), getSettings());
+  }
+
+  @NotNull
+  private List<Map.Entry<String, List<VirtualFile>>> getGroups() {
+    List<Map.Entry<String, List<VirtualFile>>> groups = getValue();
+    assert groups != null;
+    return groups;
+  }
+
+  @Override
+  public int getWeight() {
+    return 1000; // after the res file and res group nodes of the current page
+  }
+
+  @Override
+  protected void update(@NotNull PresentationData presentation) {
+    String text = getPresentableText();
+    presentation.addText(text, GRAY_ATTRIBUTES);
+    presentation.setIcon(PlatformIcons.FOLDER_ICON);
+    presentation.setPresentableText(text);
+  }
+
+  @NotNull
+  private String getPresentableText() {
+    return String.format("%1$d more", getGroups().size());
+  }
+
+  @Override
+  @Nullable
+  public String toTestString(@Nullable Queryable.PrintInfo printInfo) {
+    return getPresentableText();
+  }
+}
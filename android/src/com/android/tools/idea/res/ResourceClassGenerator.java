@@ -27,6 +27,7 @@ import com.google.common.collect.Maps;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.ModificationTracker;
 import gnu.trove.TIntArrayList;
 import gnu.trove.TObjectIntHashMap;
 import org.jetbrains.android.util.AndroidResourceUtil;
@@ -74,11 +75,28 @@ public final class ResourceClassGenerator {
 
   interface NumericIdProvider {
     int getOrGenerateId(@NotNull ResourceReference resourceReference);
+
+    /**
+     * Returns a number that changes every time previously returned ids become invalid, e.g. when dynamic ids are reset.
+     * Generated classes are only reused while the generation stays the same.
+     */
+    default long getGeneration() {
+      return 0;
+    }
   }
 
   private Map<ResourceType, TObjectIntHashMap<String>> myCache;
   /** For int[] in styleables. The ints in styleables are stored in {@link #myCache}. */
   private Map<String, TIntArrayList> myStyleableCache;
+  /**
+   * Bytecode of the classes generated so far, keyed by class name. The generator is shared by all the class loaders that use the same
+   * repository (see {@link ResourceClassRegistry}), so the bytes can be handed out again as long as they are not stale.
+   */
+  private final Map<String, byte[]> myGeneratedClasses = new HashMap<>();
+  /** Id provider generation that {@link #myCache} and {@link #myStyleableCache} were computed for. */
+  private long myIdGeneration;
+  /** Repository modification count that {@link #myCache} and {@link #myStyleableCache} were computed for. */
+  private long myModificationCount;
   @NotNull private final ResourceRepository myResources;
   @NotNull private final NumericIdProvider myIdProvider;
   @NotNull private final ResourceNamespace myNamespace;
@@ -102,10 +120,92 @@ public final class ResourceClassGenerator {
   }
 
   /**
+   * Returns the bytecode of the given R class, reusing previously generated bytes when neither the repository nor the id provider
+   * changed since then. When only the repository changed, just the inner classes whose set of resources changed are regenerated.
+   *
    * @param fqcn Fully qualified class name (as accepted by ClassLoader, or as returned by Class.getName())
    */
   @Nullable
-  public byte[] generate(String fqcn) {
+  public synchronized byte[] generate(String fqcn) {
+    long idGeneration = myIdProvider.getGeneration();
+    long modificationCount = getRepositoryModificationCount();
+    if (idGeneration != myIdGeneration) {
+      // All the ids handed out so far are invalid.
+      myCache = null;
+      myStyleableCache = null;
+      myGeneratedClasses.clear();
+      myIdGeneration = idGeneration;
+      myModificationCount = modificationCount;
+    }
+    else if (modificationCount != myModificationCount) {
+      invalidateChangedTypes();
+      myModificationCount = modificationCount;
+    }
+
+    byte[] cachedBytes = myGeneratedClasses.get(fqcn);
+    if (cachedBytes != null) {
+      return cachedBytes;
+    }
+
+    byte[] bytes = doGenerate(fqcn);
+    if (bytes != null) {
+      myGeneratedClasses.put(fqcn, bytes);
+    }
+    return bytes;
+  }
+
+  private long getRepositoryModificationCount() {
+    // Repositories that are not modification trackers (e.g. AAR repositories) never change.
+    return myResources instanceof ModificationTracker ? ((ModificationTracker)myResources).getModificationCount() : 0;
+  }
+
+  /**
+   * Drops the cached fields and bytecode of the resource types whose set of resources is not the same as when they were generated.
+   * Ids of existing resources are stable, so types with the same set of names produce the same bytecode.
+   */
+  private void invalidateChangedTypes() {
+    if (myCache == null) {
+      myGeneratedClasses.clear();
+      return;
+    }
+    for (Iterator<Map.Entry<ResourceType, TObjectIntHashMap<String>>> it = myCache.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<ResourceType, TObjectIntHashMap<String>> entry = it.next();
+      ResourceType type = entry.getKey();
+      // Attributes of a styleable may change without the styleable itself being added or removed.
+      if (type == ResourceType.STYLEABLE || !hasSameFields(type, entry.getValue())) {
+        it.remove();
+      }
+    }
+    if (!myCache.containsKey(ResourceType.STYLEABLE)) {
+      myStyleableCache = null;
+    }
+
+    // The top level R class lists the inner classes, which depends on the set of types in the repository.
+    myGeneratedClasses.keySet().removeIf(name -> {
+      int index = name.lastIndexOf('$');
+      if (index == -1) {
+        return true;
+      }
+      ResourceType type = ResourceType.fromClassName(name.substring(index + 1));
+      return type == null || !myCache.containsKey(type);
+    });
+  }
+
+  private boolean hasSameFields(@NotNull ResourceType type, @NotNull TObjectIntHashMap<String> fields) {
+    Collection<String> resourceNames = myResources.getResourceNames(myNamespace, type);
+    if (resourceNames.size() != fields.size()) {
+      return false;
+    }
+    for (String name : resourceNames) {
+      if (!fields.containsKey(AndroidResourceUtil.getFieldNameByResourceName(name))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Nullable
+  private byte[] doGenerate(String fqcn) {
     String className = fqcn.replace('.', '/');
 
     if (LOG.isDebugEnabled()) {
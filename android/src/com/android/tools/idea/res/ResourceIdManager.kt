@@ -101,6 +101,12 @@ class ResourceIdManager private constructor(val module: Module) : ResourceClassG
   @GuardedBy("this")
   private var compiledIds: SingleNamespaceIdMapping? = null
 
+  /**
+   * Incremented every time [dynamicToIdMap] is reset, so that bytecode generated from previously assigned ids is not reused.
+   */
+  @GuardedBy("this")
+  private var generation = 0L
+
   @GuardedBy("this")
   private var frameworkIds: SingleNamespaceIdMapping = loadFrameworkIds()
 
@@ -160,6 +166,9 @@ class ResourceIdManager private constructor(val module: Module) : ResourceClassG
     return newId
   }
 
+  @Synchronized
+  override fun getGeneration(): Long = generation
+
   @Synchronized
   fun resetDynamicIds() {
     ResourceClassRegistry.get(module.project).clearCache()
@@ -167,6 +176,7 @@ class ResourceIdManager private constructor(val module: Module) : ResourceClassG
     resetProviders()
     dynamicToIdMap.clear()
     dynamicFromIdMap.clear()
+    generation++
   }
 
   @Synchronized
@@ -174,6 +184,7 @@ class ResourceIdManager private constructor(val module: Module) : ResourceClassG
     val mapping = SingleNamespaceIdMapping(ResourceNamespace.RES_AUTO)
     loadIdsFromResourceClass(klass, into = mapping)
     compiledIds = mapping
+    generation++
   }
 
   private fun loadFrameworkIds(): SingleNamespaceIdMapping {
@@ -30,6 +30,7 @@ import com.android.tools.idea.run.util.LaunchUtils;
 import com.android.tools.idea.run.util.ProcessHandlerLaunchStatus;
 import com.android.tools.idea.run.util.SwapInfo;
 import com.android.tools.idea.stats.RunStats;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.wireless.android.sdk.stats.LaunchTaskDetail;
 import com.intellij.execution.filters.HyperlinkInfo;
@@ -43,19 +44,25 @@ import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiConsumer;
+import java.util.function.DoubleConsumer;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -159,13 +166,12 @@ public class LaunchTaskRunner extends Task.Backgroundable {
         }
       }
 
-      // Perform launch tasks for each device.
-      for (int deviceIndex = 0; deviceIndex < devices.size(); deviceIndex++) {
-        IDevice device = devices.get(deviceIndex);
-        List<LaunchTask> launchTasks = null;
+      // Create the launch tasks for each device.
+      Map<IDevice, List<LaunchTask>> launchTasksByDevice = new LinkedHashMap<>();
+      for (IDevice device : devices) {
         try {
           myLaunchTasksProvider.fillStats(myStats);
-          launchTasks = myLaunchTasksProvider.getTasks(device, launchStatus, consolePrinter);
+          launchTasksByDevice.put(device, myLaunchTasksProvider.getTasks(device, launchStatus, consolePrinter));
         }
         catch (com.intellij.execution.ExecutionException e) {
           launchStatus.terminateLaunch(e.getMessage(), !isSwap());
@@ -176,52 +182,143 @@ public class LaunchTaskRunner extends Task.Backgroundable {
           Logger.getInstance(LaunchTaskRunner.class).error(e);
           return;
         }
+      }
 
-        // This totalDuration and elapsed step count is used only for showing a progress bar.
-        int totalDuration = getTotalDuration(launchTasks, debugSessionTask);
-        int elapsed = 0;
-        for (LaunchTask task : launchTasks) {
-          if (!checkIfLaunchIsAliveAndTerminateIfCancelIsRequested(indicator, launchStatus, destroyProcessOnCancellation)) {
-            return;
+      if (devices.size() == 1) {
+        IDevice device = devices.get(0);
+        if (performLaunchTasks(device, launchTasksByDevice.get(device), debugSessionTask, indicator, launchStatus, consolePrinter,
+                               destroyProcessOnCancellation, "", indicator::setFraction)) {
+          // A debug session task should be performed at last.
+          if (debugSessionTask != null) {
+            debugSessionTask.perform(myLaunchInfo, device, launchStatus, consolePrinter);
           }
+        }
+      }
+      else {
+        // Perform launch tasks on all devices at once, so that deploying to several devices takes about as long as deploying to one.
+        performLaunchTasksInParallel(launchTasksByDevice, indicator, launchStatus, consolePrinter, destroyProcessOnCancellation);
+      }
+    }
+    finally {
+      myStats.endLaunchTasks();
+    }
+  }
 
-          LaunchTaskDetail.Builder details = myStats.beginLaunchTask(task);
-          indicator.setText(task.getDescription());
-          LaunchResult result = task.run(myLaunchInfo.executor, device, launchStatus, consolePrinter);
-          myOnFinished.addAll(result.onFinishedCallbacks());
-          boolean success = result.getSuccess();
-          myStats.endLaunchTask(task, details, success);
-          if (!success) {
-            myErrorNotificationListener = result.getNotificationListener();
-            myError = result.getError();
-            launchStatus.terminateLaunch(result.getConsoleError(), !isSwap());
-
-            // Append a footer hyperlink, if one was provided.
-            if (result.getConsoleHyperlinkInfo() != null) {
-              myConsoleConsumer.accept(result.getConsoleHyperlinkText() + "\n",
-                                       result.getConsoleHyperlinkInfo());
-            }
-
-            // Show the tool window when we have an error.
-            RunContentManager.getInstance(myProject).toFrontRunContent(myLaunchInfo.executor, myProcessHandler);
+  /**
+   * Performs the given launch tasks on the given device, stopping at the first task that fails.
+   *
+   * @param textPrefix prefix of the progress text of each task, identifying the device when launching on several devices
+   * @param progress   receives the fraction of the tasks that have been performed
+   * @return true if all tasks were performed successfully
+   */
+  private boolean performLaunchTasks(@NotNull IDevice device,
+                                     @NotNull List<LaunchTask> launchTasks,
+                                     @Nullable DebugConnectorTask debugSessionTask,
+                                     @NotNull ProgressIndicator indicator,
+                                     @NotNull LaunchStatus launchStatus,
+                                     @NotNull ConsolePrinter consolePrinter,
+                                     boolean destroyProcessOnCancellation,
+                                     @NotNull String textPrefix,
+                                     @NotNull DoubleConsumer progress) {
+    // This totalDuration and elapsed step count is used only for showing a progress bar.
+    int totalDuration = getTotalDuration(launchTasks, debugSessionTask);
+    int elapsed = 0;
+    for (LaunchTask task : launchTasks) {
+      if (!checkIfLaunchIsAliveAndTerminateIfCancelIsRequested(indicator, launchStatus, destroyProcessOnCancellation)) {
+        return false;
+      }
 
-            myStats.setErrorId(result.getErrorId());
-            return;
+      LaunchTaskDetail.Builder details;
+      synchronized (myStats) {
+        details = myStats.beginLaunchTask(task);
+      }
+      indicator.setText(textPrefix + task.getDescription());
+      LaunchResult result = task.run(myLaunchInfo.executor, device, launchStatus, consolePrinter);
+      boolean success = result.getSuccess();
+      synchronized (myStats) {
+        myOnFinished.addAll(result.onFinishedCallbacks());
+        myStats.endLaunchTask(task, details, success);
+        if (!success) {
+          if (myError != null) {
+            // The launch already failed on another device, only that error is reported.
+            return false;
+          }
+          myErrorNotificationListener = result.getNotificationListener();
+          myError = result.getError();
+          launchStatus.terminateLaunch(result.getConsoleError(), !isSwap());
+
+          // Append a footer hyperlink, if one was provided.
+          if (result.getConsoleHyperlinkInfo() != null) {
+            myConsoleConsumer.accept(result.getConsoleHyperlinkText() + "\n",
+                                     result.getConsoleHyperlinkInfo());
           }
 
-          // Update progress.
-          elapsed += task.getDuration();
-          indicator.setFraction((double)(elapsed / totalDuration + deviceIndex) / devices.size());
-        }
+          // Show the tool window when we have an error.
+          RunContentManager.getInstance(myProject).toFrontRunContent(myLaunchInfo.executor, myProcessHandler);
 
-        // A debug session task should be performed at last.
-        if (debugSessionTask != null) {
-          debugSessionTask.perform(myLaunchInfo, device, launchStatus, consolePrinter);
+          myStats.setErrorId(result.getErrorId());
+          return false;
         }
       }
+
+      // Update progress.
+      elapsed += task.getDuration();
+      progress.accept(totalDuration == 0 ? 1 : (double)elapsed / totalDuration);
     }
-    finally {
-      myStats.endLaunchTasks();
+    return true;
+  }
+
+  /**
+   * Performs the launch tasks of each device on a pooled thread, and waits for all of them to finish. The progress indicator shows the
+   * average progress of all devices. When a task fails on one device, the launch is terminated and the other devices stop at their next
+   * task.
+   */
+  private void performLaunchTasksInParallel(@NotNull Map<IDevice, List<LaunchTask>> launchTasksByDevice,
+                                            @NotNull ProgressIndicator indicator,
+                                            @NotNull LaunchStatus launchStatus,
+                                            @NotNull ConsolePrinter consolePrinter,
+                                            boolean destroyProcessOnCancellation) {
+    performLaunchTasksInParallel(launchTasksByDevice, indicator, launchStatus, consolePrinter, destroyProcessOnCancellation,
+                                 AppExecutorUtil.getAppExecutorService());
+  }
+
+  @VisibleForTesting
+  void performLaunchTasksInParallel(@NotNull Map<IDevice, List<LaunchTask>> launchTasksByDevice,
+                                    @NotNull ProgressIndicator indicator,
+                                    @NotNull LaunchStatus launchStatus,
+                                    @NotNull ConsolePrinter consolePrinter,
+                                    boolean destroyProcessOnCancellation,
+                                    @NotNull ExecutorService executor) {
+    double[] fractions = new double[launchTasksByDevice.size()];
+    List<Future<?>> futures = new ArrayList<>();
+    int deviceIndex = 0;
+    for (Map.Entry<IDevice, List<LaunchTask>> entry : launchTasksByDevice.entrySet()) {
+      IDevice device = entry.getKey();
+      int index = deviceIndex++;
+      DoubleConsumer progress = fraction -> {
+        synchronized (fractions) {
+          fractions[index] = fraction;
+          indicator.setFraction(Arrays.stream(fractions).sum() / fractions.length);
+        }
+      };
+      futures.add(executor.submit(
+        () -> performLaunchTasks(device, entry.getValue(), null, indicator, launchStatus, consolePrinter, destroyProcessOnCancellation,
+                                 device.getName() + ": ", progress)));
+    }
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      }
+      catch (InterruptedException e) {
+        launchStatus.terminateLaunch("Interrupted while launching", destroyProcessOnCancellation);
+        Thread.currentThread().interrupt();
+        return;
+      }
+      catch (ExecutionException e) {
+        launchStatus.terminateLaunch(e.getCause().toString(), !isSwap());
+        Logger.getInstance(LaunchTaskRunner.class).error(e.getCause());
+      }
     }
   }
 
@@ -19,12 +19,34 @@ import com.android.tools.idea.templates.propertyAdapters.PropertyObjectWrapper;
 import com.google.common.base.Charsets;
 import freemarker.template.Configuration;
 import freemarker.template.TemplateExceptionHandler;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * A Freemarker {@link Configuration} initialized with sensible built-in values for instantiating
  * Android project templates.
  */
 public final class FreemarkerConfiguration extends Configuration {
+  private static final Map<File, FreemarkerConfiguration> ourSharedConfigurations = new ConcurrentHashMap<>();
+
+  /**
+   * Returns a configuration loading templates from the given template root folder, shared by all renderings of templates under that
+   * folder. Freemarker caches the parsed templates of a configuration, so a template file is only parsed again when it changes on disk.
+   * <p>
+   * Templates are looked up by names of the form "root://path" (see {@link StudioTemplateLoader#findTemplate(File)}), which don't depend on
+   * the state of the loader rendering a given template, so the shared configuration has its own loader.
+   */
+  @NotNull
+  public static FreemarkerConfiguration getShared(@NotNull File templateRootFolder) {
+    return ourSharedConfigurations.computeIfAbsent(templateRootFolder, folder -> {
+      FreemarkerConfiguration configuration = new FreemarkerConfiguration();
+      configuration.setTemplateLoader(new StudioTemplateLoader(folder));
+      return configuration;
+    });
+  }
+
   public FreemarkerConfiguration() {
     setDefaultEncoding(Charsets.UTF_8.name());
     setLocalizedLookup(false);
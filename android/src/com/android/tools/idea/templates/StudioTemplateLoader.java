@@ -50,6 +50,14 @@ public final class StudioTemplateLoader implements TemplateLoader {
     myLastTemplateFolders.push(templateFolder);
   }
 
+  /**
+   * The root folder of the templates loaded by this loader, referred to by the "root://" prefix.
+   */
+  @NotNull
+  public File getTemplateRootFolder() {
+    return myTemplateRootFolder;
+  }
+
   /**
    * Push the folder of the last template loaded as a temporary relative reference.
    * This can be useful if we need to resolve other references that are (or could be) relative
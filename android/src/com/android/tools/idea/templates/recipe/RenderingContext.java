@@ -89,8 +89,7 @@ public final class RenderingContext {
     myDryRun = dryRun;
     myShowErrors = showErrors;
     myLoader = new StudioTemplateLoader(initialTemplatePath);
-    myFreemarker = new FreemarkerConfiguration();
-    myFreemarker.setTemplateLoader(myLoader);
+    myFreemarker = FreemarkerConfiguration.getShared(myLoader.getTemplateRootFolder());
     mySourceFiles = outSourceFiles != null ? outSourceFiles : new ArrayList<>();
     myTargetFiles = outTargetFiles != null ? outTargetFiles : new ArrayList<>();
     myFilesToOpen = outOpenFiles != null ? outOpenFiles : new ArrayList<>();
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.configurations;
+
+import com.android.ide.common.rendering.api.ResourceNamespace;
+import com.android.ide.common.resources.configuration.FolderConfiguration;
+import com.android.resources.ResourceType;
+import com.android.tools.idea.res.LocalResourceRepository;
+import com.android.tools.idea.res.ResourceRepositoryManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import java.util.List;
+import org.jetbrains.android.AndroidTestCase;
+
+public class ConfigurationMatcherTest extends AndroidTestCase {
+  // The specific file doesn't matter; only its location does.
+  private static final String TEST_FILE = "xmlpull/layout.xml";
+
+  public void testMatchingFilesFollowResourceChanges() {
+    VirtualFile portrait = myFixture.copyFileToProject(TEST_FILE, "res/layout/main.xml");
+    LocalResourceRepository resources = ResourceRepositoryManager.getInstance(myModule).getAppResources();
+    FolderConfiguration landscapeConfig = FolderConfiguration.getConfigForFolder("layout-land");
+    assertNotNull(landscapeConfig);
+
+    List<VirtualFile> files =
+      ConfigurationMatcher.getMatchingFiles(resources, portrait, ResourceNamespace.TODO(), ResourceType.LAYOUT, landscapeConfig);
+    assertEquals(portrait, files.get(0));
+    // Same lookup while the repository is unchanged.
+    assertEquals(files,
+                 ConfigurationMatcher.getMatchingFiles(resources, portrait, ResourceNamespace.TODO(), ResourceType.LAYOUT, landscapeConfig));
+
+    VirtualFile landscape = myFixture.copyFileToProject(TEST_FILE, "res/layout-land/main.xml");
+    files = ConfigurationMatcher.getMatchingFiles(resources, portrait, ResourceNamespace.TODO(), ResourceType.LAYOUT, landscapeConfig);
+    assertEquals(landscape, files.get(0));
+
+    // The configuration used as a key may be modified by the caller afterwards without affecting later lookups.
+    FolderConfiguration portraitConfig = FolderConfiguration.getConfigForFolder("layout-port");
+    assertNotNull(portraitConfig);
+    assertEquals(portrait, ConfigurationMatcher
+      .getMatchingFiles(resources, portrait, ResourceNamespace.TODO(), ResourceType.LAYOUT, portraitConfig).get(0));
+    portraitConfig.set(landscapeConfig);
+    assertEquals(landscape, ConfigurationMatcher
+      .getMatchingFiles(resources, portrait, ResourceNamespace.TODO(), ResourceType.LAYOUT, portraitConfig).get(0));
+  }
+}
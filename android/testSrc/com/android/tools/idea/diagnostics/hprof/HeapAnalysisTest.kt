@@ -21,11 +21,11 @@ import com.android.tools.idea.diagnostics.hprof.analysis.AnalysisContext
 import com.android.tools.idea.diagnostics.hprof.analysis.AnalyzeGraph
 import com.android.tools.idea.diagnostics.hprof.analysis.ClassNomination
 import com.android.tools.idea.diagnostics.hprof.classstore.HProfMetadata
-import com.android.tools.idea.diagnostics.hprof.histogram.Histogram
 import com.android.tools.idea.diagnostics.hprof.navigator.ObjectNavigator
 import com.android.tools.idea.diagnostics.hprof.parser.HProfEventBasedParser
 import com.android.tools.idea.diagnostics.hprof.util.IntList
 import com.android.tools.idea.diagnostics.hprof.util.UByteList
+import com.android.tools.idea.diagnostics.hprof.visitors.HistogramVisitor
 import com.android.tools.idea.diagnostics.hprof.visitors.RemapIDsVisitor
 import com.android.tools.idea.util.AndroidTestPaths
 import com.intellij.openapi.progress.util.AbstractProgressIndicatorBase
@@ -89,8 +89,9 @@ class HeapAnalysisTest {
       progress.isIndeterminate = false
 
       val parser = HProfEventBasedParser(hprofChannel)
-      val hprofMetadata = HProfMetadata.create(parser)
-      val histogram = Histogram.create(parser, hprofMetadata.classStore)
+      val histogramVisitor = HistogramVisitor()
+      val hprofMetadata = HProfMetadata.create(parser, histogramVisitor)
+      val histogram = histogramVisitor.createHistogram(hprofMetadata.classStore)
       val nominatedClasses = ClassNomination(histogram, 5).nominateClasses()
 
       val remapIDsVisitor = RemapIDsVisitor.createMemoryBased()
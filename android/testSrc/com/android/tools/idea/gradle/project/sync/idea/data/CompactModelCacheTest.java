@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.gradle.project.sync.idea.data;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.android.builder.model.level2.Library;
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompactModelCacheTest {
+  @Rule public TemporaryFolder myTemporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void modelsAreSharedAcrossModules() throws Exception {
+    File file = myTemporaryFolder.newFile("models.bin");
+    Map<String, List<Object>> models = ImmutableMap.of(
+      "app", Arrays.asList(new String("com.example.shared"), new File("/work/project/app"), "short"),
+      "lib", Arrays.asList(new String("com.example.shared"), new File("/work/project/app")));
+    CompactModelCache.write(file, models);
+
+    CompactModelCache cache = CompactModelCache.read(file);
+    assertThat(cache.getModuleNames()).containsExactly("app", "lib").inOrder();
+    List<?> appModels = cache.getModels("app");
+    List<?> libModels = cache.getModels("lib");
+    assertThat(appModels).isEqualTo(models.get("app"));
+    assertThat(libModels).isEqualTo(models.get("lib"));
+    assertSame(appModels.get(0), libModels.get(0));
+    assertSame(appModels.get(1), libModels.get(1));
+    assertThat(cache.getModels("missing")).isEmpty();
+  }
+
+  @Test
+  public void librariesAreSharedAfterRoundTrip() throws Exception {
+    File file = myTemporaryFolder.newFile("models.bin");
+    Library guava = createLibrary("com.google.guava:guava:28.0@jar");
+    Library junit = createLibrary("junit:junit:4.12@jar");
+    // Equal libraries of different modules are distinct instances, as they are after sync.
+    Map<String, List<Object>> models = ImmutableMap.of(
+      "app", Arrays.asList(new ArrayList<>(Arrays.asList(guava, junit)), "app"),
+      "lib", Arrays.asList(new ArrayList<>(Arrays.asList(createLibrary("com.google.guava:guava:28.0@jar"))), "lib"));
+    CompactModelCache.write(file, models);
+
+    CompactModelCache cache = CompactModelCache.read(file);
+    List<?> appModels = cache.getModels("app");
+    List<?> libModels = cache.getModels("lib");
+    assertThat(appModels).isEqualTo(models.get("app"));
+    assertThat(libModels).isEqualTo(models.get("lib"));
+    List<?> appLibraries = (List<?>)appModels.get(0);
+    List<?> libLibraries = (List<?>)libModels.get(0);
+    assertThat(((Library)appLibraries.get(0)).getArtifactAddress()).isEqualTo("com.google.guava:guava:28.0@jar");
+    assertThat(((Library)appLibraries.get(1)).getArtifactAddress()).isEqualTo("junit:junit:4.12@jar");
+    assertSame(appLibraries.get(0), libLibraries.get(0));
+    // Decoding a module again shares the same library instances.
+    assertSame(appLibraries.get(1), ((List<?>)cache.getModels("app").get(0)).get(1));
+  }
+
+  @Test
+  public void fileWithDifferentHeaderIsIgnored() throws Exception {
+    File file = myTemporaryFolder.newFile("models.bin");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(new byte[]{0x41, 0x53, 0x4d, 0x43, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+    }
+    assertNull(CompactModelCache.read(file));
+    assertNull(CompactModelCache.read(new File(myTemporaryFolder.getRoot(), "missing.bin")));
+  }
+
+  /**
+   * Returns a serializable {@link Library} identified by its artifact address, like the ones in the synced models.
+   */
+  @NotNull
+  private static Library createLibrary(@NotNull String artifactAddress) {
+    return (Library)Proxy.newProxyInstance(CompactModelCacheTest.class.getClassLoader(), new Class<?>[]{Library.class, Serializable.class},
+                                           new LibraryHandler(artifactAddress));
+  }
+
+  private static final class LibraryHandler implements InvocationHandler, Serializable {
+    @NotNull private final String myArtifactAddress;
+
+    LibraryHandler(@NotNull String artifactAddress) {
+      myArtifactAddress = artifactAddress;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      switch (method.getName()) {
+        case "equals":
+          return args[0] != null && Proxy.isProxyClass(args[0].getClass()) &&
+                 Proxy.getInvocationHandler(args[0]) instanceof LibraryHandler &&
+                 myArtifactAddress.equals(((LibraryHandler)Proxy.getInvocationHandler(args[0])).myArtifactAddress);
+        case "hashCode":
+          return myArtifactAddress.hashCode();
+        case "toString":
+        case "getArtifactAddress":
+          return myArtifactAddress;
+        default:
+          return null;
+      }
+    }
+  }
+}
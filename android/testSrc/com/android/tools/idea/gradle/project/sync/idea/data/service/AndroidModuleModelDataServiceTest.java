@@ -81,6 +81,7 @@ public class AndroidModuleModelDataServiceTest extends AndroidGradleTestCase {
     when(myModuleSetupContextFactory.create(appModule, modelsProvider)).thenReturn(myModuleSetupContext);
     myService.importData(Collections.singletonList(dataNode), mock(ProjectData.class), project, modelsProvider);
 
+    verify(myModuleSetup).prepareModules(Collections.singletonMap(myModuleSetupContext, androidModel));
     verify(myModuleSetup).setUpModule(myModuleSetupContext, androidModel);
     verify(myValidator).validate(appModule, androidModel);
     verify(myValidator).fixAndReportFoundIssues();
@@ -22,6 +22,10 @@ import static com.google.common.truth.Truth.assertThat;
 import static com.intellij.openapi.roots.DependencyScope.COMPILE;
 import static com.intellij.openapi.util.io.FileUtil.join;
 import static com.intellij.util.containers.ContainerUtil.getFirstItem;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.android.builder.model.level2.Library;
 import com.android.ide.common.gradle.model.stubs.level2.AndroidLibraryStub;
@@ -30,6 +34,7 @@ import com.android.ide.common.gradle.model.stubs.level2.IdeDependenciesStubBuild
 import com.android.ide.common.gradle.model.stubs.level2.JavaLibraryStub;
 import com.android.ide.common.gradle.model.stubs.level2.ModuleLibraryStub;
 import com.android.ide.common.gradle.model.stubs.level2.ModuleLibraryStubBuilder;
+import com.android.tools.idea.gradle.LibraryFilePaths;
 import com.android.tools.idea.gradle.TestProjects;
 import com.android.tools.idea.gradle.project.facet.gradle.GradleFacet;
 import com.android.tools.idea.gradle.project.sync.setup.module.ModuleFinder;
@@ -104,6 +109,40 @@ public class DependenciesExtractorTest extends HeavyPlatformTestCase {
     assertEquals(jarFile, binaryPaths[0]);
   }
 
+  public void testExtractFromJavaLibraryWithRegistry() {
+    File jarFile = new File("~/repo/guava/guava-11.0.2.jar");
+    Library javaLibrary = new JavaLibraryStub(LIBRARY_JAVA, "guava", jarFile);
+
+    IdeDependenciesStubBuilder builder = new IdeDependenciesStubBuilder();
+    builder.setJavaLibraries(ImmutableList.of(javaLibrary));
+    myVariant.getMainArtifact().setLevel2Dependencies(builder.build());
+    myVariant.getInstrumentTestArtifact().setLevel2Dependencies(builder.build());
+
+    LibraryRegistry registry = new LibraryRegistry();
+    LibraryDependency dependency1 =
+      getFirstItem(myDependenciesExtractor.extractFrom(getProjectBasePath(), myVariant, myModuleFinder, registry).onLibraries());
+    LibraryDependency dependency2 =
+      getFirstItem(myDependenciesExtractor.extractFrom(getProjectBasePath(), myVariant, myModuleFinder, registry).onLibraries());
+    assertNotNull(dependency1);
+    assertNotNull(dependency2);
+    assertNotSame(dependency1, dependency2);
+    assertEquals(dependency1, dependency2);
+    assertEquals(1, registry.size());
+
+    // The source and javadoc jars are looked up once for both dependencies.
+    LibraryFilePaths libraryFilePaths = mock(LibraryFilePaths.class);
+    File sourceJarPath = new File("~/repo/guava/guava-11.0.2-sources.jar");
+    when(libraryFilePaths.findSourceJarPath("Gradle: guava", jarFile)).thenReturn(sourceJarPath);
+    assertFalse(dependency2.isFilePathsFound());
+    dependency1.findFilePaths(libraryFilePaths);
+    dependency2.findFilePaths(libraryFilePaths);
+    assertTrue(dependency2.isFilePathsFound());
+    assertEquals(sourceJarPath, dependency2.getSourceJarPath());
+    assertNull(dependency2.getJavadocJarPath());
+    verify(libraryFilePaths, times(1)).findSourceJarPath("Gradle: guava", jarFile);
+    verify(libraryFilePaths, times(1)).findJavadocJarPath("Gradle: guava", jarFile);
+  }
+
   public void testExtractFromAndroidLibraryWithLocalJar() {
     String rootDirPath = myAndroidProject.getRootDir().getPath();
     File libJar = new File(rootDirPath, join("bundle_aar", "androidLibrary.jar"));
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.gradle.structure.daemon
+
+import com.android.tools.idea.gradle.structure.configurables.PsContextImpl
+import com.android.tools.idea.gradle.structure.model.PsProjectImpl
+import com.android.tools.idea.gradle.structure.model.android.DependencyTestCase
+import com.android.tools.idea.gradle.structure.model.android.testResolve
+import com.android.tools.idea.testing.TestProjectPaths.PSD_DEPENDENCY
+import com.intellij.openapi.util.Disposer
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+
+/**
+ * Tests for [PsAnalyzerDaemon].
+ */
+class PsAnalyzerDaemonTest : DependencyTestCase() {
+
+  fun testTakePendingModules() {
+    loadProject(PSD_DEPENDENCY)
+
+    val project = PsProjectImpl(myFixture.project).also { it.testResolve() }
+    val disposable = Disposer.newDisposable()
+    try {
+      // With analysis disabled the daemon queues are never activated, so queued modules stay pending until taken here.
+      val daemon = PsContextImpl(project, disposable, disableAnalysis = true, disableResolveModels = true).analyzerDaemon
+      fun takePendingModuleNames() = daemon.takePendingModules().map { it.name }.toSet()
+
+      daemon.queueCheck(project.findModuleByName("jModuleL")!!)
+      daemon.queueCheck(project.findModuleByName("moduleA")!!)
+      assertThat(takePendingModuleNames(), equalTo(setOf("jModuleL", "moduleA")))
+      assertThat(takePendingModuleNames(), equalTo(setOf<String>()))
+
+      // Modules depending on a changed module are analyzed once too, however many of their dependencies changed.
+      daemon.queueCheckWithDependents(project.findModuleByName("jModuleL")!!)
+      daemon.queueCheckWithDependents(project.findModuleByName("moduleB")!!)
+      assertThat(takePendingModuleNames(), equalTo(setOf("jModuleL", "moduleB", "jModuleK")))
+
+      daemon.queueCheckWithDependents(project.findModuleByName("mainModule")!!)
+      assertThat(takePendingModuleNames(), equalTo(setOf("mainModule", "app")))
+      assertThat(takePendingModuleNames(), equalTo(setOf<String>()))
+    }
+    finally {
+      Disposer.dispose(disposable)
+    }
+  }
+}
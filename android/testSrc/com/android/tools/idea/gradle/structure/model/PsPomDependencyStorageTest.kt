@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.gradle.structure.model
+
+import com.intellij.openapi.util.io.FileUtil
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+class PsPomDependencyStorageTest {
+  @Test
+  fun storedDependencies() {
+    val pomFile = FileUtil.createTempFile("lib1-1.0", ".pom")
+    val storage = PsPomDependencyStorage()
+    assertThat(storage.findDependencies(pomFile), nullValue())
+
+    storage.store(pomFile, listOf(PsArtifactDependencySpec.create("com.example.libs", "lib2", "1.0"),
+                                  PsArtifactDependencySpec.create(null, "lib3", null)))
+    assertThat(storage.findDependencies(pomFile)?.map { it.compactNotation() }, equalTo(listOf("com.example.libs:lib2:1.0", "lib3")))
+
+    // Stored dependencies survive saving and loading the state.
+    val reloaded = PsPomDependencyStorage().apply { loadState(storage.state) }
+    assertThat(reloaded.findDependencies(pomFile)?.map { it.compactNotation() }, equalTo(listOf("com.example.libs:lib2:1.0", "lib3")))
+
+    // ...until the POM file is modified.
+    pomFile.setLastModified(pomFile.lastModified() - 10_000)
+    assertThat(reloaded.findDependencies(pomFile), nullValue())
+  }
+
+  @Test
+  fun outdatedDependenciesAreDroppedOnLoad() {
+    val pomFile = FileUtil.createTempFile("lib1-1.0", ".pom")
+    val deletedPomFile = FileUtil.createTempFile("lib2-1.0", ".pom")
+    val storage = PsPomDependencyStorage()
+    storage.store(pomFile, listOf(PsArtifactDependencySpec.create("com.example.libs", "lib3", "1.0")))
+    storage.store(deletedPomFile, listOf(PsArtifactDependencySpec.create("com.example.libs", "lib3", "1.0")))
+
+    val state = storage.state
+    pomFile.setLastModified(pomFile.lastModified() - 10_000)
+    deletedPomFile.delete()
+    val reloaded = PsPomDependencyStorage().apply { loadState(state) }
+    assertThat(reloaded.state.pomFiles.size, equalTo(0))
+  }
+
+  @Test
+  fun stateIsNotAffectedByLaterStores() {
+    val pomFile = FileUtil.createTempFile("lib1-1.0", ".pom")
+    val storage = PsPomDependencyStorage()
+    storage.store(pomFile, listOf(PsArtifactDependencySpec.create("com.example.libs", "lib2", "1.0")))
+    val state = storage.state
+
+    storage.store(pomFile, listOf())
+    storage.store(FileUtil.createTempFile("lib3-1.0", ".pom"), listOf())
+    assertThat(state.pomFiles.map { it.path }, equalTo(listOf(pomFile.path)))
+    assertThat(state.pomFiles.single().dependencies.map { it.name }, equalTo(listOf<String?>("lib2")))
+  }
+}
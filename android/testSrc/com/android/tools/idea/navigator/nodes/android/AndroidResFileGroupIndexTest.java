@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.navigator.nodes.android;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.intellij.ide.projectView.ViewSettings;
+import com.intellij.ide.util.treeView.AbstractTreeNode;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VirtualFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.jetbrains.android.AndroidTestCase;
+
+public class AndroidResFileGroupIndexTest extends AndroidTestCase {
+  public void testFilesAreGroupedByResourceName() {
+    VirtualFile icon = myFixture.addFileToProject("res/drawable/icon.xml", "<selector/>").getVirtualFile();
+    VirtualFile iconHdpi = myFixture.addFileToProject("res/drawable-hdpi/icon.xml", "<selector/>").getVirtualFile();
+    VirtualFile background = myFixture.addFileToProject("res/drawable/background.xml", "<shape/>").getVirtualFile();
+
+    AndroidResFileGroupIndex index = AndroidResFileGroupIndex.getInstance(getProject());
+    SortedMap<String, List<VirtualFile>> groups = index.getGroups(Arrays.asList(icon.getParent(), iconHdpi.getParent()));
+    assertThat(groups.keySet()).containsExactly("background", "icon").inOrder();
+    assertThat(groups.get("icon")).containsExactly(icon, iconHdpi);
+    assertThat(groups.get("background")).containsExactly(background);
+  }
+
+  public void testGroupsAreUpdatedWhenFilesChange() throws Exception {
+    VirtualFile icon = myFixture.addFileToProject("res/drawable/icon.xml", "<selector/>").getVirtualFile();
+    VirtualFile folder = icon.getParent();
+    AndroidResFileGroupIndex index = AndroidResFileGroupIndex.getInstance(getProject());
+    assertThat(index.getGroups(Collections.singletonList(folder)).keySet()).containsExactly("icon");
+
+    VirtualFile logo = myFixture.addFileToProject("res/drawable/logo.xml", "<selector/>").getVirtualFile();
+    assertThat(index.getGroups(Collections.singletonList(folder)).keySet()).containsExactly("icon", "logo").inOrder();
+
+    WriteAction.run(() -> icon.rename(this, "banner.xml"));
+    assertThat(index.getGroups(Collections.singletonList(folder)).keySet()).containsExactly("banner", "logo").inOrder();
+
+    WriteAction.run(() -> logo.delete(this));
+    assertThat(index.getGroups(Collections.singletonList(folder)).keySet()).containsExactly("banner");
+  }
+
+  public void testLargeFoldersAreShownInPages() {
+    VirtualFile folder = myFixture.addFileToProject("res/drawable/icon0.xml", "<selector/>").getVirtualFile().getParent();
+    for (int i = 1; i <= AndroidResFolderTypeNode.PAGE_SIZE; i++) {
+      myFixture.addFileToProject("res/drawable/icon" + i + ".xml", "<selector/>");
+    }
+
+    List<Map.Entry<String, List<VirtualFile>>> groups = new ArrayList<>(
+      AndroidResFileGroupIndex.getInstance(getProject()).getGroups(Collections.singletonList(folder)).entrySet());
+    ViewSettings settings = mock(ViewSettings.class);
+    List<AbstractTreeNode<?>> page = AndroidResFolderTypeNode.createPage(getProject(), myFacet, groups, settings);
+    assertThat(page).hasSize(AndroidResFolderTypeNode.PAGE_SIZE + 1);
+    AbstractTreeNode<?> pageNode = page.get(AndroidResFolderTypeNode.PAGE_SIZE);
+    assertThat(pageNode).isInstanceOf(AndroidResPageNode.class);
+    assertEquals("1 more", pageNode.toTestString(null));
+
+    Map.Entry<String, List<VirtualFile>> last = groups.get(groups.size() - 1);
+    assertTrue(((AndroidResPageNode)pageNode).contains(last.getValue().get(0)));
+    assertThat(pageNode.getChildren()).hasSize(1);
+  }
+}
@@ -309,6 +309,35 @@ public class ResourceClassGeneratorTest extends AndroidTestCase {
     assertEquals(1000, iArray.length);
   }
 
+  public void testGeneratedClassesAreReused() throws Exception {
+    TestResourceRepository repository = resourceFixture.createTestResources(RES_AUTO, new Object[] {
+      "values/strings.xml", "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+                            "<resources>\n" +
+                            "    <string name=\"app_name\">App</string>\n" +
+                            "    <dimen name=\"margin\">8dp</dimen>\n" +
+                            "</resources>\n"});
+    LocalResourceRepository resources = new LocalResourceRepositoryDelegate("resources", repository);
+    AppResourceRepository appResources = new AppResourceRepository(myFacet, ImmutableList.of(resources), Collections.emptyList());
+    ResourceClassGenerator generator = buildGenerator(appResources);
+
+    byte[] rString = generator.generate("my.test.pkg.R$string");
+    byte[] rDimen = generator.generate("my.test.pkg.R$dimen");
+    assertNotNull(rString);
+    assertNotNull(rDimen);
+    assertSame(rString, generator.generate("my.test.pkg.R$string"));
+    assertSame(rDimen, generator.generate("my.test.pkg.R$dimen"));
+
+    // A modification that doesn't change the set of resources keeps the generated classes.
+    resources.setModificationCount(resources.getModificationCount() + 1);
+    assertSame(rString, generator.generate("my.test.pkg.R$string"));
+    assertSame(rDimen, generator.generate("my.test.pkg.R$dimen"));
+
+    // Resetting the dynamic ids invalidates everything.
+    ResourceIdManager.get(myModule).resetDynamicIds();
+    assertNotSame(rString, generator.generate("my.test.pkg.R$string"));
+    assertNotSame(rDimen, generator.generate("my.test.pkg.R$dimen"));
+  }
+
   private static class LocalResourceRepositoryDelegate extends LocalResourceRepository implements SingleNamespaceResourceRepository {
     private final TestResourceRepository myDelegate;
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.run;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.android.ddmlib.IDevice;
+import com.android.tools.idea.run.tasks.LaunchResult;
+import com.android.tools.idea.run.tasks.LaunchTask;
+import com.android.tools.idea.run.tasks.LaunchTasksProvider;
+import com.android.tools.idea.run.util.LaunchStatus;
+import com.android.tools.idea.stats.RunStats;
+import com.intellij.execution.Executor;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ProgramRunner;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LaunchTaskRunnerTest {
+  private static final String APPLICATION_ID = "com.foo.bar";
+
+  private LaunchTaskRunner myRunner;
+  private ExecutorService myExecutor;
+  private ProgressIndicator myIndicator;
+  private LaunchStatus myLaunchStatus;
+
+  @Before
+  public void setUp() {
+    LaunchInfo launchInfo = new LaunchInfo(mock(Executor.class), mock(ProgramRunner.class), mock(ExecutionEnvironment.class),
+                                           mock(ConsoleProvider.class));
+    myRunner = new LaunchTaskRunner(mock(Project.class), "app", APPLICATION_ID, null, launchInfo, mock(ProcessHandler.class),
+                                    mock(DeviceFutures.class), mock(LaunchTasksProvider.class), mock(RunStats.class), (s, h) -> {});
+    myExecutor = Executors.newFixedThreadPool(2);
+    myIndicator = mock(ProgressIndicator.class);
+    myLaunchStatus = mock(LaunchStatus.class);
+  }
+
+  @After
+  public void tearDown() {
+    myExecutor.shutdownNow();
+  }
+
+  @Test
+  public void launchTasksRunOnAllDevicesConcurrently() {
+    IDevice device1 = createDevice("device-1");
+    IDevice device2 = createDevice("device-2");
+
+    // Each task waits for the task of the other device to start, which only happens if they run concurrently.
+    CountDownLatch started = new CountDownLatch(2);
+    Set<IDevice> launchedDevices = ConcurrentHashMap.newKeySet();
+    Map<IDevice, List<LaunchTask>> launchTasksByDevice = new LinkedHashMap<>();
+    launchTasksByDevice.put(device1, Collections.singletonList(new FakeLaunchTask(started, launchedDevices)));
+    launchTasksByDevice.put(device2, Collections.singletonList(new FakeLaunchTask(started, launchedDevices)));
+
+    myRunner.performLaunchTasksInParallel(launchTasksByDevice, myIndicator, myLaunchStatus, mock(ConsolePrinter.class), true,
+                                          myExecutor);
+
+    assertThat(launchedDevices).containsExactly(device1, device2);
+    verify(myIndicator).setText("device-1: Launching fake task");
+    verify(myIndicator).setText("device-2: Launching fake task");
+    verify(myIndicator).setFraction(1.0);
+  }
+
+  @NotNull
+  private static IDevice createDevice(@NotNull String serialNumber) {
+    IDevice device = mock(IDevice.class);
+    when(device.getSerialNumber()).thenReturn(serialNumber);
+    when(device.getName()).thenReturn(serialNumber);
+    return device;
+  }
+
+  private static final class FakeLaunchTask implements LaunchTask {
+    @NotNull private final CountDownLatch myStarted;
+    @NotNull private final Set<IDevice> myLaunchedDevices;
+
+    private FakeLaunchTask(@NotNull CountDownLatch started, @NotNull Set<IDevice> launchedDevices) {
+      myStarted = started;
+      myLaunchedDevices = launchedDevices;
+    }
+
+    @NotNull
+    @Override
+    public String getDescription() {
+      return "Launching fake task";
+    }
+
+    @Override
+    public int getDuration() {
+      return 1;
+    }
+
+    @Override
+    public LaunchResult run(@NotNull Executor executor,
+                            @NotNull IDevice device,
+                            @NotNull LaunchStatus launchStatus,
+                            @NotNull ConsolePrinter printer) {
+      myStarted.countDown();
+      try {
+        if (!myStarted.await(10, TimeUnit.SECONDS)) {
+          return LaunchResult.error("TIMEOUT", getDescription());
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return LaunchResult.error("INTERRUPTED", getDescription());
+      }
+      myLaunchedDevices.add(device);
+      return LaunchResult.success();
+    }
+
+    @NotNull
+    @Override
+    public String getId() {
+      return "FAKE_TASK";
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.templates;
+
+import com.intellij.openapi.util.io.FileUtil;
+import freemarker.template.Template;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Collections;
+
+public class FreemarkerConfigurationTest extends TestCase {
+  public void testTemplatesAreSharedAcrossRenderings() throws Exception {
+    File root = FileUtil.createTempDirectory("templates", null);
+    File recipe = new File(root, "activity/recipe.xml.ftl");
+    FileUtil.writeToFile(recipe, "<recipe>${name}</recipe>");
+
+    StudioTemplateLoader firstLoader = new StudioTemplateLoader(recipe.getParentFile());
+    StudioTemplateLoader secondLoader = new StudioTemplateLoader(recipe.getParentFile());
+    FreemarkerConfiguration configuration = FreemarkerConfiguration.getShared(firstLoader.getTemplateRootFolder());
+    assertSame(configuration, FreemarkerConfiguration.getShared(secondLoader.getTemplateRootFolder()));
+
+    Template template = configuration.getTemplate(firstLoader.findTemplate(recipe));
+    assertSame(template, configuration.getTemplate(secondLoader.findTemplate(recipe)));
+
+    StringWriter out = new StringWriter();
+    template.process(Collections.singletonMap("name", "main"), out);
+    assertEquals("<recipe>main</recipe>", out.toString());
+  }
+}
@@ -173,6 +173,7 @@ public class NlComponent implements NlAttributesHolder {
 
   public void setTag(@NotNull XmlTag tag) {
     myBackend.setTagElement(tag);
+    myModel.invalidateComponentIndex();
   }
 
   @Nullable
@@ -204,6 +205,7 @@ public class NlComponent implements NlAttributesHolder {
       }
     }
     component.setParent(this);
+    myModel.invalidateComponentIndex();
   }
 
   public void removeChild(@NotNull NlComponent component) {
@@ -215,16 +217,21 @@ public class NlComponent implements NlAttributesHolder {
       children.remove(component);
     }
     component.setParent(null);
+    myModel.invalidateComponentIndex();
   }
 
   public void setChildren(@Nullable List<NlComponent> components) {
     synchronized (children) {
       cachedChildrenCopy = null;
       children.clear();
-      if (components == null) {
-        return;
+      if (components != null) {
+        children.addAll(components);
       }
-      children.addAll(components);
+    }
+    // Drop the index only once the children have changed, so that a lookup running meanwhile cannot cache an index of the old ones.
+    myModel.invalidateComponentIndex();
+    if (components == null) {
+      return;
     }
     for (NlComponent component : components) {
       if (component == this) {
@@ -278,6 +285,11 @@ public class NlComponent implements NlAttributesHolder {
 
   @Nullable
   public NlComponent findViewByTag(@NotNull XmlTag tag) {
+    NlComponentIndex index = myModel.getComponentIndex();
+    if (index != null && index.contains(this)) {
+      return index.findViewByTag(this, tag);
+    }
+
     if (getTagDeprecated() == tag) {
       return this;
     }
@@ -304,6 +316,11 @@ public class NlComponent implements NlAttributesHolder {
 
   @NotNull
   public ImmutableList<NlComponent> findViewsByTag(@NotNull XmlTag tag) {
+    NlComponentIndex index = myModel.getComponentIndex();
+    if (index != null && index.contains(this)) {
+      return index.findViewsByTag(this, tag);
+    }
+
     ImmutableList.Builder<NlComponent> builder = ImmutableList.builder();
     findViewsByTag(tag, builder);
     return builder.build();
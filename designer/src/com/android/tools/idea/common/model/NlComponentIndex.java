@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.common.model;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.intellij.psi.xml.XmlTag;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Snapshot of the component hierarchy of an {@link NlModel} that allows looking up components by {@link XmlTag} or id without walking
+ * the tree.
+ * <p>
+ * Every component is numbered in pre-order, and the number of its last descendant is kept along with it. This means that checking if
+ * a component belongs to the subtree of another one, or sorting components in tree order, does not require looking at the tree either.
+ * <p>
+ * The index is immutable. {@link NlModel} drops it whenever the hierarchy changes and builds a new one on the next lookup.
+ */
+final class NlComponentIndex {
+  /** Order in which {@link NlComponent#findViewsByTag(XmlTag)} returns components: descendants before their ancestors. */
+  private final Comparator<NlComponent> myPostOrder = Comparator.<NlComponent>comparingInt(c -> getPosition(c)[1])
+    .thenComparing(Comparator.<NlComponent>comparingInt(c -> getPosition(c)[0]).reversed());
+
+  /** For each component, its pre-order number and the pre-order number of its last descendant. */
+  private final Map<NlComponent, int[]> myPositions = Maps.newIdentityHashMap();
+  /** Components for each tag, in pre-order. Most lists contain a single component. */
+  private final Map<XmlTag, List<NlComponent>> myComponentsByTag = Maps.newIdentityHashMap();
+  /** First component in pre-order for each id. Computed on first use since reading the ids requires resolving attributes. */
+  @Nullable private volatile Map<String, NlComponent> myComponentsById;
+  @NotNull private final NlComponent myRoot;
+
+  NlComponentIndex(@NotNull NlComponent root) {
+    myRoot = root;
+    int next = 0;
+    Deque<NlComponent> stack = new ArrayDeque<>();
+    stack.push(root);
+    List<NlComponent> preOrder = new ArrayList<>();
+    // The children seen by the first pass, so that both passes work on the same tree even if it is being modified.
+    List<List<NlComponent>> preOrderChildren = new ArrayList<>();
+    while (!stack.isEmpty()) {
+      NlComponent component = stack.pop();
+      if (myPositions.containsKey(component)) {
+        continue;
+      }
+      myPositions.put(component, new int[]{next++, -1});
+      preOrder.add(component);
+      myComponentsByTag.computeIfAbsent(component.getTagDeprecated(), tag -> new ArrayList<>(1)).add(component);
+      List<NlComponent> children = component.getChildren();
+      preOrderChildren.add(children);
+      for (int i = children.size() - 1; i >= 0; i--) {
+        stack.push(children.get(i));
+      }
+    }
+    // Walk backwards, which visits children before their parents, so that the last descendant of every child is known by then.
+    for (int i = preOrder.size() - 1; i >= 0; i--) {
+      int[] position = myPositions.get(preOrder.get(i));
+      position[1] = position[0];
+      for (NlComponent child : preOrderChildren.get(i)) {
+        int[] childPosition = myPositions.get(child);
+        if (childPosition != null && childPosition[0] > position[0]) {
+          position[1] = Math.max(position[1], childPosition[1]);
+        }
+      }
+    }
+  }
+
+  @NotNull
+  NlComponent getRoot() {
+    return myRoot;
+  }
+
+  boolean contains(@NotNull NlComponent component) {
+    return myPositions.containsKey(component);
+  }
+
+  /**
+   * Returns the first component, in pre-order, for the given tag within the subtree of {@code subtreeRoot}.
+   */
+  @Nullable
+  NlComponent findViewByTag(@NotNull NlComponent subtreeRoot, @NotNull XmlTag tag) {
+    List<NlComponent> components = myComponentsByTag.get(tag);
+    if (components == null) {
+      return null;
+    }
+    for (NlComponent component : components) {
+      if (isInSubtree(subtreeRoot, component)) {
+        return component;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns all the components for the given tag within the subtree of {@code subtreeRoot}, in the same order as
+   * {@link NlComponent#findViewsByTag(XmlTag)}.
+   */
+  @NotNull
+  ImmutableList<NlComponent> findViewsByTag(@NotNull NlComponent subtreeRoot, @NotNull XmlTag tag) {
+    List<NlComponent> components = myComponentsByTag.get(tag);
+    if (components == null) {
+      return ImmutableList.of();
+    }
+    if (components.size() == 1) {
+      NlComponent component = components.get(0);
+      return isInSubtree(subtreeRoot, component) ? ImmutableList.of(component) : ImmutableList.of();
+    }
+    List<NlComponent> result = new ArrayList<>(components.size());
+    for (NlComponent component : components) {
+      if (isInSubtree(subtreeRoot, component)) {
+        result.add(component);
+      }
+    }
+    result.sort(myPostOrder);
+    return ImmutableList.copyOf(result);
+  }
+
+  /**
+   * Returns the first component, in pre-order, that had the given id when the index was built. Callers should check that the id has
+   * not changed since.
+   */
+  @Nullable
+  NlComponent findById(@NotNull String id) {
+    Map<String, NlComponent> componentsById = myComponentsById;
+    if (componentsById == null) {
+      componentsById = new HashMap<>();
+      List<NlComponent> components = new ArrayList<>(myPositions.keySet());
+      components.sort(Comparator.comparingInt(c -> getPosition(c)[0]));
+      for (NlComponent component : components) {
+        String componentId = component.getId();
+        if (componentId != null) {
+          componentsById.putIfAbsent(componentId, component);
+        }
+      }
+      myComponentsById = componentsById;
+    }
+    return componentsById.get(id);
+  }
+
+  private boolean isInSubtree(@NotNull NlComponent subtreeRoot, @NotNull NlComponent component) {
+    int[] root = myPositions.get(subtreeRoot);
+    int[] position = myPositions.get(component);
+    return root != null && position != null && root[0] <= position[0] && position[0] <= root[1];
+  }
+
+  @NotNull
+  private int[] getPosition(@NotNull NlComponent component) {
+    return myPositions.get(component);
+  }
+}
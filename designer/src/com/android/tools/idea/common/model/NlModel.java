@@ -19,6 +19,7 @@ import static com.android.tools.idea.common.model.NlComponentUtil.isDescendant;
 import static com.google.common.base.Verify.verifyNotNull;
 import static com.intellij.util.Alarm.ThreadToUse.SWING_THREAD;
 
+import com.android.annotations.concurrency.GuardedBy;
 import com.android.annotations.concurrency.Slow;
 import com.android.ide.common.rendering.api.ResourceNamespace;
 import com.android.ide.common.rendering.api.ResourceReference;
@@ -109,6 +110,10 @@ public class NlModel implements Disposable, ResourceChangeListener, Modification
   /** Model name. This can be used when multiple models are displayed at the same time */
   private String myModelDisplayName;
   @Nullable private NlComponent myRootComponent;
+  /** Lookup index over the components under {@link #myRootComponent}. Built on demand and dropped when the hierarchy changes. */
+  @GuardedBy("myComponentIndexLock")
+  @Nullable private NlComponentIndex myComponentIndex;
+  private final Object myComponentIndexLock = new Object();
   private LintAnnotationsModel myLintAnnotationsModel;
   private final long myId;
   private final Set<Object> myActivations = Collections.newSetFromMap(new WeakHashMap<>());
@@ -342,6 +347,33 @@ public class NlModel implements Disposable, ResourceChangeListener, Modification
 
   protected void setRootComponent(NlComponent root) {
     myRootComponent = root;
+    invalidateComponentIndex();
+  }
+
+  /**
+   * Returns the lookup index for the current component hierarchy, building it if needed, or null if there are no components.
+   */
+  @Nullable
+  NlComponentIndex getComponentIndex() {
+    NlComponent root = myRootComponent;
+    if (root == null) {
+      return null;
+    }
+    synchronized (myComponentIndexLock) {
+      if (myComponentIndex == null || myComponentIndex.getRoot() != root) {
+        myComponentIndex = new NlComponentIndex(root);
+      }
+      return myComponentIndex;
+    }
+  }
+
+  /**
+   * Drops the component lookup index. Called when components are added, removed or re-tagged, and when the model is modified.
+   */
+  void invalidateComponentIndex() {
+    synchronized (myComponentIndexLock) {
+      myComponentIndex = null;
+    }
   }
 
   public void checkStructure() {
@@ -530,11 +562,20 @@ public class NlModel implements Disposable, ResourceChangeListener, Modification
 
   @Nullable
   public NlComponent findViewByTag(@NotNull XmlTag tag) {
-    return myRootComponent != null ? myRootComponent.findViewByTag(tag) : null;
+    NlComponentIndex index = getComponentIndex();
+    return index != null ? index.findViewByTag(index.getRoot(), tag) : null;
   }
 
   @Nullable
   public NlComponent find(@NotNull String id) {
+    NlComponentIndex index = getComponentIndex();
+    if (index != null) {
+      NlComponent component = index.findById(id);
+      if (component != null && id.equals(component.getId())) {
+        return component;
+      }
+    }
+    // The id may have been set after the index was built.
     return flattenComponents().filter(c -> id.equals(c.getId())).findFirst().orElse(null);
   }
 
@@ -545,11 +586,12 @@ public class NlModel implements Disposable, ResourceChangeListener, Modification
 
   @NotNull
   private ImmutableList<NlComponent> findViewsByTag(@NotNull XmlTag tag) {
-    if (myRootComponent == null) {
+    NlComponentIndex index = getComponentIndex();
+    if (index == null) {
       return ImmutableList.of();
     }
 
-    return myRootComponent.findViewsByTag(tag);
+    return index.findViewsByTag(index.getRoot(), tag);
   }
 
   @Nullable
@@ -990,6 +1032,7 @@ public class NlModel implements Disposable, ResourceChangeListener, Modification
   }
 
   public void notifyModified(@NotNull ChangeType reason) {
+    invalidateComponentIndex();
     myModelVersion.increase(reason);
     updateTheme();
     myModificationTrigger = reason;
@@ -828,6 +828,7 @@ public class Scene implements SelectionListener, Disposable {
     myHitComponent = myHitListener.getClosestComponent();
     if (myHitTarget != null) {
       myHitTarget.mouseDown(x, y);
+      invalidateHitRegions();
       if (myHitTarget instanceof MultiComponentTarget) {
         delegateMouseDownToSelection(x, y, myHitTarget.getComponent());
       }
@@ -1014,6 +1015,7 @@ public class Scene implements SelectionListener, Disposable {
       findSelectionOfCurve(secondarySelector);
     }
     myHitTarget = null;
+    invalidateHitRegions();
     requestLayoutIfNeeded();
   }
 
@@ -1029,9 +1031,20 @@ public class Scene implements SelectionListener, Disposable {
     myFilterType = FilterType.NONE;
     myNewSelectedComponentsOnRelease.clear();
     myHitTarget = null;
+    invalidateHitRegions();
     requestLayoutIfNeeded();
   }
 
+  /**
+   * Pressed or released targets may add different hit regions without changing the display list, see {@link SceneHitListener#find}.
+   */
+  private void invalidateHitRegions() {
+    myHoverListener.invalidate();
+    myHitListener.invalidate();
+    myFindListener.invalidate();
+    mySnapListener.invalidate();
+  }
+
   private boolean inCurrentSelection(@NotNull SceneComponent component) {
     List<NlComponent> currentSelection = myDesignSurface.getSelectionModel().getSelection();
     return currentSelection.contains(component.getNlComponent());
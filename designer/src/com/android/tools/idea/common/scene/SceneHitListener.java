@@ -15,6 +15,7 @@
  */
 package com.android.tools.idea.common.scene;
 
+import com.android.tools.adtui.common.SwingCoordinate;
 import com.android.tools.idea.common.model.AndroidDpCoordinate;
 import com.android.tools.idea.common.model.NlComponent;
 import com.android.tools.idea.common.model.SelectionModel;
@@ -41,6 +42,15 @@ class SceneHitListener {
   @NotNull final ArrayList<Target> myHitTargets = new ArrayList<>();
   private Predicate<Target> myTargertFilter = it -> true;
 
+  // What the hit regions in myPicker were added for. They are reused by the next find if none of it has changed.
+  @Nullable private SceneComponent myPickerRoot;
+  @Nullable private SceneContext myPickerTransform;
+  private long myPickerDisplayListVersion;
+  private double myPickerScale;
+  @SwingCoordinate private int myPickerOriginX;
+  @SwingCoordinate private int myPickerOriginY;
+  private int myPickerModifiers;
+
   public SceneHitListener(@NotNull SelectionModel selectionModel) {
     mySelectionModel = selectionModel;
     myPicker.setSelectListener((a, b) -> over(a, b));
@@ -50,6 +60,7 @@ class SceneHitListener {
     myTargertFilter = filter != null ? filter : it -> true;
   }
 
+  @SuppressWarnings("FloatingPointEquality")  // The scale is compared with the value it had last time, to detect changes.
   public void find(@NotNull SceneContext transform,
                    @NotNull SceneComponent root,
                    @AndroidDpCoordinate int x,
@@ -59,11 +70,40 @@ class SceneHitListener {
     myHitTargets.clear();
     myClosestComponentDistance = Double.MAX_VALUE;
     myClosestTargetDistance = Double.MAX_VALUE;
-    myPicker.reset();
-    root.addHit(transform, myPicker, modifiersEx);
+    // The hit regions only change along with what is drawn, so they don't need to be added again while the mouse moves over an
+    // unchanged scene.
+    long displayListVersion = root.getScene().getDisplayListVersion();
+    @SwingCoordinate int originX = transform.getSwingXDip(0);
+    @SwingCoordinate int originY = transform.getSwingYDip(0);
+    if (myPickerRoot != root ||
+        myPickerTransform != transform ||
+        myPickerDisplayListVersion != displayListVersion ||
+        myPickerScale != transform.getScale() ||
+        myPickerOriginX != originX ||
+        myPickerOriginY != originY ||
+        myPickerModifiers != modifiersEx) {
+      myPicker.reset();
+      root.addHit(transform, myPicker, modifiersEx);
+      myPickerRoot = root;
+      myPickerTransform = transform;
+      myPickerDisplayListVersion = displayListVersion;
+      myPickerScale = transform.getScale();
+      myPickerOriginX = originX;
+      myPickerOriginY = originY;
+      myPickerModifiers = modifiersEx;
+    }
     myPicker.find(transform.getSwingXDip(x), transform.getSwingYDip(y));
   }
 
+  /**
+   * Makes the next {@link #find} add the hit regions again. Needed when targets change the regions they add without the scene being
+   * changed, e.g. when a target is pressed or released.
+   */
+  public void invalidate() {
+    myPickerRoot = null;
+    myPickerTransform = null;
+  }
+
   @SuppressWarnings("FloatingPointEquality")  // The values are directly assigned with no math, so this should be fine.
   public void over(Object over, double dist) {
     if (over instanceof Target) {
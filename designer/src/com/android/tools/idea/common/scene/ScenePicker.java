@@ -17,14 +17,23 @@ package com.android.tools.idea.common.scene;
 
 import java.util.Arrays;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * This class provides efficient detection of many objects
+ * <p>
+ * When there are many objects, their bounding rectangles are bucketed into a uniform grid the first time {@link #find(int, int)} is
+ * called, and a search only looks at the objects overlapping the cell under the given location. The grid is dropped when objects are
+ * added or the picker is reset, and rebuilt on the next search.
  */
 public class ScenePicker {
   private final static int MAX_DATA_SIZE = 10;
   private final static int INITAL_OBJECT_STORE = 30;
   private final static double EPSILON = 0.00001;
+  // Below this number of objects, scanning all of them is cheaper than building the grid.
+  private final static int MIN_GRID_OBJECTS = 64;
+  private final static int MIN_GRID_CELL_SIZE = 32;
+  private final static int MAX_GRID_CELLS = 64 * 64;
   private double[] mObjectData = new double[100];
   private int mObjectDataUsed = 0;
   private int[] mObjectOffset = new int[INITAL_OBJECT_STORE];
@@ -33,6 +42,16 @@ public class ScenePicker {
   private Object[] mObjects = new Object[INITAL_OBJECT_STORE];
   HitElementListener mHitElementListener;
 
+  // Uniform grid over the bounding rectangles of the objects, valid while mGridCellStart is not null.
+  // The objects overlapping cell c are mGridObjects[mGridCellStart[c]] to mGridObjects[mGridCellStart[c + 1] - 1], in insertion order.
+  private int[] mGridCellStart;
+  private int[] mGridObjects = new int[0];
+  private int mGridX;
+  private int mGridY;
+  private int mGridCellSize;
+  private int mGridColumns;
+  private int mGridRows;
+
   private int mObjectCount = 0;
   private final static int OBJECT_LINE = 0;
   private final static int OBJECT_POINT = 1;
@@ -70,17 +89,97 @@ public class ScenePicker {
    * @param y location y
    */
   public void find(int x, int y) {
+    if (mObjectCount < MIN_GRID_OBJECTS) {
+      for (int i = 0; i < mObjectCount; i++) {
+        find(i, x, y);
+      }
+      return;
+    }
+
+    if (mGridCellStart == null) {
+      buildGrid();
+    }
+    int column = Math.floorDiv(x - mGridX, mGridCellSize);
+    int row = Math.floorDiv(y - mGridY, mGridCellSize);
+    if (column < 0 || row < 0 || column >= mGridColumns || row >= mGridRows) {
+      return;
+    }
+    int cell = row * mGridColumns + column;
+    for (int j = mGridCellStart[cell], end = mGridCellStart[cell + 1]; j < end; j++) {
+      find(mGridObjects[j], x, y);
+    }
+  }
+
+  private void find(int i, int x, int y) {
+    int p = i * 4;
+    int x1 = mRect[p++];
+    int y1 = mRect[p++];
+    int x2 = mRect[p++];
+    int y2 = mRect[p];
+    if (inRect(x, y, x1, y1, x2, y2)) {
+      SelectionEngine selector = myEngines[mTypes[i]];
+      if (selector.inRange(i, x, y)) {
+        mHitElementListener.over(mObjects[i], selector.distance());
+      }
+    }
+  }
+
+  /**
+   * Buckets the bounding rectangles of all the objects into a grid covering all of them, with cells large enough to keep the number of
+   * cells under {@link #MAX_GRID_CELLS}.
+   */
+  private void buildGrid() {
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
     for (int i = 0; i < mObjectCount; i++) {
       int p = i * 4;
-      int x1 = mRect[p++];
-      int y1 = mRect[p++];
-      int x2 = mRect[p++];
-      int y2 = mRect[p];
-      if (inRect(x, y, x1, y1, x2, y2)) {
-        SelectionEngine selector = myEngines[mTypes[i]];
-        if (selector.inRange(i, x, y)) {
-          mHitElementListener.over(mObjects[i], selector.distance());
-        }
+      minX = Math.min(minX, mRect[p]);
+      minY = Math.min(minY, mRect[p + 1]);
+      maxX = Math.max(maxX, mRect[p + 2]);
+      maxY = Math.max(maxY, mRect[p + 3]);
+    }
+    long width = (long)maxX - minX + 1;
+    long height = (long)maxY - minY + 1;
+    long cellSize = MIN_GRID_CELL_SIZE;
+    while (((width + cellSize - 1) / cellSize) * ((height + cellSize - 1) / cellSize) > MAX_GRID_CELLS) {
+      cellSize *= 2;
+    }
+    mGridX = minX;
+    mGridY = minY;
+    mGridCellSize = (int)cellSize;
+    mGridColumns = (int)((width + cellSize - 1) / cellSize);
+    mGridRows = (int)((height + cellSize - 1) / cellSize);
+
+    // First count the objects of every cell, then fill the cells in object order.
+    int[] cellStart = new int[mGridColumns * mGridRows + 1];
+    for (int i = 0; i < mObjectCount; i++) {
+      forEachCell(i, cell -> cellStart[cell + 1]++);
+    }
+    for (int cell = 1; cell < cellStart.length; cell++) {
+      cellStart[cell] += cellStart[cell - 1];
+    }
+    if (mGridObjects.length < cellStart[cellStart.length - 1]) {
+      mGridObjects = new int[cellStart[cellStart.length - 1]];
+    }
+    int[] next = Arrays.copyOf(cellStart, cellStart.length - 1);
+    for (int i = 0; i < mObjectCount; i++) {
+      int object = i;
+      forEachCell(i, cell -> mGridObjects[next[cell]++] = object);
+    }
+    mGridCellStart = cellStart;
+  }
+
+  private void forEachCell(int i, IntConsumer consumer) {
+    int p = i * 4;
+    int column1 = (mRect[p] - mGridX) / mGridCellSize;
+    int row1 = (mRect[p + 1] - mGridY) / mGridCellSize;
+    int column2 = (mRect[p + 2] - mGridX) / mGridCellSize;
+    int row2 = (mRect[p + 3] - mGridY) / mGridCellSize;
+    for (int row = row1; row <= row2; row++) {
+      for (int column = column1; column <= column2; column++) {
+        consumer.accept(row * mGridColumns + column);
       }
     }
   }
@@ -124,6 +223,7 @@ public class ScenePicker {
   public void reset() {
     mObjectCount = 0;
     mObjectDataUsed = 0;
+    mGridCellStart = null;
     Arrays.fill(mObjects, null);// delete references
   }
 
@@ -131,6 +231,8 @@ public class ScenePicker {
    * resize tables as the number of objects grow
    */
   private void resizeTables() {
+    // Every call is followed by the addition of an object.
+    mGridCellStart = null;
     if (mObjectDataUsed > mObjectData.length - MAX_DATA_SIZE) {
       mObjectData = Arrays.copyOf(mObjectData, mObjectData.length * 2);
     }
@@ -48,10 +48,16 @@ public class DisplayList {
   private final static boolean DEBUG = false;
   private ArrayList<DrawCommand> myCommands = new ArrayList<>();
   private Stack<UNClip> myUnClipStack = new Stack<>();
+  /**
+   * The commands nested by clip and sorted by level, as painted by {@link #paint(Graphics2D, SceneContext)}. Kept until the list changes,
+   * since the surface is often repainted without the display list being rebuilt.
+   */
+  @Nullable private CommandSet mySortedCommands;
 
   public void clear() {
     myCommands.clear();
     myUnClipStack.clear();
+    mySortedCommands = null;
   }
 
   public ArrayList<DrawCommand> getCommands() {
@@ -344,6 +350,7 @@ public class DisplayList {
 
   public void add(DrawCommand cmd) {
     myCommands.add(cmd);
+    mySortedCommands = null;
   }
 
   public void pushClip(@NotNull SceneContext context, @Nullable @AndroidDpCoordinate Rectangle r) {
@@ -356,7 +363,7 @@ public class DisplayList {
     int w = context.getSwingDimensionDip(r.width);
     int h = context.getSwingDimensionDip(r.height);
     Clip c = new Clip(l, t, w, h);
-    myCommands.add(c);
+    add(c);
     myUnClipStack.add(new UNClip(c));
   }
 
@@ -369,7 +376,7 @@ public class DisplayList {
       return false;
     }
     if (!(c instanceof EmptyUNClip)) {
-      myCommands.add(c);
+      add(c);
     }
     return true;
   }
@@ -379,7 +386,7 @@ public class DisplayList {
     int t = context.getSwingYDip(r.y);
     int w = context.getSwingDimensionDip(r.width);
     int h = context.getSwingDimensionDip(r.height);
-    myCommands.add(new Rect(l, t, w, h, color));
+    add(new Rect(l, t, w, h, color));
   }
 
   public void addRect(SceneContext context,
@@ -535,7 +542,21 @@ public class DisplayList {
     @SuppressWarnings("ForLoopReplaceableByForEach")
     @Override
     public void paint(Graphics2D g2, SceneContext sceneContext) {
-      for (int i = 0; i < myCommands.size(); i++) {
+      int first = 0;
+      if (!myCommands.isEmpty() && myCommands.get(0) instanceof Clip) {
+        // Everything up to the matching UNClip is clipped to the Clip's bounds. Skip it if that is outside the area being repainted.
+        Rectangle repaintBounds = g2.getClipBounds();
+        if (repaintBounds != null && !repaintBounds.intersects((Clip)myCommands.get(0))) {
+          first = myCommands.size();
+          for (int i = 1; i < myCommands.size(); i++) {
+            if (myCommands.get(i) instanceof UNClip) {
+              first = i + 1;
+              break;
+            }
+          }
+        }
+      }
+      for (int i = first; i < myCommands.size(); i++) {
         myCommands.get(i).paint(g2, sceneContext);
       }
     }
@@ -579,9 +600,13 @@ public class DisplayList {
       System.out.println("<");
     }
     Graphics2D g = (Graphics2D)g2.create();
-    DrawCommand[] array = myCommands.toArray(new DrawCommand[0]);
-    CommandSet set = new CommandSet(array, 0, array.length - 1);
-    set.sort();
+    CommandSet set = mySortedCommands;
+    if (set == null) {
+      DrawCommand[] array = myCommands.toArray(new DrawCommand[0]);
+      set = new CommandSet(array, 0, array.length - 1);
+      set.sort();
+      mySortedCommands = set;
+    }
     if (DEBUG) {
       set.print(">");
       System.out.println("-end-");
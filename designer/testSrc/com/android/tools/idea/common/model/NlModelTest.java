@@ -167,6 +167,29 @@ public class NlModelTest extends LayoutTestCase {
     assertThat(reference.getNamespace().getXmlNamespaceUri()).isEqualTo(ANDROID_URI);
   }
 
+  public void testFindViewByTagAfterSync() {
+    ModelBuilder modelBuilder = createDefaultModelBuilder(false);
+    NlModel model = modelBuilder.build();
+
+    NlComponent root = model.getComponents().get(0);
+    NlComponent textView = root.getChild(0);
+    NlComponent button = root.getChild(1);
+    XmlTag textViewTag = textView.getTagDeprecated();
+    assertThat(model.findViewByTag(textViewTag)).isSameAs(textView);
+    assertThat(root.findViewByTag(button.getTagDeprecated())).isSameAs(button);
+    assertThat(textView.findViewByTag(button.getTagDeprecated())).isNull();
+    assertThat(root.findViewsByTag(root.getTagDeprecated())).containsExactly(root);
+
+    // Remove first child
+    ComponentDescriptor parent = modelBuilder.findByPath(LINEAR_LAYOUT);
+    assertThat(parent).isNotNull();
+    parent.removeChild(modelBuilder.findByPath(LINEAR_LAYOUT, TEXT_VIEW));
+    modelBuilder.updateModel(model);
+
+    assertThat(model.findViewByTag(textViewTag)).isNull();
+    assertThat(model.findViewByTag(button.getTagDeprecated())).isSameAs(button);
+  }
+
   public void testRemoveLastChild() {
     ModelBuilder modelBuilder = createDefaultModelBuilder(false);
     NlModel model = modelBuilder.build();
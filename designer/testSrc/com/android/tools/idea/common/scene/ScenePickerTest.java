@@ -19,6 +19,10 @@ import junit.framework.TestCase;
 
 import java.awt.*;
 import java.awt.geom.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Test ScenePicker
@@ -303,6 +307,33 @@ public class ScenePickerTest extends TestCase {
     }
   }
 
+  public void testManyObjectsAreFoundInOrder() {
+    ScenePicker scenePicker = new ScenePicker();
+    scenePicker.reset();
+    for (int i = 0; i < 500; i++) {
+      scenePicker.addRect(i, 0, 20 * (i % 50), 20 * (i / 50), 20 * (i % 50) + 30, 20 * (i / 50) + 30);
+    }
+    List<Object> found = new ArrayList<>();
+    scenePicker.setSelectListener((obj, dist) -> found.add(obj));
+
+    scenePicker.find(25, 25);
+    assertEquals(Arrays.asList(0, 1, 50, 51), found);
+
+    found.clear();
+    scenePicker.find(-100, 5000);
+    assertTrue(found.isEmpty());
+
+    // Objects added after a search are found by the next one.
+    scenePicker.addRect(500, 0, -200, 4900, -50, 5100);
+    scenePicker.addLine(501, 5, 0, 0, 1000, 0, 1);
+    found.clear();
+    scenePicker.find(-100, 5000);
+    assertEquals(Collections.singletonList(500), found);
+    found.clear();
+    scenePicker.find(25, 2);
+    assertEquals(Arrays.asList(0, 1, 501), found);
+  }
+
   public void testEllipseCode() {
     ScenePicker scenePicker = new ScenePicker() {
       {
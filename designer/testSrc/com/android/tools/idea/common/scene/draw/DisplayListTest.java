@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.common.scene.draw;
+
+import static org.junit.Assert.assertEquals;
+
+import com.android.tools.idea.common.scene.SceneContext;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class DisplayListTest {
+  private final List<String> myPainted = new ArrayList<>();
+
+  @Test
+  public void clippedCommandsOutsideOfRepaintAreaAreSkipped() {
+    SceneContext context = SceneContext.get();
+    DisplayList list = new DisplayList();
+    list.pushClip(context, new Rectangle(0, 0, 100, 100));
+    list.add(new RecordingCommand("background", DrawCommand.COMPONENT_LEVEL));
+    list.pushClip(context, new Rectangle(0, 0, 10, 10));
+    list.add(new RecordingCommand("inside1", DrawCommand.TARGET_LEVEL));
+    list.add(new RecordingCommand("post1", DrawCommand.POST_CLIP_LEVEL));
+    list.popClip();
+    list.pushClip(context, new Rectangle(50, 50, 10, 10));
+    list.add(new RecordingCommand("inside2", DrawCommand.TARGET_LEVEL));
+    list.popClip();
+    list.popClip();
+
+    paint(list, new Rectangle(0, 0, 100, 100));
+    assertEquals(Arrays.asList("background", "inside1", "post1", "inside2"), myPainted);
+
+    myPainted.clear();
+    paint(list, new Rectangle(40, 40, 30, 30));
+    assertEquals(Arrays.asList("background", "post1", "inside2"), myPainted);
+  }
+
+  @Test
+  public void sortedCommandsAreUpdatedWhenListChanges() {
+    DisplayList list = new DisplayList();
+    list.add(new RecordingCommand("top", DrawCommand.TOP_LEVEL));
+    list.add(new RecordingCommand("component", DrawCommand.COMPONENT_LEVEL));
+    paint(list, new Rectangle(0, 0, 100, 100));
+    paint(list, new Rectangle(0, 0, 100, 100));
+    assertEquals(Arrays.asList("component", "top", "component", "top"), myPainted);
+
+    myPainted.clear();
+    list.add(new RecordingCommand("connection", DrawCommand.CONNECTION_LEVEL));
+    paint(list, new Rectangle(0, 0, 100, 100));
+    assertEquals(Arrays.asList("connection", "component", "top"), myPainted);
+
+    myPainted.clear();
+    list.clear();
+    list.add(new RecordingCommand("target", DrawCommand.TARGET_LEVEL));
+    paint(list, new Rectangle(0, 0, 100, 100));
+    assertEquals(Arrays.asList("target"), myPainted);
+  }
+
+  private static void paint(DisplayList list, Rectangle repaintBounds) {
+    BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    g.setClip(repaintBounds);
+    list.paint(g, SceneContext.get());
+    g.dispose();
+  }
+
+  private class RecordingCommand implements DrawCommand {
+    private final String myName;
+    private final int myLevel;
+
+    RecordingCommand(String name, int level) {
+      myName = name;
+      myLevel = level;
+    }
+
+    @Override
+    public int getLevel() {
+      return myLevel;
+    }
+
+    @Override
+    public void paint(Graphics2D g, SceneContext sceneContext) {
+      myPainted.add(myName);
+    }
+
+    @Override
+    public String serialize() {
+      return myName;
+    }
+  }
+}
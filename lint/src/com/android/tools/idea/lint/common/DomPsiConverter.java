@@ -25,6 +25,7 @@ import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -42,6 +43,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Attr;
@@ -87,13 +90,21 @@ public final class DomPsiConverter {
    */
   @Nullable
   public static Document convert(@NotNull XmlFile xmlFile) {
+    return convert(xmlFile, DomPsiConverter::convert);
+  }
+
+  /**
+   * Same as {@link #convert(XmlFile)}, but lets the caller provide the DOM tree for the {@link XmlDocument}, e.g. from a cache.
+   */
+  @Nullable
+  static Document convert(@NotNull XmlFile xmlFile, @NotNull Function<XmlDocument, Document> converter) {
     try {
       XmlDocument xmlDocument = xmlFile.getDocument();
       if (xmlDocument == null) {
         return null;
       }
 
-      return convert(xmlDocument);
+      return converter.apply(xmlDocument);
     }
     catch (ProcessCanceledException e) {
       // Ignore: common occurrence, e.g. we're running lint as part of an editor background
@@ -120,7 +131,44 @@ public final class DomPsiConverter {
    */
   @NotNull
   private static Document convert(@NotNull XmlDocument document) {
-    return new DomDocument(document);
+    return new DomDocument(document, false);
+  }
+
+  /**
+   * Creates a DOM tree for the given {@link XmlDocument} which is meant to be kept around across lint runs. The tree remembers which
+   * elements it has materialized so that {@link #invalidate(Document, PsiElement)} can drop just the parts touched by an edit.
+   */
+  @NotNull
+  static Document createCachedDocument(@NotNull XmlDocument document) {
+    return new DomDocument(document, true);
+  }
+
+  /**
+   * Returns true if the given cached DOM tree still wraps the given (valid) {@link XmlDocument}.
+   */
+  static boolean isUpToDate(@NotNull Document document, @NotNull XmlDocument xmlDocument) {
+    return document instanceof DomDocument && ((DomDocument)document).myPsiDocument == xmlDocument && xmlDocument.isValid();
+  }
+
+  /**
+   * Drops the materialized DOM nodes below the element corresponding to {@code changedParent}, the parent PSI element of a change.
+   * The nodes are recreated from PSI the next time they are visited. Passing null drops the whole tree.
+   */
+  static void invalidate(@NotNull Document document, @Nullable PsiElement changedParent) {
+    if (!(document instanceof DomDocument)) {
+      return;
+    }
+    DomDocument domDocument = (DomDocument)document;
+    XmlTag tag = PsiTreeUtil.getParentOfType(changedParent, XmlTag.class, false);
+    if (tag == null) {
+      domDocument.reset();
+      return;
+    }
+    DomElement element = domDocument.findMaterialized(tag);
+    if (element != null) {
+      element.reset();
+    }
+    // Otherwise the DOM nodes for the changed tag have not been created yet, so there is nothing to drop.
   }
 
   @Nullable
@@ -433,9 +481,33 @@ public final class DomPsiConverter {
       return myParent;
     }
 
+    /**
+     * Forgets the materialized children (and, for elements, attributes) of this node so that they are recreated from PSI on next access.
+     */
+    synchronized void reset() {
+      DomNodeList children = myChildren;
+      myChildren = null;
+      if (children != null) {
+        for (DomNode child : children.myChildren) {
+          child.unregister();
+        }
+      }
+    }
+
+    /**
+     * Removes this node and its materialized descendants from the element map of a cached document.
+     */
+    synchronized void unregister() {
+      if (myChildren != null) {
+        for (DomNode child : myChildren.myChildren) {
+          child.unregister();
+        }
+      }
+    }
+
     @NotNull
     @Override
-    public DomNodeList getChildNodes() {
+    public synchronized DomNodeList getChildNodes() {
       if (myChildren == null) {
         PsiElement[] children = myElement.getChildren();
         if (children.length > 0) {
@@ -698,10 +770,39 @@ public final class DomPsiConverter {
   private static final class DomDocument extends DomNode implements Document {
     @NotNull private final XmlDocument myPsiDocument;
     @Nullable private DomElement myRoot;
+    /** The materialized elements of a cached document, used to find the nodes to drop when PSI changes; null otherwise. */
+    @Nullable private final Map<XmlTag, DomElement> myElements;
 
-    private DomDocument(@NotNull XmlDocument document) {
+    private DomDocument(@NotNull XmlDocument document, boolean cached) {
       super(null, null, document);
       myPsiDocument = document;
+      myElements = cached ? new ConcurrentHashMap<>() : null;
+    }
+
+    void register(@NotNull DomElement element) {
+      if (myElements != null) {
+        myElements.put(element.myTag, element);
+      }
+    }
+
+    void unregister(@NotNull DomElement element) {
+      if (myElements != null) {
+        myElements.remove(element.myTag, element);
+      }
+    }
+
+    @Nullable
+    DomElement findMaterialized(@NotNull XmlTag tag) {
+      return myElements != null ? myElements.get(tag) : null;
+    }
+
+    @Override
+    synchronized void reset() {
+      myRoot = null;
+      myChildren = null;
+      if (myElements != null) {
+        myElements.clear();
+      }
     }
 
     // From org.w3c.dom.Node:
@@ -725,7 +826,7 @@ public final class DomPsiConverter {
 
     @NotNull
     @Override
-    public DomNodeList getChildNodes() {
+    public synchronized DomNodeList getChildNodes() {
       if (myChildren == null) {
         DomNodeList list = new DomNodeList();
         myChildren = list;
@@ -760,7 +861,7 @@ public final class DomPsiConverter {
 
     @Nullable
     @Override
-    public Element getDocumentElement() {
+    public synchronized Element getDocumentElement() {
       if (myRoot == null) {
         XmlTag rootTag = myPsiDocument.getRootTag();
         if (rootTag == null) {
@@ -944,6 +1045,19 @@ public final class DomPsiConverter {
     private DomElement(@NotNull Document owner, @NotNull DomNode parent, @NotNull XmlTag tag) {
       super(owner, parent, tag);
       myTag = tag;
+      ((DomDocument)owner).register(this);
+    }
+
+    @Override
+    synchronized void reset() {
+      super.reset();
+      myAttributes = null;
+    }
+
+    @Override
+    synchronized void unregister() {
+      super.unregister();
+      ((DomDocument)myOwner).unregister(this);
     }
 
     // From org.w3c.dom.Node:
@@ -982,7 +1096,11 @@ public final class DomPsiConverter {
       if (!application.isReadAccessAllowed()) {
         return application.runReadAction((Computable<NamedNodeMap>)this::getAttributes);
       }
+      return getAttributesInReadAction();
+    }
 
+    @NotNull
+    private synchronized NamedNodeMap getAttributesInReadAction() {
       if (myAttributes == null) {
         XmlAttribute[] attributes = myTag.getAttributes();
         if (attributes.length == 0) {
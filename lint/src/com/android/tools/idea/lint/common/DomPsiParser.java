@@ -23,6 +23,7 @@ import com.android.tools.lint.detector.api.Position;
 import com.android.tools.lint.detector.api.XmlContext;
 import com.android.utils.PositionXmlParser;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.TextRange;
@@ -82,7 +83,10 @@ class DomPsiParser extends XmlParser {
     XmlFile xmlFile = (XmlFile)psiFile;
 
     try {
-      return DomPsiConverter.convert(xmlFile);
+      return convert(xmlFile);
+    }
+    catch (ProcessCanceledException e) {
+      throw e;
     }
     catch (Throwable t) {
       myClient.log(t, "Failed converting PSI parse tree to DOM for file %1$s",
@@ -91,6 +95,14 @@ class DomPsiParser extends XmlParser {
     }
   }
 
+  @Nullable
+  private Document convert(@NonNull XmlFile xmlFile) {
+    if (myClient.isOnTheFly()) {
+      return LintDomCache.getInstance(xmlFile.getProject()).getDocument(xmlFile);
+    }
+    return DomPsiConverter.convert(xmlFile);
+  }
+
   @Override
   @Nullable
   public Document parseXml(@NonNull File file) {
@@ -114,7 +126,10 @@ class DomPsiParser extends XmlParser {
     XmlFile xmlFile = (XmlFile)psiFile;
 
     try {
-      return DomPsiConverter.convert(xmlFile);
+      return convert(xmlFile);
+    }
+    catch (ProcessCanceledException e) {
+      throw e;
     }
     catch (Throwable t) {
       myClient.log(t, null);
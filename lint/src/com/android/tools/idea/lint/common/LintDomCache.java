@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.idea.lint.common;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.reference.SoftReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+
+/**
+ * Keeps the DOM trees that lint builds on top of XML PSI alive between lint runs. Instead of wrapping the whole file again after every
+ * keystroke, PSI changes only drop the DOM nodes below the changed tag, and the rest of the tree is reused.
+ * <p>
+ * Only on-the-fly editor analysis uses this cache: batch runs visit every file once, and caching their trees would only keep the DOM of
+ * the whole project in memory.
+ */
+public final class LintDomCache implements Disposable {
+  private static final Key<SoftReference<Document>> CACHED_DOCUMENT_KEY = Key.create(LintDomCache.class.getName() + ".CACHED_DOCUMENT");
+
+  @NotNull
+  public static LintDomCache getInstance(@NotNull Project project) {
+    return project.getService(LintDomCache.class);
+  }
+
+  public LintDomCache(@NotNull Project project) {
+    PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        invalidate(event.getFile(), event.getParent());
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        invalidate(event.getFile(), event.getParent());
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        invalidate(event.getFile(), event.getParent());
+      }
+
+      @Override
+      public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+        invalidate(event.getFile(), event.getParent());
+      }
+
+      @Override
+      public void childMoved(@NotNull PsiTreeChangeEvent event) {
+        invalidate(event.getFile(), event.getOldParent());
+        invalidate(event.getFile(), event.getNewParent());
+      }
+
+      @Override
+      public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+        PsiElement element = event.getElement();
+        if (element instanceof XmlFile) {
+          element.putUserData(CACHED_DOCUMENT_KEY, null);
+        }
+      }
+    }, this);
+  }
+
+  /**
+   * Returns a DOM tree for the given file, reusing the one built for a previous lint run if the file has not been reparsed since.
+   * The tree is only softly reachable from the file, so that the trees of files that are no longer being edited can be collected.
+   */
+  @Nullable
+  public Document getDocument(@NotNull XmlFile xmlFile) {
+    if (!xmlFile.isPhysical() || xmlFile.getVirtualFile() == null) {
+      // Nothing will tell us about changes to the file, so don't hold on to the tree.
+      return DomPsiConverter.convert(xmlFile);
+    }
+
+    return DomPsiConverter.convert(xmlFile, xmlDocument -> {
+      Document document = getCachedDocument(xmlFile);
+      if (document == null || !DomPsiConverter.isUpToDate(document, xmlDocument)) {
+        document = DomPsiConverter.createCachedDocument(xmlDocument);
+        xmlFile.putUserData(CACHED_DOCUMENT_KEY, new SoftReference<>(document));
+      }
+      return document;
+    });
+  }
+
+  @Nullable
+  private static Document getCachedDocument(@NotNull PsiFile file) {
+    return SoftReference.dereference(file.getUserData(CACHED_DOCUMENT_KEY));
+  }
+
+  private static void invalidate(@Nullable PsiFile file, @Nullable PsiElement parent) {
+    if (!(file instanceof XmlFile)) {
+      return;
+    }
+    Document document = getCachedDocument(file);
+    if (document != null) {
+      DomPsiConverter.invalidate(document, parent);
+    }
+  }
+
+  @Override
+  public void dispose() {
+  }
+}
@@ -39,10 +39,14 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
 import com.intellij.openapi.module.ModuleUtilCore;
 import com.intellij.openapi.module.impl.scopes.ModuleWithDependenciesScope;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.SensitiveProgressWrapper;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.progress.util.ProgressWrapper;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -52,20 +56,26 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.LocalSearchScope;
 import com.intellij.psi.search.SearchScope;
 import com.intellij.testFramework.LightVirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class LintGlobalInspectionContext implements GlobalInspectionContextExtension<LintGlobalInspectionContext> {
+  private static final Logger LOG = Logger.getInstance(LintGlobalInspectionContext.class);
   static final Key<LintGlobalInspectionContext> ID = Key.create("LintGlobalInspectionContext");
   private Map<Issue, Map<File, List<LintProblemData>>> myResults;
   private LintBaseline myBaseline;
@@ -252,12 +262,9 @@ public class LintGlobalInspectionContext implements GlobalInspectionContextExten
       }
     }
 
-    LintRequest request = new LintIdeRequest(client, project, files, modules, false);
-    request.setScope(lintScope);
-    final LintDriver lint = new LintDriver(LintIdeIssueRegistry.get(), client, request);
-
     // Baseline analysis?
     myBaseline = null;
+    File baselineFile = null;
     Module severityModule = null;
     for (Module module : modules) {
       if (severityModule == null) {
@@ -265,7 +272,7 @@ public class LintGlobalInspectionContext implements GlobalInspectionContextExten
           severityModule = module;
         }
       }
-      File baselineFile = ideSupport.getBaselineFile(module);
+      baselineFile = ideSupport.getBaselineFile(module);
       if (baselineFile != null && !AndroidLintLintBaselineInspection.ourSkipBaselineNextRun) {
         if (!baselineFile.isAbsolute()) {
           String path = module.getProject().getBasePath();
@@ -273,6 +280,28 @@ public class LintGlobalInspectionContext implements GlobalInspectionContextExten
             baselineFile = new File(FileUtil.toSystemDependentName(path), baselineFile.getPath());
           }
         }
+        break;
+      }
+      baselineFile = null;
+    }
+
+    // Every partition filters against its own copy of the baseline, so a baseline that is about to be (re)written needs a single driver
+    boolean updatingBaseline =
+      baselineFile != null && (!baselineFile.isFile() || AndroidLintLintBaselineInspection.ourUpdateBaselineNextRun);
+    List<List<Module>> partitions = files == null && !updatingBaseline && ideSupport.canAnalyzeInParallel(project)
+                                    ? partitionModules(project, modules)
+                                    : Collections.singletonList(modules);
+
+    final List<LintDriver> drivers;
+    if (partitions.size() > 1) {
+      drivers = analyzePartitions(project, partitions, scope, issues, lintScope, baselineFile, problemMap);
+    }
+    else {
+      LintRequest request = new LintIdeRequest(client, project, files, modules, false);
+      request.setScope(lintScope);
+      LintDriver lint = new LintDriver(LintIdeIssueRegistry.get(), client, request);
+
+      if (baselineFile != null) {
         myBaseline = new LintBaseline(client, baselineFile);
         lint.setBaseline(myBaseline);
         if (!baselineFile.isFile()) {
@@ -282,11 +311,11 @@ public class LintGlobalInspectionContext implements GlobalInspectionContextExten
           myBaseline.setRemoveFixed(true);
           myBaseline.setWriteOnClose(true);
         }
-        break;
       }
-    }
 
-    lint.analyze();
+      lint.analyze();
+      drivers = Collections.singletonList(lint);
+    }
 
     // Running all detectors? Then add dynamically registered detectors too.
     if (!runningSingleInspection) {
@@ -324,11 +353,141 @@ public class LintGlobalInspectionContext implements GlobalInspectionContextExten
     }
 
     AndroidLintLintBaselineInspection.clearNextRunState();
-    lint.setAnalysisStartTime(startTime);
-    ideSupport.logSession(lint, severityModule, lintResult);
+    for (LintDriver lint : drivers) {
+      lint.setAnalysisStartTime(startTime);
+    }
+    ideSupport.logSession(drivers, severityModule, lintResult);
     myResults = problemMap;
   }
 
+  /**
+   * Splits the given modules into groups such that modules that depend on each other, directly or through other modules of the project,
+   * end up in the same group. Lint can analyze each group on its own without analyzing any module twice. The groups, and the modules
+   * within each group, keep the order of the given list.
+   */
+  @NotNull
+  static List<List<Module>> partitionModules(@NotNull Project project, @NotNull List<Module> modules) {
+    Map<Module, Module> parents = new HashMap<>();
+    ReadAction.run(() -> {
+      for (Module module : ModuleManager.getInstance(project).getModules()) {
+        for (Module dependency : ModuleRootManager.getInstance(module).getDependencies(true)) {
+          Module root = findRoot(parents, module);
+          Module dependencyRoot = findRoot(parents, dependency);
+          if (root != dependencyRoot) {
+            parents.put(dependencyRoot, root);
+          }
+        }
+      }
+    });
+
+    Map<Module, List<Module>> partitions = new LinkedHashMap<>();
+    for (Module module : modules) {
+      partitions.computeIfAbsent(findRoot(parents, module), root -> new ArrayList<>()).add(module);
+    }
+    return new ArrayList<>(partitions.values());
+  }
+
+  @NotNull
+  private static Module findRoot(@NotNull Map<Module, Module> parents, @NotNull Module module) {
+    Module root = module;
+    Module parent;
+    while ((parent = parents.get(root)) != null) {
+      root = parent;
+    }
+    if (root != module) {
+      parents.put(module, root);
+    }
+    return root;
+  }
+
+  /**
+   * Runs a separate lint driver for each of the given module groups on a pooled thread, and merges the problems they find into
+   * {@code problemMap} in the order of the groups, so that the result does not depend on which group finishes first.
+   *
+   * @return the drivers of the groups, used for logging the session
+   */
+  @NotNull
+  private static List<LintDriver> analyzePartitions(@NotNull Project project,
+                                              @NotNull List<List<Module>> partitions,
+                                              @NotNull AnalysisScope scope,
+                                              @NotNull Set<Issue> issues,
+                                              @Nullable EnumSet<Scope> lintScope,
+                                              @Nullable File baselineFile,
+                                              @NotNull Map<Issue, Map<File, List<LintProblemData>>> problemMap) {
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    int threads = Math.min(partitions.size(), Runtime.getRuntime().availableProcessors());
+    ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Android Lint", threads);
+    List<Future<LintPartitionResult>> futures = new ArrayList<>(partitions.size());
+    try {
+      for (List<Module> partition : partitions) {
+        futures.add(executor.submit(() -> ProgressManager.getInstance().runProcess(
+          () -> analyzePartition(project, partition, scope, issues, lintScope, baselineFile),
+          indicator != null ? new SensitiveProgressWrapper(indicator) : new EmptyProgressIndicator())));
+      }
+
+      List<LintDriver> drivers = new ArrayList<>(futures.size());
+      for (Future<LintPartitionResult> future : futures) {
+        LintPartitionResult result = ProgressIndicatorUtils.awaitWithCheckCanceled(future);
+        drivers.add(result.driver);
+        for (Map.Entry<Issue, Map<File, List<LintProblemData>>> entry : result.problemMap.entrySet()) {
+          Map<File, List<LintProblemData>> file2ProblemList = problemMap.computeIfAbsent(entry.getKey(), issue -> new HashMap<>());
+          for (Map.Entry<File, List<LintProblemData>> fileEntry : entry.getValue().entrySet()) {
+            file2ProblemList.computeIfAbsent(fileEntry.getKey(), file -> new ArrayList<>()).addAll(fileEntry.getValue());
+          }
+        }
+      }
+      return drivers;
+    }
+    finally {
+      for (Future<LintPartitionResult> future : futures) {
+        future.cancel(true);
+      }
+      executor.shutdown();
+    }
+  }
+
+  @NotNull
+  private static LintPartitionResult analyzePartition(@NotNull Project project,
+                                                      @NotNull List<Module> modules,
+                                                      @NotNull AnalysisScope scope,
+                                                      @NotNull Set<Issue> issues,
+                                                      @Nullable EnumSet<Scope> lintScope,
+                                                      @Nullable File baselineFile) {
+    long startTime = System.currentTimeMillis();
+    Map<Issue, Map<File, List<LintProblemData>>> problemMap = new HashMap<>();
+    LintIdeClient client = LintIdeSupport.get().createBatchClient(new LintBatchResult(project, problemMap, scope, issues));
+    LintRequest request = new LintIdeRequest(client, project, null, modules, false);
+    request.setScope(lintScope);
+    LintDriver lint = new LintDriver(LintIdeIssueRegistry.get(), client, request);
+    if (baselineFile != null) {
+      lint.setBaseline(new LintBaseline(client, baselineFile));
+    }
+    lint.analyze();
+    lint.setAnalysisStartTime(startTime);
+
+    if (LOG.isDebugEnabled()) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("Analyzed ").append(modules.size()).append(" module(s) starting with ").append(modules.get(0).getName())
+        .append(" in ").append(System.currentTimeMillis() - startTime).append(" ms");
+      problemMap.entrySet().stream()
+        .sorted(Comparator.comparing(entry -> entry.getKey().getId()))
+        .forEach(entry -> sb.append("\n  ").append(entry.getKey().getId()).append(": ")
+          .append(entry.getValue().values().stream().mapToInt(List::size).sum()).append(" problem(s)"));
+      LOG.debug(sb.toString());
+    }
+    return new LintPartitionResult(lint, problemMap);
+  }
+
+  private static final class LintPartitionResult {
+    @NotNull final LintDriver driver;
+    @NotNull final Map<Issue, Map<File, List<LintProblemData>>> problemMap;
+
+    private LintPartitionResult(@NotNull LintDriver driver, @NotNull Map<Issue, Map<File, List<LintProblemData>>> problemMap) {
+      this.driver = driver;
+      this.problemMap = problemMap;
+    }
+  }
+
   @Nullable
   public Map<Issue, Map<File, List<LintProblemData>>> getResults() {
     return myResults;
@@ -117,6 +117,13 @@ public class LintIdeClient extends LintClient implements Disposable {
     return ApiLookup.get(LintIdeSupport.get().createClient(project, new LintIgnoredResult()));
   }
 
+  /**
+   * Returns true if this client runs lint on the file open in the editor, as opposed to a batch inspection run.
+   */
+  public boolean isOnTheFly() {
+    return myLintResult instanceof LintEditorResult;
+  }
+
   @Override
   public void runReadAction(@NonNull Runnable runnable) {
     // We only do this while running in the editor
@@ -102,6 +102,12 @@ abstract class LintIdeSupport {
     return true
   }
 
+  /**
+   * Whether batch analysis of the given project may split the modules into groups that do not depend on each other
+   * and analyze the groups concurrently
+   */
+  open fun canAnalyzeInParallel(project: Project): Boolean = false
+
   // Creating projects
   /** Creates a set of projects for the given IntelliJ modules */
   open fun createProject(client: LintIdeClient,
@@ -150,7 +156,8 @@ abstract class LintIdeSupport {
   // Editor session
   open fun logSession(lint: LintDriver, lintResult: LintEditorResult) {}
 
-  open fun logSession(lint: LintDriver, module: Module?, lintResult: LintBatchResult) {}
+  /** Logs a batch run, which may have analyzed independent groups of modules with a driver each. */
+  open fun logSession(drivers: List<LintDriver>, module: Module?, lintResult: LintBatchResult) {}
 
   // XML processing
   open fun ensureNamespaceImported(file: XmlFile, namespaceUri: String, suggestedPrefix: String?): String = ""
@@ -21,9 +21,11 @@ import com.android.ide.common.xml.XmlPrettyPrinter;
 import com.android.utils.XmlUtils;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
 import com.intellij.testFramework.UsefulTestCase;
 import com.intellij.testFramework.fixtures.IdeaProjectTestFixture;
 import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
@@ -136,4 +138,28 @@ public class DomPsiConverterTest extends UsefulTestCase {
     assertEquals(1, elementsByTagName.getLength());
     assertEquals("@drawable/icon", elementsByTagName.item(0).getAttributes().getNamedItemNS(ANDROID_URI, "icon").getNodeValue());
   }
+
+  public void testCachedDocument() {
+    XmlFile xmlFile = (XmlFile)myFixture.configureByText("AndroidManifest.xml", MANIFEST);
+    LintDomCache cache = LintDomCache.getInstance(getProject());
+    Document domDocument = ReadAction.compute(() -> cache.getDocument(xmlFile));
+    assertNotNull(domDocument);
+    assertSame(domDocument, ReadAction.compute(() -> cache.getDocument(xmlFile)));
+    assertEquals("@drawable/icon", domDocument.getElementsByTagName("application").item(0).getAttributes()
+      .getNamedItemNS(ANDROID_URI, "icon").getNodeValue());
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      XmlTag application = xmlFile.getRootTag().findFirstSubTag("application");
+      application.setAttribute("label", ANDROID_URI, "@string/app_name");
+      application.add(application.createChildTag("activity", "", null, false));
+    });
+
+    Document updated = ReadAction.compute(() -> cache.getDocument(xmlFile));
+    assertSame(domDocument, updated);
+    String expected = XmlPrettyPrinter.prettyPrint(XmlUtils.parseDocumentSilently(xmlFile.getText(), true), true);
+    assertEquals(expected, ReadAction.compute(() -> XmlPrettyPrinter.prettyPrint(updated, true)));
+    NodeList applications = updated.getElementsByTagName("application");
+    assertEquals("@string/app_name", applications.item(0).getAttributes().getNamedItemNS(ANDROID_URI, "label").getNodeValue());
+    assertEquals(1, updated.getElementsByTagName("activity").getLength());
+  }
 }
@@ -15,8 +15,10 @@
  */
 package com.android.tools.nativeSymbolizer
 
+import com.google.common.annotations.VisibleForTesting
 import com.intellij.openapi.Disposable
 import java.io.*
+import java.util.Collections
 import java.util.concurrent.*
 
 /**
@@ -42,49 +44,96 @@ class LlvmSymbolizer(private val symbolizerExe: String,
   private var procHolder : ProcessHolder? = null
   private val executor : ExecutorService = Executors.newSingleThreadExecutor()
 
-  override fun symbolize(abiArch: String, module: String, offset: Long): Symbol? {
-    val symFiles = symLocator.findSymbolFiles(abiArch, module)
+  /**
+   * Symbols already obtained from llvm-symbolizer, by offset, for each symbol file and module. The same offsets of the same modules are
+   * requested over and over again when symbolizing recorded stacks, so they are kept for as long as their symbol file is not rebuilt.
+   * Only the symbols of the [MAX_CACHED_SYMBOL_FILES] most recently used symbol files are kept.
+   */
+  private val symbolCache: MutableMap<SymbolFileKey, MutableMap<Long, CachedSymbol>> = Collections.synchronizedMap(
+    object : LinkedHashMap<SymbolFileKey, MutableMap<Long, CachedSymbol>>(16, 0.75f, true) {
+      override fun removeEldestEntry(eldest: MutableMap.MutableEntry<SymbolFileKey, MutableMap<Long, CachedSymbol>>): Boolean =
+        size > MAX_CACHED_SYMBOL_FILES
+    })
+
+  override fun symbolize(abiArch: String, module: String, offset: Long): Symbol? = symbolize(abiArch, module, listOf(offset)).first()
+
+  override fun symbolize(abiArch: String, module: String, offsets: List<Long>): List<Symbol?> {
+    val result = arrayOfNulls<Symbol>(offsets.size)
+    var unresolved = offsets.indices.toList()
+
+    for (symFile in symLocator.findSymbolFiles(abiArch, module)) {
+      if (unresolved.isEmpty())
+        break
+      val symbols = getCachedSymbols(symFile, module)
+      val missingOffsets = unresolved.map { offsets[it] }.distinct().filter { !symbols.containsKey(it) }
+      if (missingOffsets.isNotEmpty()) {
+        requestSymbols(symFile, missingOffsets)?.forEachIndexed { i, response ->
+          symbols[missingOffsets[i]] = CachedSymbol(parseResponse(response, module))
+        }
+      }
+
+      unresolved = unresolved.filter { i ->
+        result[i] = symbols[offsets[i]]?.symbol
+        result[i] == null
+      }
+    }
 
-    for (symFile in symFiles) {
-      val request = formatRequest(symFile, offset)
+    return result.asList()
+  }
 
+  private fun getCachedSymbols(symFile: File, module: String): MutableMap<Long, CachedSymbol> {
+    val key = SymbolFileKey(symFile.path, symFile.lastModified(), module)
+    synchronized(symbolCache) {
+      return symbolCache.getOrPut(key) { ConcurrentHashMap() }
+    }
+  }
+
+  /**
+   * Sends the requests for all the given offsets of a symbol file and returns the responses in the same order. Returns null if the
+   * communication with llvm-symbolizer failed.
+   */
+  @Throws(IOException::class)
+  private fun requestSymbols(symFile: File, offsets: List<Long>): List<List<String>>? {
+    val responses = mutableListOf<List<String>>()
+    // Each batch is sent as a single task, so that the timeout applies to the whole batch rather than to each request.
+    for (batch in offsets.chunked(MAX_REQUESTS_PER_BATCH)) {
+      // Started on the calling thread, so that a failure to start llvm-symbolizer is thrown to the caller.
       val holder = getProcHolder()
-      val future = executor.submit( Callable<List<String>> {
-        holder.stdin.write(request)
-        holder.stdin.flush()
-
-        val response: MutableList<String> = mutableListOf()
-        var responseLine: String?
-        while (true) {
-          responseLine = holder.stdout.readLine()
-          if (responseLine == null || responseLine.isEmpty()) {
-            break
+      val future = executor.submit( Callable<List<List<String>>> {
+        // Each response is read before the next request is written. Writing many requests ahead of reading their responses would fill
+        // the pipe buffers, which are only a few kilobytes on Windows, and leave both processes blocked on writing.
+        batch.map { offset ->
+          holder.stdin.write(formatRequest(symFile, offset))
+          holder.stdin.flush()
+
+          val response: MutableList<String> = mutableListOf()
+          var responseLine: String?
+          while (true) {
+            responseLine = holder.stdout.readLine()
+            if (responseLine == null || responseLine.isEmpty()) {
+              break
+            }
+            response.add(responseLine)
           }
-          response.add(responseLine)
+          response
         }
-        response
       })
-      val response : List<String>
       try {
-        response = future.get(timeoutMsc, TimeUnit.MILLISECONDS)
+        responses.addAll(future.get(timeoutMsc, TimeUnit.MILLISECONDS))
       } catch (e: TimeoutException) {
         getLogger().warn("llvm-symbolizer timed out", e)
         stop()
-        continue
+        return null
       } catch (e: ExecutionException) {
         getLogger().warn("llvm-symbolizer communication failed", e)
         stop()
-        continue
+        return null
       }
-
-      val result = parseResponse(response, module)
-      if (result != null)
-        return result
     }
-
-    return null
+    return responses
   }
 
+  @Synchronized
   private fun getProcHolder() : ProcessHolder {
     var holder = procHolder
     if (holder == null || !holder.process.isAlive) {
@@ -126,6 +175,7 @@ class LlvmSymbolizer(private val symbolizerExe: String,
     return Symbol(name, module, sourceFile, lineNumber)
   }
 
+  @Synchronized
   private fun start() {
     if (procHolder != null)
       stop()
@@ -141,11 +191,16 @@ class LlvmSymbolizer(private val symbolizerExe: String,
     procHolder = ProcessHolder(process, stdout, stdin)
   }
 
+  @Synchronized
   override fun stop() {
     procHolder?.dispose()
     procHolder = null
   }
 
+  private data class SymbolFileKey(val symFilePath: String, val symFileTimestamp: Long, val module: String)
+
+  private class CachedSymbol(val symbol: Symbol?)
+
   private class ProcessHolder(val process: Process,
                               val stdout: BufferedReader,
                               val stdin: OutputStreamWriter) : Disposable {
@@ -153,4 +208,9 @@ class LlvmSymbolizer(private val symbolizerExe: String,
       process.destroy()
     }
   }
-}
\ No newline at end of file
+}
+
+@VisibleForTesting
+internal const val MAX_REQUESTS_PER_BATCH = 64
+
+private const val MAX_CACHED_SYMBOL_FILES = 256
@@ -39,6 +39,18 @@ interface NativeSymbolizer {
    */
   @Throws(IOException::class)
   fun symbolize(abiArch: String, module: String, offset: Long): Symbol?
+
+  /**
+   * Obtains information about the functions (symbols) located at several offsets in a given module at once
+   * @param abiArch - CPU architecture of a give module (e.g x86, arm, arm64 and so on)
+   * @param module - path to a native module (on the device or host)
+   * @param offsets - offsets in the native module that need to be symbolized
+   * @return symbols info for each of the offsets, in the same order, with null for the ones which can't be found
+   */
+  @JvmDefault
+  @Throws(IOException::class)
+  fun symbolize(abiArch: String, module: String, offsets: List<Long>): List<Symbol?> = offsets.map { symbolize(abiArch, module, it) }
+
   fun stop()
 }
 
@@ -26,19 +26,31 @@ import com.intellij.openapi.module.ModuleManager
 import com.intellij.openapi.project.Project
 import java.io.File
 import java.util.*
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * Given a map of possible symbols locations finds symbol files
  * for a (device module + CPU arch) pairs.
  */
 class SymbolFilesLocator(private val cpuToSymbolDirs: Map<String, Set<File>>) {
+  /**
+   * Symbol files found by (CPU arch, module base name), with the timestamps of the directories they were looked up in. Adding or removing
+   * files changes the timestamp of their directory, so a lookup is only done again when one of the directories changed.
+   */
+  private val symbolFilesCache = ConcurrentHashMap<Pair<String, String>, CachedSymbolFiles>()
 
   fun findSymbolFiles(cpuArch: String, module: String): List<File> {
-    // TODO (ezemetsov): Add a cache
     // Just look in all dirs from the map and find files with the same
     // basename as a given device module.
     val symDirs = cpuToSymbolDirs.getOrDefault(cpuArch, setOf<File>()).toList()
     val baseModuleName = File(File(module).name).nameWithoutExtension
+    val dirTimestamps = symDirs.map { it.lastModified() }
+    val cacheKey = Pair(cpuArch, baseModuleName)
+    val cached = symbolFilesCache[cacheKey]
+    if (cached != null && cached.dirTimestamps == dirTimestamps) {
+      return cached.files
+    }
+
     val symNameCandidates = arrayListOf(baseModuleName + ".so", baseModuleName + ".dwo")
     val result = mutableListOf<File>()
     for (dir in symDirs) {
@@ -48,8 +60,11 @@ class SymbolFilesLocator(private val cpuToSymbolDirs: Map<String, Set<File>>) {
         result.addAll(files)
       }
     }
+    symbolFilesCache[cacheKey] = CachedSymbolFiles(dirTimestamps, result)
     return result
   }
+
+  private class CachedSymbolFiles(val dirTimestamps: List<Long>, val files: List<File>)
 }
 
 /**
@@ -23,7 +23,9 @@ import org.junit.Assume
 import org.junit.Test
 import java.io.File
 import java.io.IOException
+import java.nio.file.Files
 import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
 
 
 class LlvmSymbolizerTest {
@@ -168,6 +170,42 @@ class LlvmSymbolizerTest {
     Assert.assertNull(sym)
   }
 
+  @Test
+  fun testSymbolizeMoreOffsetsThanBatchSize() {
+    val module = "/path/to/device/modules/" + LIB_FILE_NAME
+    val expectedSymbolsFile = Paths.get(testDataDir, "arm64", EXPECTED_SYMBOLS_FILE_NAME).toFile()
+    val functionOffsets = expectedSymbolsFile.readLines().map { it.split('|')[0].toLong(16) + 1 }
+    // Distinct offsets within and between the functions, some repeated, spanning several batches.
+    val offsets = (0 until MAX_REQUESTS_PER_BATCH * 2 + 1).map { functionOffsets[it % functionOffsets.size] + it / functionOffsets.size } +
+                  functionOffsets
+
+    val expected = createSymbolizer().let { symbolizer -> offsets.map { symbolizer.symbolize("arm64", module, it) } }
+    val symbols = createSymbolizer().symbolize("arm64", module, offsets)
+    Assert.assertEquals(expected, symbols)
+    Assert.assertTrue(symbols.filterNotNull().map { it.name }.containsAll(expectedSymbolsFile.readLines().map { it.split('|')[1] }))
+  }
+
+  @Test
+  fun testSymbolsAreCached() {
+    Assume.assumeFalse(SystemInfo.isWindows) // The stopped process may still lock its executable
+    // Run a copy of llvm-symbolizer, deleted once the symbols were obtained, so that symbolizing again can't start it.
+    val exeDir = FileUtil.createTempDirectory("llvm-symbolizer", "cache-test", true)
+    val exe = File(exeDir, File(getLlvmSymbolizerPath()).name)
+    Files.copy(Paths.get(getLlvmSymbolizerPath()), exe.toPath(), StandardCopyOption.COPY_ATTRIBUTES)
+    val symbolizer = LlvmSymbolizer(exe.path, SymbolFilesLocator(getSymDirMap()))
+
+    val module = "/path/to/device/modules/" + LIB_FILE_NAME
+    val expectedSymbolsFile = Paths.get(testDataDir, "x86", EXPECTED_SYMBOLS_FILE_NAME).toFile()
+    val offsets = expectedSymbolsFile.readLines().map { it.split('|')[0].toLong(16) + 1 }
+    val symbols = symbolizer.symbolize("x86", module, offsets)
+    Assert.assertTrue(symbols.all { it != null })
+
+    symbolizer.stop()
+    Assert.assertTrue(FileUtil.delete(exe))
+    Assert.assertEquals(symbols, symbolizer.symbolize("x86", module, offsets))
+    Assert.assertEquals(symbols[0], symbolizer.symbolize("x86", module, offsets[0]))
+  }
+
   fun getSymDirMap(): Map<String, Set<File>> {
     val result: MutableMap<String, Set<File>> = hashMapOf()
     for (arch in architectures) {
@@ -21,7 +21,14 @@ import com.android.tools.profiler.proto.Memory.NativeCallStack;
 import com.android.tools.profilers.stacktrace.NativeFrameSymbolizer;
 import com.intellij.openapi.diagnostic.Logger;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Wrapper for {@link NativeSymbolizer} to return a NativeCallStack.NativeFrame instead of the Symbol class which profilers don't have a
@@ -44,15 +51,47 @@ public class IntelliJNativeFrameSymbolizer implements NativeFrameSymbolizer {
   @NotNull
   @Override
   public NativeCallStack.NativeFrame symbolize(String abi, NativeCallStack.NativeFrame unsymbolizedFrame) {
-    Symbol symbol = null;
-    long instructionOffset = getOffsetOfPreviousInstruction(unsymbolizedFrame.getModuleOffset());
-    try {
-      symbol = mySymbolizer.symbolize(abi, unsymbolizedFrame.getModuleName(), instructionOffset);
+    return symbolize(abi, Collections.singletonList(unsymbolizedFrame)).get(0);
+  }
+
+  @NotNull
+  @Override
+  public List<NativeCallStack.NativeFrame> symbolize(String abi, @NotNull List<NativeCallStack.NativeFrame> unsymbolizedFrames) {
+    // Symbolize the frames of each module with a single request.
+    Map<String, List<Integer>> frameIndexesByModule = new LinkedHashMap<>();
+    for (int i = 0; i < unsymbolizedFrames.size(); i++) {
+      frameIndexesByModule.computeIfAbsent(unsymbolizedFrames.get(i).getModuleName(), module -> new ArrayList<>()).add(i);
     }
-    catch (IOException | RuntimeException e) {
-      getLogger().warn(e);
+
+    NativeCallStack.NativeFrame[] symbolizedFrames = new NativeCallStack.NativeFrame[unsymbolizedFrames.size()];
+    for (Map.Entry<String, List<Integer>> entry : frameIndexesByModule.entrySet()) {
+      List<Integer> frameIndexes = entry.getValue();
+      List<Long> instructionOffsets = new ArrayList<>(frameIndexes.size());
+      for (int index : frameIndexes) {
+        instructionOffsets.add(getOffsetOfPreviousInstruction(unsymbolizedFrames.get(index).getModuleOffset()));
+      }
+
+      List<Symbol> symbols = null;
+      try {
+        symbols = mySymbolizer.symbolize(abi, entry.getKey(), instructionOffsets);
+      }
+      catch (IOException | RuntimeException e) {
+        getLogger().warn(e);
+      }
+
+      for (int i = 0; i < frameIndexes.size(); i++) {
+        int index = frameIndexes.get(i);
+        Symbol symbol = symbols == null ? null : symbols.get(i);
+        symbolizedFrames[index] = createSymbolizedFrame(unsymbolizedFrames.get(index), instructionOffsets.get(i), symbol);
+      }
     }
+    return Arrays.asList(symbolizedFrames);
+  }
 
+  @NotNull
+  private static NativeCallStack.NativeFrame createSymbolizedFrame(@NotNull NativeCallStack.NativeFrame unsymbolizedFrame,
+                                                                   long instructionOffset,
+                                                                   @Nullable Symbol symbol) {
     NativeCallStack.NativeFrame.Builder builder = unsymbolizedFrame.toBuilder();
     if (symbol == null) {
       String unfoundSymbolName = String.format("0x%x", instructionOffset);
@@ -67,7 +106,7 @@ public class IntelliJNativeFrameSymbolizer implements NativeFrameSymbolizer {
     return builder.build();
   }
 
-  private long getOffsetOfPreviousInstruction(long offset) {
+  private static long getOffsetOfPreviousInstruction(long offset) {
     // In non-bottom frames native backtrace contains addresses where the execution will
     // continue after a function call. After symbolization such addresses often resolved
     // to the source line immediately following the function call.
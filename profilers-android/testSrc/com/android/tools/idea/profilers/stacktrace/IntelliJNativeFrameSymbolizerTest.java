@@ -21,6 +21,9 @@ import static com.google.common.truth.Truth.assertThat;
 import com.android.tools.nativeSymbolizer.NativeSymbolizer;
 import com.android.tools.nativeSymbolizer.Symbol;
 import com.android.tools.profiler.proto.Memory.NativeCallStack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.Test;
@@ -58,7 +61,29 @@ public class IntelliJNativeFrameSymbolizerTest {
     assertThat(symbolizedFrame2).isEqualTo(expectedSymbolizedFrame2);
   }
 
+  @Test
+  public void testSymbolizeFramesOfEachModuleTogether() {
+    FakeNativeSymbolizer symbolizer = new FakeNativeSymbolizer();
+    IntelliJNativeFrameSymbolizer frameSymbolizer = new IntelliJNativeFrameSymbolizer(symbolizer);
+
+    List<NativeCallStack.NativeFrame> frames = Arrays.asList(
+      NativeCallStack.NativeFrame.newBuilder().setModuleName("test1").setModuleOffset(100).build(),
+      NativeCallStack.NativeFrame.newBuilder().setModuleName("test2").setModuleOffset(200).build(),
+      NativeCallStack.NativeFrame.newBuilder().setModuleName("test1").setModuleOffset(300).build());
+    List<NativeCallStack.NativeFrame> symbolizedFrames = frameSymbolizer.symbolize("arm", frames);
+
+    assertThat(symbolizer.myRequestCount).isEqualTo(2);
+    assertThat(symbolizedFrames).hasSize(3);
+    for (int i = 0; i < frames.size(); i++) {
+      assertThat(symbolizedFrames.get(i)).isEqualTo(frameSymbolizer.symbolize("arm", frames.get(i)));
+    }
+    assertThat(symbolizedFrames.get(2).getModuleName()).isEqualTo("test1_symbolized");
+    assertThat(symbolizedFrames.get(2).getLineNumber()).isEqualTo(1000 + 300 + PREVIOUS_INSTRUCTION_OFFSET);
+  }
+
   private static class FakeNativeSymbolizer implements NativeSymbolizer {
+    private int myRequestCount;
+
     @Nullable
     @Override
     public Symbol symbolize(@NotNull String abiArch, @NotNull String module, long offset) {
@@ -71,6 +96,17 @@ public class IntelliJNativeFrameSymbolizerTest {
       }
     }
 
+    @NotNull
+    @Override
+    public List<Symbol> symbolize(@NotNull String abiArch, @NotNull String module, @NotNull List<Long> offsets) {
+      myRequestCount++;
+      List<Symbol> symbols = new ArrayList<>();
+      for (long offset : offsets) {
+        symbols.add(symbolize(abiArch, module, offset));
+      }
+      return symbols;
+    }
+
     @Override
     public void stop() {
     }
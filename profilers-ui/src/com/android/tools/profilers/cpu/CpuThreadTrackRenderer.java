@@ -154,7 +154,8 @@ public class CpuThreadTrackRenderer implements TrackRenderer<CpuThreadTrackModel
         .setGlobalXRange(captureRange)
         .setOrientation(HTreeChart.Orientation.TOP_DOWN)
         .setRootVisible(false)
-        .setNodeSelectionEnabled(true);
+        .setNodeSelectionEnabled(true)
+        .setLevelOfDetailEnabled(true);
     if (isCollapsed) {
       builder.setCustomNodeHeightPx(1).setNodeYPaddingPx(0);
     }
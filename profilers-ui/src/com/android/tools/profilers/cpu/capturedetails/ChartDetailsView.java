@@ -97,6 +97,7 @@ public abstract class ChartDetailsView extends CaptureDetailsView {
       .setGlobalXRange(globalRange)
       .setOrientation(orientation)
       .setRootVisible(false)
+      .setLevelOfDetailEnabled(true)
       .build();
 
     if (node != null) {
@@ -26,6 +26,8 @@ import com.android.tools.adtui.model.axis.ResizingAxisComponentModel;
 import com.android.tools.adtui.model.formatter.TimeAxisFormatter;
 import com.android.tools.adtui.model.updater.Updatable;
 import com.android.tools.adtui.model.updater.Updater;
+import com.android.tools.idea.protobuf.ByteString;
+import com.android.tools.idea.protobuf.UnsafeByteOperations;
 import com.android.tools.idea.transport.poller.TransportEventPoller;
 import com.android.tools.profiler.proto.Commands;
 import com.android.tools.profiler.proto.Common;
@@ -71,9 +73,12 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -1012,4 +1017,24 @@ public class StudioProfilers extends AspectModel<ProfilerAspect> implements Upda
 
     return TimeUnit.MICROSECONDS.toNanos(fallbackTimesampMs);
   }
+
+  /**
+   * Returns the contents of an imported file. They are read straight into the array backing the returned {@link ByteString}, which is
+   * the only copy made, and the file is closed once read, so that it can be modified or deleted while the imported session is open.
+   * If the file shrinks while being read, only the bytes that could be read are returned.
+   */
+  @NotNull
+  public static ByteString readFileContents(@NotNull File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("File is too large to be imported: " + file.getPath());
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int)size);
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Keep reading until the buffer is full or the end of the file is reached.
+      }
+      return UnsafeByteOperations.unsafeWrap(buffer.array(), 0, buffer.position());
+    }
+  }
 }
@@ -31,9 +31,15 @@ import com.google.common.annotations.VisibleForTesting;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.text.StringUtil;
 import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -63,9 +69,33 @@ public class CpuCaptureParser {
   static final long IMPORTED_TRACE_ID = 42L;
 
   /**
-   * Maps a trace id to a corresponding {@link CompletableFuture<CpuCapture>}.
+   * Maximum total size, in bytes, of the traces of the parsed captures kept in memory. Parsed captures take a multiple of the size of their
+   * trace in memory, so the least recently used ones are dropped once the traces of the captures kept exceed this size. A dropped capture
+   * is parsed again from its trace, saved to disk when it was first parsed, the next time it is requested.
    */
-  private final Map<Long, CompletableFuture<CpuCapture>> myCaptures;
+  @VisibleForTesting
+  static final long MAX_CACHED_TRACES_SIZE = MAX_SUPPORTED_TRACE_SIZE;
+
+  /**
+   * File headers of the trace types that can be recognized before parsing an imported trace.
+   */
+  private static final byte[] ART_TEXT_HEADER = "*version".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ART_STREAMING_HEADER = "SLOW".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] SIMPLEPERF_HEADER = "SIMPLEPERF".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] ATRACE_HEADER = AtraceProducer.HEADER.toByteArray();
+
+  /**
+   * Maps a trace id to a corresponding {@link CompletableFuture<CpuCapture>}, in access order so the least recently used captures can be
+   * dropped first.
+   */
+  private final LinkedHashMap<Long, CompletableFuture<CpuCapture>> myCaptures;
+
+  /**
+   * Traces saved to disk while parsing them, by trace id. Used to parse the captures dropped from {@link #myCaptures} again.
+   */
+  private final Map<Long, SavedTrace> mySavedTraces = new ConcurrentHashMap<>();
+
+  private long myMaxCachedTracesSize = MAX_CACHED_TRACES_SIZE;
 
   /**
    * Services containing the {@link java.util.concurrent.Executor} responsible for parsing the capture.
@@ -111,7 +141,7 @@ public class CpuCaptureParser {
 
   public CpuCaptureParser(@NotNull IdeProfilerServices services) {
     myServices = services;
-    myCaptures = new HashMap<>();
+    myCaptures = new LinkedHashMap<>(16, 0.75f, true);
   }
 
   private static Logger getLogger() {
@@ -127,12 +157,32 @@ public class CpuCaptureParser {
     myPreviouslyLoadedCaptures.clear();
   }
 
+  @VisibleForTesting
+  void setMaxCachedTracesSize(long maxCachedTracesSize) {
+    myMaxCachedTracesSize = maxCachedTracesSize;
+  }
+
   /**
    * Returns a capture (or a promise of one) in case {@link #parse} was already called for the given trace id.
    */
   @Nullable
   public CompletableFuture<CpuCapture> getCapture(long traceId) {
-    return myCaptures.get(traceId);
+    CompletableFuture<CpuCapture> capture = myCaptures.get(traceId);
+    if (capture == null && !myCaptures.containsKey(traceId)) {
+      SavedTrace trace = mySavedTraces.get(traceId);
+      if (trace != null && trace.myFile.exists()) {
+        // The capture was dropped to save memory. Parse it again from the trace saved when it was first parsed.
+        updateParsingStateWhenStarting();
+        capture = CompletableFuture.supplyAsync(() -> parseSavedTrace(traceId, trace), myServices.getPoolExecutor())
+          .thenApplyAsync(parsed -> {
+            dropLeastRecentlyUsedCaptures();
+            return parsed;
+          }, myServices.getMainExecutor());
+        myCaptures.put(traceId, capture);
+        updateParsingStateWhenDone(capture);
+      }
+    }
+    return capture;
   }
 
   /**
@@ -273,66 +323,78 @@ public class CpuCaptureParser {
   /**
    * Try parsing a given {@link File} into a {@link CpuCapture} using {@link ArtTraceParser}, then {@link SimpleperfTraceParser}
    * (if simpleperf flag is enabled), then {@link AtraceParser} (if atrace flag is enabled). Return null if the file can't be parsed by any
-   * of them.
+   * of them. When the type of the trace can be told from its header, only the parser of that type is tried.
    */
   private CpuCapture tryParsingFileWithDifferentParsers(File traceFile) {
-    try {
-      // First try parsing the trace file as an ART trace.
-      ArtTraceParser artTraceParser = new ArtTraceParser();
-      return artTraceParser.parse(traceFile, IMPORTED_TRACE_ID);
-    }
-    catch (Exception ignored) {
-      // We should go on and try parsing the file as a simpleperf or atrace trace.
+    CpuTraceType traceType = sniffTraceType(traceFile);
+    if (traceType == null &&
+        myServices.getFeatureConfig().isPerfettoEnabled() && PerfettoProducer.verifyFileHasPerfettoTraceHeader(traceFile)) {
+      traceType = CpuTraceType.ATRACE;
     }
 
-    try {
-      // Then, try parsing the file as a simpleperf trace.
-      SimpleperfTraceParser simpleperfParser = new SimpleperfTraceParser();
-      return simpleperfParser.parse(traceFile, IMPORTED_TRACE_ID);
+    if (traceType == null || traceType == CpuTraceType.ART) {
+      try {
+        // First try parsing the trace file as an ART trace.
+        ArtTraceParser artTraceParser = new ArtTraceParser();
+        return artTraceParser.parse(traceFile, IMPORTED_TRACE_ID);
+      }
+      catch (Exception ignored) {
+        // We should go on and try parsing the file as a simpleperf or atrace trace.
+      }
     }
-    catch (Exception ignored) {
-      // We should go on and try parsing the file as an atrace trace.
+
+    if (traceType == null || traceType == CpuTraceType.SIMPLEPERF) {
+      try {
+        // Then, try parsing the file as a simpleperf trace.
+        SimpleperfTraceParser simpleperfParser = new SimpleperfTraceParser();
+        return simpleperfParser.parse(traceFile, IMPORTED_TRACE_ID);
+      }
+      catch (Exception ignored) {
+        // We should go on and try parsing the file as an atrace trace.
+      }
     }
 
-    // Check the file header to see if it's an atrace file.
-    try {
-      if (AtraceProducer.verifyFileHasAtraceHeader(traceFile) ||
-          (myServices.getFeatureConfig().isPerfettoEnabled() && PerfettoProducer.verifyFileHasPerfettoTraceHeader(traceFile))) {
-        // Atrace files contain multiple processes. For imported Atrace files we don't have a
-        // session that can tell us which process the user is interested in. So for all imported
-        // trace files we ask the user to select a process. The list of processes the user can
-        // choose from is parsed from the Atrace file.
-        AtraceParser parser = new AtraceParser(traceFile);
-        // Any process matching the application id of the current project will be sorted to
-        // the top of our process list.
-        CpuThreadSliceInfo[] processList = parser.getProcessList(myServices.getApplicationId());
-        // Attempt to find users intended process.
-        CpuThreadSliceInfo selected = null;
-        // 1) Use hint if available.
-        if (StringUtil.isNotEmpty(myProcessNameHint)) {
-          selected = Arrays.stream(processList).filter(it -> myProcessNameHint.endsWith(it.getProcessName())).findFirst().orElse(null);
-        }
+    if (traceType == null || traceType == CpuTraceType.ATRACE) {
+      // Check the file header to see if it's an atrace file.
+      try {
+        if (AtraceProducer.verifyFileHasAtraceHeader(traceFile) ||
+            (myServices.getFeatureConfig().isPerfettoEnabled() && PerfettoProducer.verifyFileHasPerfettoTraceHeader(traceFile))) {
+          // Atrace files contain multiple processes. For imported Atrace files we don't have a
+          // session that can tell us which process the user is interested in. So for all imported
+          // trace files we ask the user to select a process. The list of processes the user can
+          // choose from is parsed from the Atrace file.
+          AtraceParser parser = new AtraceParser(traceFile);
+          // Any process matching the application id of the current project will be sorted to
+          // the top of our process list.
+          CpuThreadSliceInfo[] processList = parser.getProcessList(myServices.getApplicationId());
+          // Attempt to find users intended process.
+          CpuThreadSliceInfo selected = null;
+          // 1) Use hint if available.
+          if (StringUtil.isNotEmpty(myProcessNameHint)) {
+            selected = Arrays.stream(processList).filter(it -> myProcessNameHint.endsWith(it.getProcessName())).findFirst().orElse(null);
+          }
 
-        // 2) If we don't have a process based on named find one based on id.
-        if (selected == null && myProcessIdHint > 0) {
-          selected = Arrays.stream(processList).filter(it -> it.getProcessId() == myProcessIdHint).findFirst().orElse(null);
-        }
+          // 2) If we don't have a process based on named find one based on id.
+          if (selected == null && myProcessIdHint > 0) {
+            selected = Arrays.stream(processList).filter(it -> it.getProcessId() == myProcessIdHint).findFirst().orElse(null);
+          }
 
-        // 3) Ask the user for input.
-        if (selected == null) {
-          selected = myServices.openListBoxChooserDialog("Select a process",
-                                                         "Select the process you want to analyze.",
-                                                         processList,
-                                                         (t) -> t.getProcessName());
-        }
-        if (selected != null) {
-          parser.setSelectProcess(selected);
-          return parser.parse(traceFile, IMPORTED_TRACE_ID);
+          // 3) Ask the user for input.
+          if (selected == null) {
+            selected = myServices.openListBoxChooserDialog("Select a process",
+                                                           "Select the process you want to analyze.",
+                                                           processList,
+                                                           (t) -> t.getProcessName());
+          }
+          if (selected != null) {
+            parser.setSelectProcess(selected);
+            return parser.parse(traceFile, IMPORTED_TRACE_ID);
+          }
         }
       }
-    }
-    catch (Exception ex) {
-      // We failed to find a proper process, or the file was not atrace.
+      catch (Exception ex) {
+        // We failed to find a proper process, or the file was not atrace.
+      }
     }
 
     // File couldn't be parsed by any of the parsers. Log the issue and return null.
@@ -340,6 +402,44 @@ public class CpuCaptureParser {
     return null;
   }
 
+  /**
+   * Returns the type of the given trace file if it can be told from the header of the file, or null otherwise.
+   */
+  @VisibleForTesting
+  @Nullable
+  static CpuTraceType sniffTraceType(@NotNull File traceFile) {
+    byte[] header = new byte[SIMPLEPERF_HEADER.length];
+    int headerLength;
+    try (FileInputStream input = new FileInputStream(traceFile)) {
+      headerLength = input.read(header);
+    }
+    catch (IOException e) {
+      return null;
+    }
+    if (startsWith(header, headerLength, ART_TEXT_HEADER) || startsWith(header, headerLength, ART_STREAMING_HEADER)) {
+      return CpuTraceType.ART;
+    }
+    if (startsWith(header, headerLength, SIMPLEPERF_HEADER)) {
+      return CpuTraceType.SIMPLEPERF;
+    }
+    if (startsWith(header, headerLength, ATRACE_HEADER)) {
+      return CpuTraceType.ATRACE;
+    }
+    return null;
+  }
+
+  private static boolean startsWith(byte[] header, int headerLength, byte[] prefix) {
+    if (headerLength < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (header[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Creates a {@link CompletableFuture<CpuCapture>} from given trace bytes and the profiler type used to obtain the trace.
    * Uses {@link IdeProfilerServices#getPoolExecutor()} to create the actual {@link CpuCapture} object. Adds it to the captures map using
@@ -466,6 +566,7 @@ public class CpuCaptureParser {
             myServices.showNotification(CpuProfilerNotifications.PREPROCESS_FAILURE);
             getLogger().warn("Unable to pre-process trace file.");
           }
+          dropLeastRecentlyUsedCaptures();
           return capture;
         }, myServices.getMainExecutor());
 
@@ -475,29 +576,63 @@ public class CpuCaptureParser {
   private CpuCapture traceBytesToCapture(@NotNull Common.Session session, long traceId, @NotNull ByteString traceData,
                                          CpuTraceType profilerType) {
     // TODO: Remove layers, analyze whether we can keep the whole file in memory.
+    File trace = CpuCaptureStage.saveCapture(traceId, traceData);
+    SavedTrace savedTrace = new SavedTrace(trace, profilerType, session.getPid());
+    CpuCapture capture = parseSavedTrace(traceId, savedTrace);
+    mySavedTraces.put(traceId, savedTrace);
+    return capture;
+  }
+
+  @NotNull
+  private static CpuCapture parseSavedTrace(long traceId, @NotNull SavedTrace trace) {
     try {
-      File trace = CpuCaptureStage.saveCapture(traceId, traceData);
       TraceParser parser;
-      if (profilerType == CpuTraceType.ART) {
+      if (trace.myType == CpuTraceType.ART) {
         parser = new ArtTraceParser();
       }
-      else if (profilerType == CpuTraceType.SIMPLEPERF) {
+      else if (trace.myType == CpuTraceType.SIMPLEPERF) {
         parser = new SimpleperfTraceParser();
       }
-      else if (profilerType == CpuTraceType.ATRACE) {
-        parser = new AtraceParser(session.getPid());
+      else if (trace.myType == CpuTraceType.ATRACE) {
+        parser = new AtraceParser(trace.myPid);
       }
       else {
         throw new IllegalStateException("Trace file cannot be parsed. Profiler type (ART, simpleperf, or atrace) needs to be set.");
       }
 
-      return parser.parse(trace, traceId);
+      return parser.parse(trace.myFile, traceId);
     }
     catch (IOException | BufferUnderflowException e) {
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * Drops the least recently used parsed captures from {@link #myCaptures} until the size of the traces of the remaining ones is within
+   * {@link #myMaxCachedTracesSize}. The most recently used capture and captures still being parsed are always kept.
+   */
+  private void dropLeastRecentlyUsedCaptures() {
+    // Iterating the entries, unlike calling get(), doesn't change the access order of the map.
+    List<Map.Entry<Long, CompletableFuture<CpuCapture>>> captures = new ArrayList<>(myCaptures.entrySet());
+    long cachedTracesSize = 0;
+    // Traverse from the most recently used capture to the least recently used one.
+    for (int i = captures.size() - 1; i >= 0; i--) {
+      long traceId = captures.get(i).getKey();
+      CompletableFuture<CpuCapture> capture = captures.get(i).getValue();
+      SavedTrace trace = mySavedTraces.get(traceId);
+      if (trace == null) {
+        // Only captures that can be parsed again from their saved trace can be dropped.
+        continue;
+      }
+      cachedTracesSize += trace.mySize;
+      if (cachedTracesSize > myMaxCachedTracesSize && i < captures.size() - 1 &&
+          capture != null && capture.isDone() && !capture.isCompletedExceptionally()) {
+        myCaptures.remove(traceId);
+        cachedTracesSize -= trace.mySize;
+      }
+    }
+  }
+
   private void openParseLargeTracesDialog(Runnable yesCallback, Runnable noCallback) {
     myServices.openYesNoDialog("The trace file generated is large, and Android Studio may become unresponsive while " +
                                "it parses the data. Do you want to continue?\n\n" +
@@ -507,4 +642,21 @@ public class CpuCaptureParser {
                                yesCallback,
                                noCallback);
   }
+
+  /**
+   * A trace saved to disk, with what is needed to parse it again.
+   */
+  private static final class SavedTrace {
+    @NotNull private final File myFile;
+    @NotNull private final CpuTraceType myType;
+    private final int myPid;
+    private final long mySize;
+
+    private SavedTrace(@NotNull File file, @NotNull CpuTraceType type, int pid) {
+      myFile = file;
+      myType = type;
+      myPid = pid;
+      mySize = file.length();
+    }
+  }
 }
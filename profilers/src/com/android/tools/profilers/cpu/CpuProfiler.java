@@ -40,7 +40,6 @@ import com.android.tools.profilers.sessions.SessionsManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -206,15 +205,21 @@ public class CpuProfiler extends StudioProfiler {
       // to handle converting the format to a format that Systrace can support. The reason for the multi-part file
       // is because Atrace dumps a compressed data file every X interval and this file represents the concatenation of all
       // the individual dumps.
+      // The contents are written straight from the response, without copying them into another array first.
       if (info.getConfiguration().getUserOptions().getTraceType() == CpuTraceType.ATRACE) {
         File trace = FileUtil.createTempFile(String.format("cpu_trace_%d", info.getTraceId()), ".trace", true);
-        try (FileOutputStream out = new FileOutputStream(trace)) {
-          out.write(traceResponse.getContents().toByteArray());
+        try {
+          try (FileOutputStream out = new FileOutputStream(trace)) {
+            traceResponse.getContents().writeTo(out);
+          }
+          AtraceExporter.export(trace, outputStream);
+        }
+        finally {
+          FileUtil.delete(trace);
         }
-        AtraceExporter.export(trace, outputStream);
       }
       else {
-        FileUtil.copy(new ByteArrayInputStream(traceResponse.getContents().toByteArray()), outputStream);
+        traceResponse.getContents().writeTo(outputStream);
       }
     }
     catch (IOException exception) {
@@ -21,10 +21,12 @@ import com.android.tools.adtui.model.SeriesData;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Implementers of this class should implement {@link #inMemoryDataList}, which should return all the {@link DataSeries} that would be
- * returned if {@link #getDataForRange(Range)} receives a range with maximum length.
+ * returned if {@link #getDataForRange(Range)} receives a range with maximum length, sorted by x. Returning a {@link SeriesDataStore} avoids
+ * keeping a {@link SeriesData} object per element in memory.
  */
 abstract class InMemoryDataSeries<T> implements DataSeries<T> {
 
@@ -37,27 +39,50 @@ abstract class InMemoryDataSeries<T> implements DataSeries<T> {
     if (seriesDataList.isEmpty()) {
       return series;
     }
-    for (int i = 0; i < seriesDataList.size() - 1; i++) {
+    // The data is sorted by x, so the first element to add is the one just before the first element greater than our min. Every element
+    // after it overlaps with the range until one starts at or after our max.
+    int size = seriesDataList.size();
+    int start = Math.max(0, indexOfFirstAfter(seriesDataList, min) - 1);
+    for (int i = start; i < size; i++) {
       SeriesData<T> data = seriesDataList.get(i);
-      SeriesData<T> nextData = seriesDataList.get(i + 1);
-      // If our series overlaps with the start of the range upto excluding the end. We add the series.
       if (data.x >= max) {
         break;
       }
-      // If our next series is greater than our min then we add our current element to the return set. This works because
-      // we want to add the element just before our range starts so checking the next element gives us that.
-      // After that point all elements will be greater than our min until our current element is > than our max in which case
-      // we break out of the loop.
-      if (nextData.x > min) {
-        series.add(data);
+      series.add(data);
+    }
+    return series;
+  }
+
+  /**
+   * @return the index of the first element of {@code seriesDataList} whose x is greater than {@code x}, or its size if there is none.
+   */
+  private static <T> int indexOfFirstAfter(List<SeriesData<T>> seriesDataList, long x) {
+    if (seriesDataList instanceof SeriesDataStore) {
+      return ((SeriesDataStore<T>)seriesDataList).indexOfFirstAfter(x);
+    }
+    if (!(seriesDataList instanceof RandomAccess)) {
+      // Binary search would be slower than a scan on a linked list.
+      int index = 0;
+      for (SeriesData<T> data : seriesDataList) {
+        if (data.x > x) {
+          break;
+        }
+        index++;
       }
+      return index;
     }
-    SeriesData<T> lastElement = seriesDataList.get(seriesDataList.size() - 1);
-    // Always add the last element if it is less than the max.
-    if (lastElement.x < max) {
-      series.add(lastElement);
+    int low = 0;
+    int high = seriesDataList.size();
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (seriesDataList.get(mid).x <= x) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
     }
-    return series;
+    return low;
   }
 
   /**
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.cpu;
+
+import com.android.tools.adtui.model.SeriesData;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A read-mostly list of {@link SeriesData} sorted by x, kept as parallel arrays of timestamps and values instead of one
+ * {@link SeriesData} object per element. Elements returned by {@link #get(int)} are created on demand, so callers that only need the
+ * timestamps or the values should use {@link #getX(int)} and {@link #getValue(int)} instead.
+ *
+ * Timestamps must be added in non-decreasing order, which lets {@link InMemoryDataSeries} find the elements of a range with a binary
+ * search instead of a linear scan.
+ */
+public final class SeriesDataStore<T> extends AbstractList<SeriesData<T>> implements RandomAccess {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  @NotNull private long[] myX;
+  @NotNull private Object[] myValues;
+  private int mySize;
+
+  public SeriesDataStore() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public SeriesDataStore(int initialCapacity) {
+    myX = new long[initialCapacity];
+    myValues = new Object[initialCapacity];
+  }
+
+  /**
+   * Appends an element to the store. {@code x} must not be smaller than the x of the last element.
+   */
+  public void add(long x, T value) {
+    if (mySize > 0 && x < myX[mySize - 1]) {
+      throw new IllegalArgumentException("Series data must be added in order: " + x + " < " + myX[mySize - 1]);
+    }
+    if (mySize == myX.length) {
+      int capacity = Math.max(DEFAULT_CAPACITY, mySize + (mySize >> 1));
+      myX = Arrays.copyOf(myX, capacity);
+      myValues = Arrays.copyOf(myValues, capacity);
+    }
+    myX[mySize] = x;
+    myValues[mySize] = value;
+    mySize++;
+    modCount++;
+  }
+
+  @Override
+  public boolean add(@NotNull SeriesData<T> data) {
+    add(data.x, data.value);
+    return true;
+  }
+
+  @Override
+  @NotNull
+  public SeriesData<T> get(int index) {
+    return new SeriesData<>(getX(index), getValue(index));
+  }
+
+  /**
+   * Replaces the value of an element, keeping its x.
+   */
+  @Override
+  @NotNull
+  public SeriesData<T> set(int index, @NotNull SeriesData<T> data) {
+    if (data.x != getX(index)) {
+      throw new IllegalArgumentException("Series data x can't be changed: " + data.x + " != " + getX(index));
+    }
+    SeriesData<T> previous = get(index);
+    myValues[index] = data.value;
+    return previous;
+  }
+
+  public long getX(int index) {
+    checkIndex(index);
+    return myX[index];
+  }
+
+  @SuppressWarnings("unchecked")
+  public T getValue(int index) {
+    checkIndex(index);
+    return (T)myValues[index];
+  }
+
+  public void setValue(int index, T value) {
+    checkIndex(index);
+    myValues[index] = value;
+  }
+
+  @Override
+  public int size() {
+    return mySize;
+  }
+
+  /**
+   * @return the index of the first element whose x is greater than {@code x}, or {@link #size()} if there is none.
+   */
+  public int indexOfFirstAfter(long x) {
+    int low = 0;
+    int high = mySize;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (myX[mid] <= x) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Releases the unused capacity. Call once the store is fully built.
+   */
+  public void trimToSize() {
+    if (mySize < myX.length) {
+      myX = Arrays.copyOf(myX, mySize);
+      myValues = Arrays.copyOf(myValues, mySize);
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= mySize) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mySize);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import com.android.tools.adtui.model.SeriesData;
 import com.android.tools.profiler.proto.Cpu;
 import com.android.tools.profilers.cpu.CpuCapture;
 import com.android.tools.profilers.cpu.CpuProfilerStage;
+import com.android.tools.profilers.cpu.audits.RenderAuditEngine;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +107,14 @@ public class AtraceCpuCapture extends CpuCapture {
     return myFrameManager.getFrames(threadType);
   }
 
+  /**
+   * @return Render audit of the frames of the capture, which can be queried for any range.
+   */
+  @NotNull
+  public RenderAuditEngine getRenderAuditEngine() {
+    return myFrameManager.getRenderAuditEngine();
+  }
+
   /**
    * @return thread id of thread matching name of the render thread.
    */
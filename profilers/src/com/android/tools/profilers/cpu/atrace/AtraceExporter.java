@@ -23,6 +23,7 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import trebuchet.io.DataSlice;
 
@@ -31,6 +32,9 @@ import trebuchet.io.DataSlice;
  * Systrace expects the file to be compressed. The first line should be "# tracer: nop".
  */
 public final class AtraceExporter {
+  // Size of the buffer used to compress the exported lines. Lines are short, so a larger buffer avoids a write call per few lines.
+  private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
   /**
    * This method reads data from an {@link AtraceProducer} and writes it out compressed to a {@link File}.
    * @param file Input file to read data from.
@@ -50,7 +54,9 @@ public final class AtraceExporter {
     if (!buffer.parseFile(file)) {
       throw new IOException("Failed to parse file for export: " + file.getAbsolutePath());
     }
-    try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(output)) {
+    // Lines are compressed and written to the output as they are produced, so the trace is never held in memory as a whole.
+    Deflater deflater = new Deflater();
+    try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(output, deflater, EXPORT_BUFFER_SIZE)) {
       // The first line is added by the AtraceProducer, for the atrace-parser. Systrace will throw an error
       // if this line is detected in the file parsing so we throw away the line.
       DataSlice line = buffer.next();
@@ -62,5 +68,9 @@ public final class AtraceExporter {
     } catch (IOException ex) {
       throw new IOException("Failed to export atrace file.", ex);
     }
+    finally {
+      deflater.end();
+      buffer.close();
+    }
   }
 }
@@ -18,6 +18,7 @@ package com.android.tools.profilers.cpu.atrace;
 import com.android.tools.adtui.model.Range;
 import com.android.tools.adtui.model.SeriesData;
 import com.android.tools.profilers.cpu.CpuFramesModel;
+import com.android.tools.profilers.cpu.audits.RenderAuditEngine;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.function.Function;
 import org.jetbrains.annotations.NotNull;
@@ -40,6 +41,9 @@ public class AtraceFrameManager {
   private final List<AtraceFrame> myMainThreadFrames;
   private final List<AtraceFrame> myRenderThreadFrames;
 
+  @NotNull
+  private final RenderAuditEngine myRenderAuditEngine = new RenderAuditEngine();
+
   /**
    * Constructs a default manager, the constructor finds the main thread and will assert if one is not found.
    *
@@ -52,6 +56,10 @@ public class AtraceFrameManager {
     myMainThreadFrames = buildFramesList(AtraceFrame.FrameThread.MAIN, process, process.getId());
     myRenderThreadFrames = buildFramesList(AtraceFrame.FrameThread.RENDER, process, renderThreadId);
     findAssociatedFrames();
+    // Frames are classified once, as the capture is parsed, so that audits of any range don't need to look at all of them again.
+    for (AtraceFrame frame : myMainThreadFrames) {
+      myRenderAuditEngine.addFrame(frame);
+    }
   }
 
   /**
@@ -100,6 +108,14 @@ public class AtraceFrameManager {
     return frames;
   }
 
+  /**
+   * Returns the engine that answers the render audit of any range of the capture.
+   */
+  @NotNull
+  public RenderAuditEngine getRenderAuditEngine() {
+    return myRenderAuditEngine;
+  }
+
   /**
    * Returns a list of frames for a frame type.
    */
@@ -21,12 +21,12 @@ import com.android.tools.profilers.cpu.CaptureNode;
 import com.android.tools.profilers.cpu.CpuCapture;
 import com.android.tools.profilers.cpu.CpuProfilerStage;
 import com.android.tools.profilers.cpu.CpuThreadInfo;
+import com.android.tools.profilers.cpu.SeriesDataStore;
 import com.android.tools.profilers.cpu.TraceParser;
 import com.android.tools.profilers.cpu.nodemodel.AtraceNodeModel;
 import com.google.common.annotations.VisibleForTesting;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -98,7 +98,7 @@ public class AtraceParser implements TraceParser {
    * List of cpu utilization values for a specific process. The values range from 0 -> 100 in increments of CPU count.
    * The value needs to be a long as that is what {@link com.android.tools.adtui.model.RangedContinuousSeries} expects.
    */
-  private final List<SeriesData<Long>> myCpuUtilizationSeries;
+  private final SeriesDataStore<Long> myCpuUtilizationSeries;
 
   private int myProcessId;
   /**
@@ -130,7 +130,16 @@ public class AtraceParser implements TraceParser {
     myCaptureTreeNodes = new HashMap<>();
     myThreadStateData = new HashMap<>();
     myCpuSchedulingToCpuData = new HashMap<>();
-    myCpuUtilizationSeries = new ArrayList<>();
+    myCpuUtilizationSeries = new SeriesDataStore<>();
+  }
+
+  /**
+   * Parses an already imported model, focusing on the given process.
+   */
+  @VisibleForTesting
+  AtraceParser(@NotNull Model model, int processId) {
+    this(processId);
+    setModel(model);
   }
 
   @Override
@@ -169,15 +178,19 @@ public class AtraceParser implements TraceParser {
       }
 
       ImportTask task = new ImportTask(new PrintlnImportFeedback());
-      myModel = task.importBuffer(producer);
-      // We check if we have a parent timestamp. If not this could be from an imported trace.
-      // In the case it is 0, we use the first timestamp of our capture as a reference point.
-      if (Double.compare(myModel.getParentTimestamp(), 0.0) == 0) {
-        myMonoTimeAtBeginningSeconds = myModel.getBeginTimestamp();
-      }
-      else {
-        myMonoTimeAtBeginningSeconds = myModel.getParentTimestamp() - (myModel.getParentTimestampBootTime() - myModel.getBeginTimestamp());
-      }
+      setModel(task.importBuffer(producer));
+    }
+  }
+
+  private void setModel(@NotNull Model model) {
+    myModel = model;
+    // We check if we have a parent timestamp. If not this could be from an imported trace.
+    // In the case it is 0, we use the first timestamp of our capture as a reference point.
+    if (Double.compare(myModel.getParentTimestamp(), 0.0) == 0) {
+      myMonoTimeAtBeginningSeconds = myModel.getBeginTimestamp();
+    }
+    else {
+      myMonoTimeAtBeginningSeconds = myModel.getParentTimestamp() - (myModel.getParentTimestampBootTime() - myModel.getBeginTimestamp());
     }
   }
 
@@ -348,17 +361,18 @@ public class AtraceParser implements TraceParser {
    */
   private void buildThreadStateData() {
     for (ThreadModel thread : myProcessModel.getThreads()) {
-      List<SeriesData<CpuProfilerStage.ThreadState>> states = new ArrayList<>();
+      SeriesDataStore<CpuProfilerStage.ThreadState> states = new SeriesDataStore<>();
       myThreadStateData.put(thread.getId(), states);
       CpuProfilerStage.ThreadState lastState = CpuProfilerStage.ThreadState.UNKNOWN;
       for (SchedSlice slice : thread.getSchedSlices()) {
         long startTimeUs = convertToUserTimeUs(slice.getStartTime());
         CpuProfilerStage.ThreadState state = getState(slice);
         if (state != lastState) {
-          states.add(new SeriesData<>(startTimeUs, state));
+          states.add(startTimeUs, state);
           lastState = state;
         }
       }
+      states.trimToSize();
     }
   }
 
@@ -370,12 +384,16 @@ public class AtraceParser implements TraceParser {
     long endUserTime = convertToUserTimeUs(myModel.getEndTimestamp());
     long startUserTime = convertToUserTimeUs(myModel.getBeginTimestamp());
 
+    // Accumulate the time spent in each bucket in a primitive array, the series is only built once the values are final.
+    int bucketCount = 0;
     for(long i = startUserTime; i < endUserTime+UTILIZATION_BUCKET_LENGTH_US; i += UTILIZATION_BUCKET_LENGTH_US) {
-      myCpuUtilizationSeries.add(new SeriesData<>(i, 0L));
+      bucketCount++;
     }
+    long[] utilizationBuckets = new long[bucketCount];
 
     for (CpuModel cpu : myModel.getCpus()) {
-      List<SeriesData<CpuThreadSliceInfo>> processList = new ArrayList<>();
+      // Each slice adds at most one null process before it, plus the null process added at the end.
+      SeriesDataStore<CpuThreadSliceInfo> processList = new SeriesDataStore<>(cpu.getSlices().size() * 2 + 1);
       CpuProcessSlice lastSlice = cpu.getSlices().get(0);
       long lastBucketCounted = -1;
       for (CpuProcessSlice slice : cpu.getSlices()) {
@@ -383,12 +401,12 @@ public class AtraceParser implements TraceParser {
         long sliceEndTimeUs = convertToUserTimeUs(slice.getEndTime());
         long durationUs = sliceEndTimeUs - sliceStartTimeUs;
         if (slice.getStartTime() > lastSlice.getEndTime()) {
-          processList.add(new SeriesData<>(sliceEndTimeUs, CpuThreadSliceInfo.NULL_THREAD));
+          // The null process covers the gap since the previous slice ended.
+          processList.add(convertToUserTimeUs(lastSlice.getEndTime()), CpuThreadSliceInfo.NULL_THREAD);
         }
 
-        processList.add(
-          new SeriesData<>(sliceStartTimeUs,
-                           new CpuThreadSliceInfo(slice.getThreadId(), slice.getThreadName(), slice.getId(), slice.getName(), durationUs)));
+        processList.add(sliceStartTimeUs,
+                        new CpuThreadSliceInfo(slice.getThreadId(), slice.getThreadName(), slice.getId(), slice.getName(), durationUs));
         lastSlice = slice;
 
         if (slice.getId() == myProcessId) {
@@ -397,30 +415,33 @@ public class AtraceParser implements TraceParser {
           // The delta between this time and the end time is how much time we still need to account for in the loop.
           long sliceTimeInBucket = sliceStartTimeUs;
           // Terminate on series bounds because the time given from the Model doesn't seem to be accurate.
-          for(int i = (int)Math.max(0, startBucket); sliceEndTimeUs > sliceTimeInBucket && i < myCpuUtilizationSeries.size(); i++) {
+          for(int i = (int)Math.max(0, startBucket); sliceEndTimeUs > sliceTimeInBucket && i < utilizationBuckets.length; i++) {
             // We want to know the time from the start of the event to the end of the bucket so we compute where our bucket ends.
             long bucketEndTime = startUserTime + UTILIZATION_BUCKET_LENGTH_US * (i+1);
             // Because the time to the end of the bucket may (and often is) longer than our total time we take the min of the two.
             long bucketTime = Math.min(bucketEndTime, sliceEndTimeUs) - sliceTimeInBucket;
-            myCpuUtilizationSeries.get(i).value += bucketTime;
+            utilizationBuckets[i] += bucketTime;
             sliceTimeInBucket += bucketTime;
           }
         }
       }
 
-      // We are done with this Cpu so we add a null process at the end to properly render this segment.
-      processList.add(new SeriesData<>(convertToUserTimeUs(myModel.getEndTimestamp()), CpuThreadSliceInfo.NULL_THREAD));
+      // We are done with this Cpu so we add a null process at the end to properly render this segment. The capture may end before the
+      // last slice starts, in which case the null process is added at the start of that slice to keep the series in order.
+      long endTimeUs = Math.max(convertToUserTimeUs(myModel.getEndTimestamp()), convertToUserTimeUs(lastSlice.getStartTime()));
+      processList.add(endTimeUs, CpuThreadSliceInfo.NULL_THREAD);
+      processList.trimToSize();
       myCpuSchedulingToCpuData.put(cpu.getId(), processList);
     }
 
     // When we have finished processing all CPUs the utilization series contains the total time each CPU spent in each bucket.
     // Here we normalize this value across the max total wall clock time that could be spent in each bucket and end with our utilization.
     double utilizationTotalTime = UTILIZATION_BUCKET_LENGTH_US * myModel.getCpus().size();
-    myCpuUtilizationSeries.replaceAll((series) -> {
+    for (int i = 0; i < utilizationBuckets.length; i++) {
       // Normalize the utilization time as a percent form 0-1 then scale up to 0-100.
-      series.value = (long)(series.value/utilizationTotalTime * 100.0);
-      return series;
-    });
+      myCpuUtilizationSeries.add(startUserTime + UTILIZATION_BUCKET_LENGTH_US * i, (long)(utilizationBuckets[i] / utilizationTotalTime * 100.0));
+    }
+    myCpuUtilizationSeries.trimToSize();
   }
 
   /**
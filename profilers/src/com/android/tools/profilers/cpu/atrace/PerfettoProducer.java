@@ -68,8 +68,8 @@ public class PerfettoProducer implements TrebuchetBufferProducer {
    * @return true if one {@link PerfettoTrace.TracePacket} was able to be read from the file.
    */
   public static boolean verifyFileHasPerfettoTraceHeader(@NotNull File file) {
-    try {
-      CodedInputStream inputStream = CodedInputStream.newInstance(new FileInputStream(file));
+    try (FileInputStream fileStream = new FileInputStream(file)) {
+      CodedInputStream inputStream = CodedInputStream.newInstance(fileStream);
       ExtensionRegistryLite packetRegistry = ExtensionRegistryLite.newInstance();
       PerfettoTrace.registerAllExtensions(packetRegistry);
       PerfettoTrace.TracePacket packet = readOnePacket(inputStream, packetRegistry);
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.cpu.audits
+
+import com.android.tools.profilers.cpu.CpuFramesModel
+import com.android.tools.profilers.cpu.atrace.AtraceFrame
+import trebuchet.model.base.SliceGroup
+import java.util.concurrent.TimeUnit
+import kotlin.math.ceil
+import kotlin.math.max
+import kotlin.math.sqrt
+
+/**
+ * Classifies the frames of a capture as they are parsed, and keeps enough data about their render stages to answer jank statistics for
+ * any range of the capture without going over all of its frames again.
+ *
+ * Frames must be added in start time order, and must not overlap, as is the case for the frames of a thread. The durations of each render
+ * stage go into log scale histograms, which are accumulated every [BLOCK_SIZE] frames. The histogram of a range of frames is then the
+ * difference between two accumulated histograms, corrected by at most two partial blocks of frames at the ends of the range.
+ */
+class RenderAuditEngine {
+  var frameCount = 0
+    private set
+
+  private var startsUs = LongArray(INITIAL_CAPACITY)
+  private var endsUs = LongArray(INITIAL_CAPACITY)
+  // Duration of each render stage of each frame, at frameIndex * STAGE_COUNT + stage.
+  private var stageDurationsUs = IntArray(INITIAL_CAPACITY * STAGE_COUNT)
+
+  // Indices of the frames that took longer than CpuFramesModel.SLOW_FRAME_RATE_US, in increasing order.
+  private var longFrameIndices = IntArray(INITIAL_CAPACITY)
+  private var longFrameCount = 0
+
+  // Histograms and sums of the stage durations of all the frames added so far, laid out as described in newHistogram and newSums.
+  private val runningHistogram = newHistogram()
+  private val runningSums = newSums()
+  // Copies of runningHistogram and runningSums taken before adding each BLOCK_SIZE-th frame.
+  private val blockHistograms = mutableListOf<IntArray>()
+  private val blockSums = mutableListOf<DoubleArray>()
+
+  /**
+   * Adds a main thread frame, along with its associated render thread frame if any.
+   */
+  fun addFrame(frame: AtraceFrame) {
+    val stageDurations = IntArray(STAGE_COUNT)
+    frame.slices.forEach { addStageDurations(it, stageDurations) }
+    frame.associatedFrame?.slices?.forEach { addStageDurations(it, stageDurations) }
+    val mainThreadStagesUs = MAIN_THREAD_STAGES.sumBy { stageDurations[it.ordinal] }
+    stageDurations[RenderStage.MISC_TIME.ordinal] = max(0, frame.durationUs.toInt() - mainThreadStagesUs)
+    addFrame(frame.startUs, frame.endUs, stageDurations, frame.totalPerfClass == AtraceFrame.PerfClass.BAD)
+  }
+
+  /**
+   * Adds a frame given the duration of each of its [RenderStage]s, indexed by their ordinal.
+   */
+  fun addFrame(startUs: Long, endUs: Long, frameStageDurationsUs: IntArray, isLongFrame: Boolean) {
+    require(frameCount == 0 || startUs >= startsUs[frameCount - 1]) { "Frames must be added in start time order" }
+
+    if (frameCount % BLOCK_SIZE == 0) {
+      blockHistograms.add(runningHistogram.copyOf())
+      blockSums.add(runningSums.copyOf())
+    }
+    if (frameCount == startsUs.size) {
+      val capacity = frameCount * 2
+      startsUs = startsUs.copyOf(capacity)
+      endsUs = endsUs.copyOf(capacity)
+      stageDurationsUs = stageDurationsUs.copyOf(capacity * STAGE_COUNT)
+    }
+    startsUs[frameCount] = startUs
+    endsUs[frameCount] = endUs
+    frameStageDurationsUs.copyInto(stageDurationsUs, frameCount * STAGE_COUNT, 0, STAGE_COUNT)
+    accumulate(frameCount, runningHistogram, runningSums, 1)
+
+    if (isLongFrame) {
+      if (longFrameCount == longFrameIndices.size) {
+        longFrameIndices = longFrameIndices.copyOf(longFrameCount * 2)
+      }
+      longFrameIndices[longFrameCount++] = frameCount
+    }
+    frameCount++
+  }
+
+  /**
+   * Returns the mean, standard deviation and percentiles of the duration of each render stage, over the frames that overlap the range.
+   */
+  fun getRenderStageStats(minUs: Double, maxUs: Double): Map<RenderStage, RenderStageStats> {
+    val from = firstFrameEndingAfter(minUs)
+    val to = firstFrameStartingAfter(maxUs)
+    if (from >= to) {
+      return mapOf()
+    }
+
+    val histogram = newHistogram()
+    val sums = newSums()
+    accumulateBefore(to, histogram, sums, 1)
+    accumulateBefore(from, histogram, sums, -1)
+
+    val count = to - from
+    return RenderStage.values().associate { stage ->
+      val mean = sums[stage.ordinal * 2] / count
+      val variance = max(0.0, sums[stage.ordinal * 2 + 1] / count - mean * mean)
+      val stageHistogram = stage.ordinal * BUCKET_COUNT
+      stage to RenderStageStats(mean.toInt(),
+                                sqrt(variance).toInt(),
+                                percentile(histogram, stageHistogram, count, 0.5),
+                                percentile(histogram, stageHistogram, count, 0.9),
+                                percentile(histogram, stageHistogram, count, 0.99))
+    }
+  }
+
+  /**
+   * Returns the frames that overlap the range and took longer than [CpuFramesModel.SLOW_FRAME_RATE_US].
+   */
+  fun getLongFrames(minUs: Double, maxUs: Double): List<LongFrame> =
+    longFrameIndicesIn(minUs, maxUs).map { LongFrame(startsUs[it], endsUs[it]) }
+
+  /**
+   * Returns the display refreshes missed by the long frames that overlap the range: a frame that takes longer than a refresh period keeps
+   * the display from being refreshed with a new frame at every period that it spans.
+   */
+  fun getSkippedFrames(minUs: Double, maxUs: Double): List<SkippedFrame> =
+    longFrameIndicesIn(minUs, maxUs).flatMap { index ->
+      (1..skippedRefreshCount(index)).map { SkippedFrame(startsUs[index] + it * REFRESH_PERIOD_US) }
+    }
+
+  /**
+   * Returns the runs of consecutive long frames that overlap the range, with the number of display refreshes they missed together.
+   */
+  fun getSkippedFrameClusters(minUs: Double, maxUs: Double): List<SkippedFrameCluster> {
+    val clusters = mutableListOf<SkippedFrameCluster>()
+    var clusterStart = -1
+    var clusterEnd = -1
+    var skippedCount = 0
+    for (index in longFrameIndicesIn(minUs, maxUs)) {
+      if (clusterStart >= 0 && index != clusterEnd + 1) {
+        clusters.add(SkippedFrameCluster(startsUs[clusterStart], endsUs[clusterEnd], skippedCount))
+        clusterStart = -1
+      }
+      if (clusterStart < 0) {
+        clusterStart = index
+        skippedCount = 0
+      }
+      clusterEnd = index
+      skippedCount += skippedRefreshCount(index)
+    }
+    if (clusterStart >= 0) {
+      clusters.add(SkippedFrameCluster(startsUs[clusterStart], endsUs[clusterEnd], skippedCount))
+    }
+    return clusters
+  }
+
+  /**
+   * Returns the frames that overlap the range, with the duration of each of their render stages.
+   */
+  fun getAuditFrames(minUs: Double, maxUs: Double): List<AuditFrame> =
+    (firstFrameEndingAfter(minUs) until firstFrameStartingAfter(maxUs)).map { index ->
+      AuditFrame(startsUs[index],
+                 endsUs[index],
+                 (endsUs[index] - startsUs[index]).toInt(),
+                 RenderStage.values().associate { it to stageDurationsUs[index * STAGE_COUNT + it.ordinal] })
+    }
+
+  private fun longFrameIndicesIn(minUs: Double, maxUs: Double): List<Int> {
+    val from = lowerBound(longFrameIndices, longFrameCount, firstFrameEndingAfter(minUs))
+    val to = lowerBound(longFrameIndices, longFrameCount, firstFrameStartingAfter(maxUs))
+    return (from until to).map { longFrameIndices[it] }
+  }
+
+  private fun skippedRefreshCount(index: Int) = ((endsUs[index] - startsUs[index]) / REFRESH_PERIOD_US).toInt()
+
+  /**
+   * Adds ([sign] = 1) or removes ([sign] = -1) the stage durations of the frames before [frameIndex] to the histogram and sums.
+   */
+  private fun accumulateBefore(frameIndex: Int, histogram: IntArray, sums: DoubleArray, sign: Int) {
+    val block = frameIndex / BLOCK_SIZE
+    if (block >= blockHistograms.size) {
+      // All the frames added so far, which is only the case when frameIndex is the number of frames and at the start of a new block.
+      addArrays(histogram, runningHistogram, sign)
+      addArrays(sums, runningSums, sign)
+      return
+    }
+    addArrays(histogram, blockHistograms[block], sign)
+    addArrays(sums, blockSums[block], sign)
+    for (index in block * BLOCK_SIZE until frameIndex) {
+      accumulate(index, histogram, sums, sign)
+    }
+  }
+
+  private fun accumulate(frameIndex: Int, histogram: IntArray, sums: DoubleArray, sign: Int) {
+    for (stage in 0 until STAGE_COUNT) {
+      val durationUs = stageDurationsUs[frameIndex * STAGE_COUNT + stage]
+      histogram[stage * BUCKET_COUNT + bucketOf(durationUs)] += sign
+      sums[stage * 2] += sign * durationUs.toDouble()
+      sums[stage * 2 + 1] += sign * durationUs.toDouble() * durationUs
+    }
+  }
+
+  private fun firstFrameEndingAfter(minUs: Double): Int {
+    var low = 0
+    var high = frameCount
+    while (low < high) {
+      val mid = (low + high) ushr 1
+      if (endsUs[mid] < minUs) low = mid + 1 else high = mid
+    }
+    return low
+  }
+
+  private fun firstFrameStartingAfter(maxUs: Double): Int {
+    var low = 0
+    var high = frameCount
+    while (low < high) {
+      val mid = (low + high) ushr 1
+      if (startsUs[mid] <= maxUs) low = mid + 1 else high = mid
+    }
+    return low
+  }
+
+  companion object {
+    private const val INITIAL_CAPACITY = 64
+    private const val BLOCK_SIZE = 256
+    private val STAGE_COUNT = RenderStage.values().size
+    private val REFRESH_PERIOD_US = TimeUnit.SECONDS.toMicros(1) / 60
+
+    // Durations are bucketed with SUB_BUCKET_COUNT buckets per power of two, which keeps percentiles within 1/SUB_BUCKET_COUNT of the
+    // actual duration. Durations under SUB_BUCKET_COUNT us get a bucket each.
+    private const val SUB_BUCKET_BITS = 3
+    private const val SUB_BUCKET_COUNT = 1 shl SUB_BUCKET_BITS
+    private const val BUCKET_COUNT = (Int.SIZE_BITS - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT
+
+    private val MAIN_THREAD_STAGES = listOf(RenderStage.INPUT, RenderStage.ANIMATION, RenderStage.MEASURE_LAYOUT, RenderStage.DRAW)
+
+    // Names of the trace sections that make up each render stage. Sections are matched by prefix, and the children of a matched section
+    // are not looked at.
+    private val STAGE_SECTION_NAMES = listOf(
+      "input" to RenderStage.INPUT,
+      "animation" to RenderStage.ANIMATION,
+      "measure" to RenderStage.MEASURE_LAYOUT,
+      "layout" to RenderStage.MEASURE_LAYOUT,
+      "draw" to RenderStage.DRAW,
+      "Record View#draw()" to RenderStage.DRAW,
+      "syncFrameState" to RenderStage.SYNC_UPLOAD,
+      "Upload" to RenderStage.SYNC_UPLOAD,
+      "flush commands" to RenderStage.COMMAND_ISSUE,
+      "Issue draw commands" to RenderStage.COMMAND_ISSUE,
+      "eglSwapBuffers" to RenderStage.SWAP_BUFFERS,
+      "queueBuffer" to RenderStage.SWAP_BUFFERS
+    )
+
+    private fun addStageDurations(slice: SliceGroup, stageDurations: IntArray) {
+      val stage = STAGE_SECTION_NAMES.firstOrNull { slice.name.startsWith(it.first) }?.second
+      if (stage != null) {
+        stageDurations[stage.ordinal] += (slice.duration * TimeUnit.SECONDS.toMicros(1)).toInt()
+      }
+      else {
+        slice.children.forEach { addStageDurations(it, stageDurations) }
+      }
+    }
+
+    private fun newHistogram() = IntArray(STAGE_COUNT * BUCKET_COUNT)
+
+    // The sum and the sum of squares of the durations of each stage, at stage * 2 and stage * 2 + 1.
+    private fun newSums() = DoubleArray(STAGE_COUNT * 2)
+
+    private fun bucketOf(durationUs: Int): Int {
+      if (durationUs < SUB_BUCKET_COUNT) {
+        return max(0, durationUs)
+      }
+      val exponent = Int.SIZE_BITS - 1 - Integer.numberOfLeadingZeros(durationUs)
+      val subBucket = (durationUs ushr (exponent - SUB_BUCKET_BITS)) and (SUB_BUCKET_COUNT - 1)
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket
+    }
+
+    /**
+     * Returns the middle of the range of durations that fall into the bucket.
+     */
+    private fun durationOf(bucket: Int): Int {
+      if (bucket < SUB_BUCKET_COUNT) {
+        return bucket
+      }
+      val exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1
+      val width = 1L shl (exponent - SUB_BUCKET_BITS)
+      val lowerBound = (1L shl exponent) + (bucket % SUB_BUCKET_COUNT) * width
+      return minOf(Int.MAX_VALUE.toLong(), lowerBound + width / 2).toInt()
+    }
+
+    private fun percentile(histogram: IntArray, offset: Int, count: Int, fraction: Double): Int {
+      val rank = max(1, ceil(count * fraction).toInt())
+      var seen = 0
+      for (bucket in 0 until BUCKET_COUNT) {
+        seen += histogram[offset + bucket]
+        if (seen >= rank) {
+          return durationOf(bucket)
+        }
+      }
+      return durationOf(BUCKET_COUNT - 1)
+    }
+
+    private fun addArrays(target: IntArray, source: IntArray, sign: Int) {
+      for (i in target.indices) {
+        target[i] += sign * source[i]
+      }
+    }
+
+    private fun addArrays(target: DoubleArray, source: DoubleArray, sign: Int) {
+      for (i in target.indices) {
+        target[i] += sign * source[i]
+      }
+    }
+
+    /**
+     * Returns the index of the first of the [size] first values of [values] that is at least [value].
+     */
+    private fun lowerBound(values: IntArray, size: Int, value: Int): Int {
+      var low = 0
+      var high = size
+      while (low < high) {
+        val mid = (low + high) ushr 1
+        if (values[mid] < value) low = mid + 1 else high = mid
+      }
+      return low
+    }
+  }
+}
@@ -20,15 +20,22 @@ import com.android.tools.profilers.cpu.atrace.AtraceCpuCapture
 
 /**
  * Model for the RenderAudit UI Component. Holds state and dispatches events to other models.
+ *
+ * The render audit data is scoped to [range], and is computed by the capture's [RenderAuditEngine] each time it is read, so it follows
+ * the range selection without going over all the frames of the capture.
  */
-class RenderAuditModel(capture: AtraceCpuCapture) {
+class RenderAuditModel(capture: AtraceCpuCapture, private val range: Range) {
+
+  private val engine = capture.renderAuditEngine
 
   // Render Audit Data
+  // Telling triple buffering apart requires the SurfaceFlinger buffer queue, which is not part of the capture.
   val tripleBuffers: List<TripleBuffer> = listOf()
-  val longFrames: List<LongFrame> = listOf()
-  val skippedFrames: List<SkippedFrame> = listOf()
-  val auditFrames: List<AuditFrame> = listOf()
-  val renderStageStats: Map<RenderStage, RenderStageStats> = mapOf()
+  val longFrames: List<LongFrame> get() = engine.getLongFrames(range.min, range.max)
+  val skippedFrames: List<SkippedFrame> get() = engine.getSkippedFrames(range.min, range.max)
+  val skippedFrameClusters: List<SkippedFrameCluster> get() = engine.getSkippedFrameClusters(range.min, range.max)
+  val auditFrames: List<AuditFrame> get() = engine.getAuditFrames(range.min, range.max)
+  val renderStageStats: Map<RenderStage, RenderStageStats> get() = engine.getRenderStageStats(range.min, range.max)
 
   private val mainThreadId: Int = capture.mainThreadId
   private val renderThreadId: Int = capture.renderThreadId
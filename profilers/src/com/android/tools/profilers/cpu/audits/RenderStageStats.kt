@@ -16,9 +16,12 @@
 package com.android.tools.profilers.cpu.audits
 
 /**
- * Mean and standard deviation duration(in Us) for an app's render pipeline stage
+ * Mean, standard deviation and percentiles of the duration(in Us) for an app's render pipeline stage
  */
 data class RenderStageStats(
   val meanDurationUs: Int,
-  val sdDurationUs: Int
+  val sdDurationUs: Int,
+  val p50DurationUs: Int,
+  val p90DurationUs: Int,
+  val p99DurationUs: Int
 )
\ No newline at end of file
@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.cpu.audits
+
+/**
+ * A run of consecutive long frames, during which the display missed [skippedFrameCount] refreshes. Clusters show where the app stuttered,
+ * which is more noticeable to the user than the same number of skipped frames spread over time.
+ */
+data class SkippedFrameCluster(
+  val startUs: Long,
+  val endUs: Long,
+  val skippedFrameCount: Int
+)
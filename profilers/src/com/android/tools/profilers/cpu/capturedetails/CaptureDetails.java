@@ -321,7 +321,7 @@ public abstract class CaptureDetails {
       super(cpuCapture);
       // The Render Audit tab is only added in the CapturePane is the capture is an AtraceCpuCapture
       assert cpuCapture instanceof AtraceCpuCapture;
-      myRenderAuditModel = new RenderAuditModel((AtraceCpuCapture)cpuCapture);
+      myRenderAuditModel = new RenderAuditModel((AtraceCpuCapture)cpuCapture, range);
     }
 
     @Override
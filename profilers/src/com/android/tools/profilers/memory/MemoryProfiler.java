@@ -52,8 +52,6 @@ import io.grpc.StatusRuntimeException;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -159,9 +157,9 @@ public class MemoryProfiler extends StudioProfiler {
 
     // We don't really care about the session having a duration - arbitrarily create a 1-ns session.
     long sessionEndTimeNs = sessionStartTimeNs + 1;
-    byte[] bytes;
+    ByteString bytes;
     try {
-      bytes = Files.readAllBytes(Paths.get(file.getPath()));
+      bytes = StudioProfilers.readFileContents(file);
     }
     catch (IOException e) {
       getLogger().error(String.format("Importing Session Failed: cannot read from %s.", file.getPath()));
@@ -186,7 +184,7 @@ public class MemoryProfiler extends StudioProfiler {
                                             Common.SessionData.SessionStarted.SessionType.MEMORY_CAPTURE, sessionStartTimeNs,
                                             sessionEndTimeNs,
                                             startTimestampEpochMs,
-                                            ImmutableMap.of(Long.toString(sessionStartTimeNs), ByteString.copyFrom(bytes)),
+                                            ImmutableMap.of(Long.toString(sessionStartTimeNs), bytes),
                                             heapDumpEvent);
     }
     else {
@@ -197,7 +195,7 @@ public class MemoryProfiler extends StudioProfiler {
                                      startTimestampEpochMs);
       ImportHeapDumpRequest heapDumpRequest = ImportHeapDumpRequest.newBuilder()
         .setSession(session)
-        .setData(ByteString.copyFrom(bytes))
+        .setData(bytes)
         .setInfo(heapDumpInfo)
         .build();
       myProfilers.getClient().getMemoryClient().importHeapDump(heapDumpRequest);
@@ -221,9 +219,9 @@ public class MemoryProfiler extends StudioProfiler {
     }
 
     long sessionEndTimeNs = sessionStartTimeNs + 1;
-    byte[] bytes;
+    ByteString bytes;
     try {
-      bytes = Files.readAllBytes(Paths.get(file.getPath()));
+      bytes = StudioProfilers.readFileContents(file);
     }
     catch (IOException e) {
       getLogger().error("Importing Session Failed: cannot read from file location...");
@@ -248,7 +246,7 @@ public class MemoryProfiler extends StudioProfiler {
                                             Common.SessionData.SessionStarted.SessionType.MEMORY_CAPTURE, sessionStartTimeNs,
                                             sessionEndTimeNs,
                                             startTimestampEpochMs,
-                                            ImmutableMap.of(Long.toString(sessionStartTimeNs), ByteString.copyFrom(bytes)),
+                                            ImmutableMap.of(Long.toString(sessionStartTimeNs), bytes),
                                             heapDumpEvent);
     }
     else {
@@ -259,7 +257,7 @@ public class MemoryProfiler extends StudioProfiler {
       ImportLegacyAllocationsRequest request = ImportLegacyAllocationsRequest.newBuilder()
         .setSession(session)
         .setInfo(info)
-        .setData(ByteString.copyFrom(bytes))
+        .setData(bytes)
         .build();
       myProfilers.getClient().getMemoryClient().importLegacyAllocations(request);
 
@@ -22,7 +22,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -33,11 +32,11 @@ public abstract class ClassifierSet implements MemoryObject {
   @Nullable private Supplier<String> myNameSupplier = null;
 
   // The set of instances that make up our baseline snapshot (e.g. live objects at the left of a selection range).
-  @NotNull protected final Set<InstanceObject> mySnapshotInstances = new LinkedHashSet<>(0);
+  @NotNull protected final InstanceObjectSet mySnapshotInstances = new InstanceObjectSet();
   // The set of instances that have delta events (e.g. delta allocations/deallocations within a selection range).
   // Note that instances here can also appear in the set of snapshot instances (e.g. when a instance is allocated before the selection
   // and deallocation within the selection).
-  @NotNull protected final Set<InstanceObject> myDeltaInstances = new LinkedHashSet<>(0);
+  @NotNull protected final InstanceObjectSet myDeltaInstances = new InstanceObjectSet();
 
   // Lazily create the Classifier, as it is configurable and isn't necessary until nodes under this node needs to be classified.
   @Nullable protected Classifier myClassifier = null;
@@ -288,9 +287,13 @@ public abstract class ClassifierSet implements MemoryObject {
 
   public int getInstancesCount() {
     if (myClassifier == null) {
-      Set<InstanceObject> total = new HashSet<>(mySnapshotInstances);
-      total.addAll(myDeltaInstances);
-      return total.size();
+      int count = mySnapshotInstances.size();
+      for (InstanceObject instance : myDeltaInstances) {
+        if (!mySnapshotInstances.contains(instance)) {
+          count++;
+        }
+      }
+      return count;
     }
     else {
       return (int)getInstancesStream().count();
@@ -302,7 +305,8 @@ public abstract class ClassifierSet implements MemoryObject {
    */
   @NotNull
   public Stream<InstanceObject> getInstancesStream() {
-    Stream<InstanceObject> total = Stream.concat(mySnapshotInstances.stream(), myDeltaInstances.stream()).distinct();
+    Stream<InstanceObject> total =
+      Stream.concat(mySnapshotInstances.stream(), myDeltaInstances.stream().filter(instance -> !mySnapshotInstances.contains(instance)));
     if (myClassifier == null) {
       return total;
     }
@@ -362,18 +366,14 @@ public abstract class ClassifierSet implements MemoryObject {
    */
   @Nullable
   public ClassifierSet findContainingClassifierSet(@NotNull InstanceObject target) {
-    boolean instancesContainsTarget =
-      Stream.concat(mySnapshotInstances.stream(), myDeltaInstances.stream()).filter(instance -> target.equals(instance)).findAny()
-        .isPresent();
+    boolean instancesContainsTarget = mySnapshotInstances.contains(target) || myDeltaInstances.contains(target);
     if (instancesContainsTarget && myClassifier != null) {
       return this;
     }
     else if (instancesContainsTarget || myClassifier != null) {
       List<ClassifierSet> childrenClassifierSets = getChildrenClassifierSets();
-      // mySnapshotInstances/myDeltaInstances can be updated after getChildrenClassiferSets so rebuild the stream.
-      boolean stillContainsTarget =
-        Stream.concat(mySnapshotInstances.stream(), myDeltaInstances.stream()).filter(instance -> target.equals(instance)).findAny()
-          .isPresent();
+      // mySnapshotInstances/myDeltaInstances can be updated after getChildrenClassiferSets so check them again.
+      boolean stillContainsTarget = mySnapshotInstances.contains(target) || myDeltaInstances.contains(target);
       if (instancesContainsTarget && stillContainsTarget) {
         return this; // If after the partition the target still falls within the instances within this set, then return this set.
       }
@@ -394,11 +394,14 @@ public abstract class ClassifierSet implements MemoryObject {
    */
   public boolean isSupersetOf(@NotNull ClassifierSet targetSet) {
     // TODO perhaps not use getImmediateInstances if we want this to work across all inheritors of ClassifierSet?
-    if (getInstancesCount() < targetSet.getInstancesCount()) {
+    int instancesCount = getInstancesCount();
+    if (instancesCount < targetSet.getInstancesCount()) {
       return false;
     }
 
-    Set<InstanceObject> instances = getInstancesStream().collect(Collectors.toSet());
+    InstanceObjectSet instances = new InstanceObjectSet();
+    instances.ensureCapacity(instancesCount);
+    getInstancesStream().forEach(instances::add);
     return targetSet.getInstancesStream().allMatch(instances::contains);
   }
 
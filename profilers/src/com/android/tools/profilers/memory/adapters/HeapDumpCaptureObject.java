@@ -47,7 +47,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import gnu.trove.TLongObjectHashMap;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -58,13 +60,15 @@ import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class HeapDumpCaptureObject implements CaptureObject {
+  // Number of instances passed to an instance filter at once. Changing the filters cancels a running filter between two partitions.
+  private static final int INSTANCE_FILTER_PARTITION_SIZE = 1 << 16;
 
   @NotNull
   private final ProfilerClient myClient;
@@ -104,9 +108,19 @@ public class HeapDumpCaptureObject implements CaptureObject {
 
   private final Set<CaptureObjectInstanceFilter> myCurrentInstanceFilters = new HashSet<>();
 
+  // Filters read instance fields from the snapshot, which can't be read from several threads at once, so they run on a single thread.
   private final ExecutorService myExecutorService =
     Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("memory-heapdump-instancefilters").build());
 
+  // Incremented on every change of the filters, so that the work for an older change can stop early and its results can be dropped.
+  private final AtomicLong myInstanceFilterGeneration = new AtomicLong();
+
+  // All the instances of the capture, in the order indexed by the bitmaps of myInstanceFilterMatches. Only accessed by myExecutorService.
+  @Nullable private InstanceObject[] myFilterableInstances;
+
+  // The instances matched by each filter that has run so far. Only accessed by myExecutorService.
+  private final Map<CaptureObjectInstanceFilter, BitSet> myInstanceFilterMatches = new HashMap<>();
+
   public HeapDumpCaptureObject(@NotNull ProfilerClient client,
                                @NotNull Common.Session session,
                                @NotNull HeapDumpInfo heapDumpInfo,
@@ -362,25 +376,7 @@ public class HeapDumpCaptureObject implements CaptureObject {
     assert mySupportedInstanceFilters.contains(filterToAdd);
 
     myCurrentInstanceFilters.add(filterToAdd);
-    myStage.getAspect().changed(MemoryProfilerAspect.CURRENT_HEAP_UPDATING);
-    myExecutorService.execute(() -> {
-      // Run the analyzers on the currently existing InstanceObjects in the HeapSets.
-      Set<InstanceObject> currentMatchedInstances = new HashSet<>();
-      for (HeapSet heap : myHeapSets.values()) {
-        currentMatchedInstances.addAll(heap.getInstancesStream().collect(Collectors.toSet()));
-      }
-
-      Set<InstanceObject> matchedInstancesFinal = filterToAdd.filter(currentMatchedInstances, myClassDb);
-      analyzeJoiner.execute(() -> {
-        for (HeapSet heap : myHeapSets.values()) {
-          heap.clearClassifierSets();
-        }
-
-        matchedInstancesFinal.forEach(instance -> myHeapSets.get(instance.getHeapId()).addDeltaInstanceObject(instance));
-        myStage.getAspect().changed(MemoryProfilerAspect.CURRENT_HEAP_UPDATED);
-        myStage.refreshSelectedHeap();
-      });
-    });
+    applyInstanceFilters(analyzeJoiner);
   }
 
   @Override
@@ -391,30 +387,88 @@ public class HeapDumpCaptureObject implements CaptureObject {
     }
 
     myCurrentInstanceFilters.remove(filterToRemove);
+    applyInstanceFilters(analyzeJoiner);
+  }
+
+  /**
+   * Replaces the instances of the HeapSets with the instances matched by all the current filters. Each filter runs once over all the
+   * instances, and the bitmaps of its matches are combined for every later change. Changing the filters again before this finishes
+   * cancels it.
+   */
+  private void applyInstanceFilters(@NotNull Executor analyzeJoiner) {
+    List<CaptureObjectInstanceFilter> filters = new ArrayList<>(myCurrentInstanceFilters);
+    long generation = myInstanceFilterGeneration.incrementAndGet();
     myStage.getAspect().changed(MemoryProfilerAspect.CURRENT_HEAP_UPDATING);
     myExecutorService.execute(() -> {
-      // Run the remaining analyzers on the full instance set, since we don't know the the instances that have been removed from the
-      // HeapSets using the filter that we are removing.
-      Set<InstanceObject> allInstances = new HashSet<>(myInstanceIndex.size());
-      myInstanceIndex.forEachValue(instance -> allInstances.add(instance));
-      Set<InstanceObject> matchedInstances = allInstances;
-      for (CaptureObjectInstanceFilter filter : myCurrentInstanceFilters) {
-        matchedInstances = filter.filter(matchedInstances, myClassDb);
+      if (generation != myInstanceFilterGeneration.get()) {
+        return;
+      }
+
+      if (myFilterableInstances == null) {
+        List<InstanceObject> instances = new ArrayList<>(myInstanceIndex.size());
+        myInstanceIndex.forEachValue(instances::add);
+        myFilterableInstances = instances.toArray(new InstanceObject[0]);
+      }
+      BitSet matches = new BitSet(myFilterableInstances.length);
+      matches.set(0, myFilterableInstances.length);
+      for (CaptureObjectInstanceFilter filter : filters) {
+        BitSet filterMatches = myInstanceFilterMatches.get(filter);
+        if (filterMatches == null) {
+          filterMatches = runInstanceFilter(filter, generation);
+          if (filterMatches == null) {
+            // Cancelled by a newer change of the filters.
+            return;
+          }
+          myInstanceFilterMatches.put(filter, filterMatches);
+        }
+        matches.and(filterMatches);
       }
 
-      Set<InstanceObject> matchedInstancesFinal = matchedInstances;
+      List<InstanceObject> matchedInstances = new ArrayList<>(matches.cardinality());
+      for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+        matchedInstances.add(myFilterableInstances[i]);
+      }
       analyzeJoiner.execute(() -> {
+        if (generation != myInstanceFilterGeneration.get()) {
+          return;
+        }
         for (HeapSet heap : myHeapSets.values()) {
           heap.clearClassifierSets();
         }
 
-        matchedInstancesFinal.forEach(instance -> myHeapSets.get(instance.getHeapId()).addDeltaInstanceObject(instance));
+        matchedInstances.forEach(instance -> myHeapSets.get(instance.getHeapId()).addDeltaInstanceObject(instance));
         myStage.getAspect().changed(MemoryProfilerAspect.CURRENT_HEAP_UPDATED);
         myStage.refreshSelectedHeap();
       });
     });
   }
 
+  /**
+   * Runs {@code filter} over all the instances, one partition at a time so that it can be cancelled in between.
+   *
+   * @return the indices into myFilterableInstances of the instances matched by the filter, or null if it was cancelled.
+   */
+  @Nullable
+  private BitSet runInstanceFilter(@NotNull CaptureObjectInstanceFilter filter, long generation) {
+    InstanceObject[] instances = myFilterableInstances;
+    BitSet filterMatches = new BitSet(instances.length);
+    for (int start = 0; start < instances.length; start += INSTANCE_FILTER_PARTITION_SIZE) {
+      if (generation != myInstanceFilterGeneration.get()) {
+        return null;
+      }
+
+      int end = Math.min(start + INSTANCE_FILTER_PARTITION_SIZE, instances.length);
+      Set<InstanceObject> partition = new HashSet<>(Arrays.asList(instances).subList(start, end));
+      Set<InstanceObject> partitionMatches = filter.filter(partition, myClassDb);
+      for (int i = start; i < end; i++) {
+        if (partitionMatches.contains(instances[i])) {
+          filterMatches.set(i);
+        }
+      }
+    }
+    return filterMatches;
+  }
+
   @Override
   public boolean canSafelyLoad() {
     Transport.BytesResponse response = myClient.getTransportClient().getBytes(Transport.BytesRequest.newBuilder()
@@ -19,8 +19,7 @@ import com.android.tools.adtui.model.filter.Filter;
 import com.android.tools.profilers.memory.MemoryProfilerConfiguration.ClassGrouping;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Collections;
 
 /**
  * Classifies {@link InstanceObject}s based on their allocation's heap ID.
@@ -47,13 +46,15 @@ public class HeapSet extends ClassifierSet {
 
     // Gather all the instances from the descendants and add them to the heap node.
     // Subsequent calls to getChildrenClassifierSets will re-partition them to the correct child ClassifierSet.
-    List<InstanceObject> snapshotStream = getSnapshotInstanceStream().collect(Collectors.toList());
-    List<InstanceObject> deltaStream = getDeltaInstanceStream().collect(Collectors.toList());
+    InstanceObject[] snapshotInstances = getSnapshotInstanceStream().toArray(InstanceObject[]::new);
+    InstanceObject[] deltaInstances = getDeltaInstanceStream().toArray(InstanceObject[]::new);
     myDeltaInstances.clear();
     mySnapshotInstances.clear();
     myClassifier = null;
-    myDeltaInstances.addAll(deltaStream);
-    mySnapshotInstances.addAll(snapshotStream);
+    myDeltaInstances.ensureCapacity(deltaInstances.length);
+    Collections.addAll(myDeltaInstances, deltaInstances);
+    mySnapshotInstances.ensureCapacity(snapshotInstances.length);
+    Collections.addAll(mySnapshotInstances, snapshotInstances);
     myNeedsRefiltering = true;
   }
 
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.memory.adapters;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An insertion-ordered set of {@link InstanceObject}s, used by {@link ClassifierSet} to hold its instances.
+ *
+ * Instances are stored in a dense array and addressed by their int index into it. Membership is kept in an open-addressing table of
+ * those indices, so each instance costs a few bytes instead of a {@link java.util.LinkedHashSet} entry object. Removed instances leave
+ * holes in the array, which are compacted once they make up half of it.
+ */
+final class InstanceObjectSet extends AbstractSet<InstanceObject> {
+  private static final InstanceObject[] EMPTY_INSTANCES = new InstanceObject[0];
+  private static final int[] EMPTY_TABLE = new int[0];
+  private static final int FREE = 0;
+  private static final int REMOVED = -1;
+
+  // Instances in insertion order. Removed instances are left as null until the array is compacted.
+  @NotNull private InstanceObject[] myInstances = EMPTY_INSTANCES;
+  // Index of each instance in myInstances, plus one. FREE and REMOVED mark the unused slots.
+  @NotNull private int[] myTable = EMPTY_TABLE;
+  // Number of slots of myInstances in use, including the removed ones.
+  private int myEnd = 0;
+  private int mySize = 0;
+  // Number of slots of myTable that are not FREE.
+  private int myUsedSlots = 0;
+
+  @Override
+  public int size() {
+    return mySize;
+  }
+
+  @Override
+  public boolean contains(@Nullable Object o) {
+    return o instanceof InstanceObject && findSlot((InstanceObject)o) >= 0;
+  }
+
+  @Override
+  public boolean add(@NotNull InstanceObject instance) {
+    if (findSlot(instance) >= 0) {
+      return false;
+    }
+
+    if (myEnd == myInstances.length && mySize < myEnd / 2) {
+      // Instances removed through an iterator leave their holes behind, reclaim them before growing.
+      compact();
+    }
+    ensureCapacity(myEnd + 1);
+    myInstances[myEnd] = instance;
+    insert(instance, myEnd);
+    myEnd++;
+    mySize++;
+    return true;
+  }
+
+  @Override
+  public boolean remove(@Nullable Object o) {
+    if (!(o instanceof InstanceObject)) {
+      return false;
+    }
+
+    int slot = findSlot((InstanceObject)o);
+    if (slot < 0) {
+      return false;
+    }
+
+    removeSlot(slot);
+    if (mySize == 0) {
+      clear();
+    }
+    else if (mySize < myEnd / 2) {
+      compact();
+    }
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    myInstances = EMPTY_INSTANCES;
+    myTable = EMPTY_TABLE;
+    myEnd = 0;
+    mySize = 0;
+    myUsedSlots = 0;
+  }
+
+  /**
+   * Makes room for {@code capacity} instances, so that adding many instances at once does not repeatedly grow the set.
+   */
+  public void ensureCapacity(int capacity) {
+    if (capacity > myInstances.length) {
+      myInstances = Arrays.copyOf(myInstances, Math.max(capacity, myInstances.length + (myInstances.length >> 1)));
+    }
+    // Keep the table at most half full, counting the removed slots.
+    if ((myUsedSlots + capacity - myEnd) * 2 > myTable.length) {
+      rehash(capacity);
+    }
+  }
+
+  @Override
+  @NotNull
+  public Stream<InstanceObject> stream() {
+    Stream<InstanceObject> instances = Arrays.stream(myInstances, 0, myEnd);
+    return mySize == myEnd ? instances : instances.filter(Objects::nonNull);
+  }
+
+  @Override
+  @NotNull
+  public Iterator<InstanceObject> iterator() {
+    return new Iterator<InstanceObject>() {
+      private int myNext = skipRemoved(0);
+      // Index of the instance last returned by next(), or -1 if there is none or it was removed.
+      private int myLast = -1;
+
+      @Override
+      public boolean hasNext() {
+        return myNext < myEnd;
+      }
+
+      @Override
+      public InstanceObject next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        InstanceObject instance = myInstances[myNext];
+        myLast = myNext;
+        myNext = skipRemoved(myNext + 1);
+        return instance;
+      }
+
+      @Override
+      public void remove() {
+        if (myLast < 0) {
+          throw new IllegalStateException();
+        }
+        // Unlike remove(Object), this never compacts the set, which would move the instances that were not iterated yet.
+        removeSlot(findSlot(myInstances[myLast]));
+        myLast = -1;
+      }
+    };
+  }
+
+  private void removeSlot(int slot) {
+    myInstances[myTable[slot] - 1] = null;
+    myTable[slot] = REMOVED;
+    mySize--;
+  }
+
+  private int skipRemoved(int index) {
+    while (index < myEnd && myInstances[index] == null) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * @return the slot of myTable that holds {@code instance}, or -1 if it is not in the set.
+   */
+  private int findSlot(@NotNull InstanceObject instance) {
+    if (mySize == 0) {
+      return -1;
+    }
+
+    int mask = myTable.length - 1;
+    for (int slot = hash(instance) & mask; ; slot = (slot + 1) & mask) {
+      int entry = myTable[slot];
+      if (entry == FREE) {
+        return -1;
+      }
+      if (entry != REMOVED && instance.equals(myInstances[entry - 1])) {
+        return slot;
+      }
+    }
+  }
+
+  private void insert(@NotNull InstanceObject instance, int index) {
+    int mask = myTable.length - 1;
+    int slot = hash(instance) & mask;
+    while (myTable[slot] > FREE) {
+      slot = (slot + 1) & mask;
+    }
+    if (myTable[slot] == FREE) {
+      myUsedSlots++;
+    }
+    myTable[slot] = index + 1;
+  }
+
+  private void rehash(int capacity) {
+    myTable = new int[Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) * 2];
+    myUsedSlots = 0;
+    for (int i = 0; i < myEnd; i++) {
+      if (myInstances[i] != null) {
+        insert(myInstances[i], i);
+      }
+    }
+  }
+
+  private void compact() {
+    int end = 0;
+    for (int i = 0; i < myEnd; i++) {
+      if (myInstances[i] != null) {
+        myInstances[end++] = myInstances[i];
+      }
+    }
+    Arrays.fill(myInstances, end, myEnd, null);
+    myEnd = end;
+    rehash(end);
+  }
+
+  private static int hash(@NotNull InstanceObject instance) {
+    int hash = instance.hashCode() * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+}
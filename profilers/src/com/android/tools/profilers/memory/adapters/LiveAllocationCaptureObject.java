@@ -86,6 +86,11 @@ public class LiveAllocationCaptureObject implements CaptureObject {
   // In perfa, the batched samples are sent in 500ms but can take time to arrive. 5 seconds should be more than enough as a buffer.
   private static final long QUERY_BUFFER_NS = TimeUnit.SECONDS.toNanos(5);
 
+  // Interval between the points in time at which the live allocations are checkpointed, and the maximum number of allocations kept by
+  // all the checkpoints together.
+  private static final long DEFAULT_SNAPSHOT_CHECKPOINT_INTERVAL_NS = TimeUnit.SECONDS.toNanos(10);
+  private static final int MAX_CHECKPOINTED_ALLOCATIONS = 5_000_000;
+
   @VisibleForTesting static final String SAMPLING_INFO_MESSAGE = "Selected region does not have full tracking. Data may be inaccurate.";
 
   @Nullable private MemoryProfilerStage myStage;
@@ -99,6 +104,11 @@ public class LiveAllocationCaptureObject implements CaptureObject {
   private final TLongObjectHashMap<AllocationStack.StackFrame> myMethodIdMap;
   private final TIntObjectHashMap<ThreadId> myThreadIdMap;
   private final TreeMap<Long, Memory.MemoryMap.MemoryRegion> myJniMemoryRegionMap;
+  // Allocation events of the objects that are alive at fixed points in time, so that establishing the object snapshot at the start of a
+  // new selection only needs to replay the events since the closest checkpoint before it, instead of all the events of the session.
+  private final TreeMap<Long, AllocationEvent[]> mySnapshotCheckpoints;
+  private int myCheckpointedAllocationCount = 0;
+  private long mySnapshotCheckpointIntervalNs = DEFAULT_SNAPSHOT_CHECKPOINT_INTERVAL_NS;
 
   private final ProfilerClient myClient;
   private final Common.Session mySession;
@@ -137,6 +147,7 @@ public class LiveAllocationCaptureObject implements CaptureObject {
     myMethodIdMap = new TLongObjectHashMap<>();
     myThreadIdMap = new TIntObjectHashMap<>();
     myJniMemoryRegionMap = new TreeMap<>();
+    mySnapshotCheckpoints = new TreeMap<>();
 
     myClient = client;
     mySession = session;
@@ -492,41 +503,85 @@ public class LiveAllocationCaptureObject implements CaptureObject {
    * Populates the input list with all instance objects that are alive at |snapshotTimeNs|.
    */
   private void queryJavaInstanceSnapshot(long snapshotTimeNs, @NotNull List<InstanceObject> snapshotList) {
-    // Retrieve all the event samples from the start of the session until the snapshot time.
+    // Start from the closest checkpoint before the snapshot time, or from the start of the session if there is none.
     long sessionStartNs = mySession.getStartTimestamp();
-    List<Memory.BatchAllocationEvents> eventsList = getAllocationEvents(sessionStartNs, snapshotTimeNs);
-    Map<Integer, LiveAllocationInstanceObject> liveInstanceMap = new LinkedHashMap<>();
-    for (Memory.BatchAllocationEvents events : eventsList) {
-      // Only consider events up to but excluding the snapshot time.
-      Iterator<AllocationEvent> itr = events.getEventsList().stream().filter(evt -> evt.getTimestamp() < snapshotTimeNs)
-        .sorted(Comparator.comparingLong(AllocationEvent::getTimestamp)).iterator();
-      while (itr.hasNext()) {
-        AllocationEvent event = itr.next();
-        LiveAllocationInstanceObject instance;
-        switch (event.getEventCase()) {
-          case ALLOC_DATA:
-            // Allocation - create an InstanceObject. This might be removed later if there is a corresponding FREE_DATA event.
-            AllocationEvent.Allocation allocation = event.getAllocData();
-            instance = getOrCreateInstanceObject(allocation.getTag(), allocation.getClassTag(), allocation.getStackId(),
-                                                 allocation.getThreadId(), allocation.getSize(), allocation.getHeapId());
-            instance.setAllocationTime(event.getTimestamp());
-            liveInstanceMap.put(allocation.getTag(), instance);
-            break;
-          case FREE_DATA:
-            // Deallocation - there should be a matching InstanceObject.
-            AllocationEvent.Deallocation deallocation = event.getFreeData();
-            liveInstanceMap.remove(deallocation.getTag());
-            // Don't keep deallocated objects around in the cache to avoid bloating memory.
-            myInstanceMap.remove(deallocation.getTag());
-            break;
-          case CLASS_DATA:
-            // ignore CLASS_DATA as they are handled via context updates.
-            break;
-        }
+    Map.Entry<Long, AllocationEvent[]> checkpoint = mySnapshotCheckpoints.floorEntry(snapshotTimeNs);
+    long replayStartNs = checkpoint == null ? sessionStartNs : checkpoint.getKey();
+    Map<Integer, AllocationEvent> liveAllocationMap = new LinkedHashMap<>();
+    if (checkpoint != null) {
+      for (AllocationEvent event : checkpoint.getValue()) {
+        liveAllocationMap.put(event.getAllocData().getTag(), event);
+      }
+    }
+
+    // Retrieve all the event samples from the replay start until the snapshot time.
+    // Only consider events up to but excluding the snapshot time.
+    List<AllocationEvent> events = getAllocationEvents(replayStartNs, snapshotTimeNs).stream()
+      .flatMap(batch -> batch.getEventsList().stream())
+      .filter(evt -> evt.getTimestamp() >= replayStartNs && evt.getTimestamp() < snapshotTimeNs)
+      .sorted(Comparator.comparingLong(AllocationEvent::getTimestamp))
+      .collect(Collectors.toList());
+    // Only checkpoint the points in time before which all the events should have arrived.
+    long lastCompleteTimeNs = Math.min(snapshotTimeNs, myLastSeenTimestampNs - QUERY_BUFFER_NS);
+    long nextCheckpointNs = replayStartNs + mySnapshotCheckpointIntervalNs;
+    for (AllocationEvent event : events) {
+      while (event.getTimestamp() >= nextCheckpointNs && nextCheckpointNs <= lastCompleteTimeNs) {
+        addSnapshotCheckpoint(nextCheckpointNs, liveAllocationMap.values());
+        nextCheckpointNs += mySnapshotCheckpointIntervalNs;
+      }
+
+      switch (event.getEventCase()) {
+        case ALLOC_DATA:
+          // Allocation - this might be removed later if there is a corresponding FREE_DATA event.
+          liveAllocationMap.put(event.getAllocData().getTag(), event);
+          break;
+        case FREE_DATA:
+          // Deallocation - there should be a matching allocation.
+          AllocationEvent.Deallocation deallocation = event.getFreeData();
+          liveAllocationMap.remove(deallocation.getTag());
+          // Don't keep deallocated objects around in the cache to avoid bloating memory.
+          myInstanceMap.remove(deallocation.getTag());
+          break;
+        case CLASS_DATA:
+          // ignore CLASS_DATA as they are handled via context updates.
+          break;
       }
     }
+    for (; nextCheckpointNs <= lastCompleteTimeNs; nextCheckpointNs += mySnapshotCheckpointIntervalNs) {
+      addSnapshotCheckpoint(nextCheckpointNs, liveAllocationMap.values());
+    }
 
-    snapshotList.addAll(liveInstanceMap.values());
+    for (AllocationEvent event : liveAllocationMap.values()) {
+      AllocationEvent.Allocation allocation = event.getAllocData();
+      LiveAllocationInstanceObject instance =
+        getOrCreateInstanceObject(allocation.getTag(), allocation.getClassTag(), allocation.getStackId(), allocation.getThreadId(),
+                                  allocation.getSize(), allocation.getHeapId());
+      instance.setAllocationTime(event.getTimestamp());
+      snapshotList.add(instance);
+    }
+  }
+
+  private void addSnapshotCheckpoint(long timeNs, @NotNull Collection<AllocationEvent> liveAllocations) {
+    if (mySnapshotCheckpoints.containsKey(timeNs)) {
+      return;
+    }
+
+    mySnapshotCheckpoints.put(timeNs, liveAllocations.toArray(new AllocationEvent[0]));
+    myCheckpointedAllocationCount += liveAllocations.size();
+    // Drop the earliest checkpoints first, as replaying the events from the start of the session up to them is the cheapest.
+    while (myCheckpointedAllocationCount > MAX_CHECKPOINTED_ALLOCATIONS && mySnapshotCheckpoints.size() > 1) {
+      myCheckpointedAllocationCount -= mySnapshotCheckpoints.pollFirstEntry().getValue().length;
+    }
+  }
+
+  @VisibleForTesting
+  void setSnapshotCheckpointIntervalNs(long intervalNs) {
+    mySnapshotCheckpointIntervalNs = intervalNs;
+  }
+
+  @VisibleForTesting
+  int getSnapshotCheckpointCount() {
+    return mySnapshotCheckpoints.size();
   }
 
   private void queryJniReferencesSnapshot(long snapshotTimeNs, @NotNull List<InstanceObject> snapshotList) {
@@ -710,7 +765,8 @@ public class LiveAllocationCaptureObject implements CaptureObject {
     }
 
 
-    NativeCallStack.Builder builder = NativeCallStack.newBuilder();
+    // Symbolize all the frames not seen yet at once, so the frames of each module are resolved together.
+    List<NativeCallStack.NativeFrame> unsymbolizedFrames = new ArrayList<>();
     for (long address : backtrace.getAddressesList()) {
       if (!myNativeFrameMap.containsKey(address)) {
         String module = "";
@@ -724,11 +780,21 @@ public class LiveAllocationCaptureObject implements CaptureObject {
 
         NativeCallStack.NativeFrame unsymbolizedFrame = NativeCallStack.NativeFrame.newBuilder()
           .setAddress(address).setModuleName(module).setModuleOffset(offset).build();
-        NativeCallStack.NativeFrame symbolizedFrame = myStage.getStudioProfilers().getIdeServices().getNativeFrameSymbolizer()
-          .symbolize(myStage.getStudioProfilers().getSessionsManager().getSelectedSessionMetaData().getProcessAbi(), unsymbolizedFrame);
-        myNativeFrameMap.put(address, symbolizedFrame);
+        // Reserve the address so that repeated addresses of the backtrace are only symbolized once.
+        myNativeFrameMap.put(address, unsymbolizedFrame);
+        unsymbolizedFrames.add(unsymbolizedFrame);
       }
+    }
+    if (!unsymbolizedFrames.isEmpty()) {
+      List<NativeCallStack.NativeFrame> symbolizedFrames = myStage.getStudioProfilers().getIdeServices().getNativeFrameSymbolizer()
+        .symbolize(myStage.getStudioProfilers().getSessionsManager().getSelectedSessionMetaData().getProcessAbi(), unsymbolizedFrames);
+      for (int i = 0; i < unsymbolizedFrames.size(); i++) {
+        myNativeFrameMap.put(unsymbolizedFrames.get(i).getAddress(), symbolizedFrames.get(i));
+      }
+    }
 
+    NativeCallStack.Builder builder = NativeCallStack.newBuilder();
+    for (long address : backtrace.getAddressesList()) {
       builder.addFrames(myNativeFrameMap.get(address));
     }
     return builder.build();
@@ -18,6 +18,7 @@ package com.android.tools.profilers.network;
 import com.android.tools.adtui.model.Range;
 import com.android.tools.idea.protobuf.ByteString;
 import com.android.tools.profilers.network.httpdata.HttpData;
+import com.android.tools.profilers.network.httpdata.Payload;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
 
@@ -44,4 +45,19 @@ public interface NetworkConnectionsModel {
    */
   @NotNull
   ByteString requestBytes(@NotNull String id);
+
+  /**
+   * Returns the byte string associated with the given {@code id}, decoded according to {@code contentEncoding}. Implementations may keep
+   * the decoded payloads around so that they are not fetched and decoded again.
+   */
+  @NotNull
+  default ByteString requestDecodedBytes(@NotNull String id, @NotNull String contentEncoding) {
+    return Payload.decode(requestBytes(id), contentEncoding);
+  }
+
+  /**
+   * Releases the resources held by this model, such as cached payloads. Called when the stage that owns it exits.
+   */
+  default void dispose() {
+  }
 }
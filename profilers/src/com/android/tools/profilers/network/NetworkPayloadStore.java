@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.network;
+
+import com.android.tools.idea.protobuf.ByteString;
+import com.android.tools.idea.protobuf.UnsafeByteOperations;
+import com.android.tools.profilers.network.httpdata.Payload;
+import com.google.common.annotations.VisibleForTesting;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps the decoded payloads of a session's http connections, so that a payload viewed again is not fetched and decoded again.
+ *
+ * The decoded bytes are kept in memory compressed, up to a total compressed size, beyond which the least recently used payloads are
+ * dropped. Everything is dropped by {@link #clear()} when the session's network stage exits.
+ */
+public final class NetworkPayloadStore {
+  // Compressed text payloads are typically a few KB, so this keeps the payloads of thousands of connections.
+  private static final long DEFAULT_MAX_STORED_BYTES = 32 * 1024 * 1024;
+
+  @NotNull private final Function<String, ByteString> myBytesFetcher;
+  private final long myMaxStoredBytes;
+  // Accessed in least recently used order. Guarded by itself.
+  @NotNull private final LinkedHashMap<String, PayloadEntry> myPayloads = new LinkedHashMap<>(16, 0.75f, true);
+  private long myStoredBytes;
+
+  /**
+   * @param bytesFetcher fetches the raw bytes of a payload from the transport given its id.
+   */
+  public NetworkPayloadStore(@NotNull Function<String, ByteString> bytesFetcher) {
+    this(bytesFetcher, DEFAULT_MAX_STORED_BYTES);
+  }
+
+  @VisibleForTesting
+  NetworkPayloadStore(@NotNull Function<String, ByteString> bytesFetcher, long maxStoredBytes) {
+    myBytesFetcher = bytesFetcher;
+    myMaxStoredBytes = maxStoredBytes;
+  }
+
+  /**
+   * Returns the payload associated with the given {@code id}, decoded according to {@code contentEncoding}. The payload is only fetched
+   * and decoded again if it was dropped from the store since it was last requested.
+   */
+  @NotNull
+  public ByteString getDecodedBytes(@NotNull String id, @NotNull String contentEncoding) {
+    if (StringUtil.isEmpty(id)) {
+      return ByteString.EMPTY;
+    }
+
+    PayloadEntry entry;
+    synchronized (myPayloads) {
+      entry = myPayloads.get(id);
+    }
+    if (entry != null) {
+      try {
+        return entry.inflate();
+      }
+      catch (DataFormatException e) {
+        getLogger().warn("Failed to read stored network payload " + id, e);
+        remove(id, entry);
+      }
+    }
+
+    // No lock is held while fetching, so that a slow transport doesn't block the requests of other payloads. A payload requested by
+    // several threads at once may be fetched more than once, but only one copy is kept.
+    ByteString bytes = myBytesFetcher.apply(id);
+    if (bytes.isEmpty()) {
+      // The payload may not have been transferred yet, so don't remember it.
+      return bytes;
+    }
+    ByteString decoded = Payload.decode(bytes, contentEncoding);
+    try {
+      store(id, PayloadEntry.deflate(decoded));
+    }
+    catch (IOException e) {
+      getLogger().warn("Failed to store network payload " + id, e);
+    }
+    return decoded;
+  }
+
+  /**
+   * Returns the total compressed size of the stored payloads.
+   */
+  @VisibleForTesting
+  long getStoredBytes() {
+    synchronized (myPayloads) {
+      return myStoredBytes;
+    }
+  }
+
+  private void store(@NotNull String id, @NotNull PayloadEntry entry) {
+    if (entry.myCompressed.length > myMaxStoredBytes) {
+      return;
+    }
+    synchronized (myPayloads) {
+      if (myPayloads.putIfAbsent(id, entry) != null) {
+        return;
+      }
+      myStoredBytes += entry.myCompressed.length;
+      Iterator<PayloadEntry> eldest = myPayloads.values().iterator();
+      while (myStoredBytes > myMaxStoredBytes) {
+        myStoredBytes -= eldest.next().myCompressed.length;
+        eldest.remove();
+      }
+    }
+  }
+
+  private void remove(@NotNull String id, @NotNull PayloadEntry entry) {
+    synchronized (myPayloads) {
+      if (myPayloads.remove(id, entry)) {
+        myStoredBytes -= entry.myCompressed.length;
+      }
+    }
+  }
+
+  /**
+   * Drops the stored payloads.
+   */
+  public void clear() {
+    synchronized (myPayloads) {
+      myPayloads.clear();
+      myStoredBytes = 0;
+    }
+  }
+
+  private static Logger getLogger() {
+    return Logger.getInstance(NetworkPayloadStore.class);
+  }
+
+  private static final class PayloadEntry {
+    @NotNull private final byte[] myCompressed;
+    private final int myDecodedSize;
+
+    private PayloadEntry(@NotNull byte[] compressed, int decodedSize) {
+      myCompressed = compressed;
+      myDecodedSize = decodedSize;
+    }
+
+    @NotNull
+    private static PayloadEntry deflate(@NotNull ByteString decoded) throws IOException {
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try (DeflaterOutputStream output = new DeflaterOutputStream(compressed, deflater)) {
+        decoded.writeTo(output);
+      }
+      finally {
+        deflater.end();
+      }
+      return new PayloadEntry(compressed.toByteArray(), decoded.size());
+    }
+
+    @NotNull
+    private ByteString inflate() throws DataFormatException {
+      byte[] decoded = new byte[myDecodedSize];
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(myCompressed);
+        int decodedSize = 0;
+        while (decodedSize < decoded.length && !inflater.finished()) {
+          decodedSize += inflater.inflate(decoded, decodedSize, decoded.length - decodedSize);
+        }
+      }
+      finally {
+        inflater.end();
+      }
+      // The array is not shared with anyone else, so it doesn't need to be copied.
+      return UnsafeByteOperations.unsafeWrap(decoded);
+    }
+  }
+}
@@ -193,6 +193,7 @@ public class NetworkProfilerStage extends StreamingStage implements CodeNavigato
     getStudioProfilers().getIdeServices().getCodeNavigator().removeListener(this);
 
     myRangeSelectionModel.clearListeners();
+    myConnectionsModel.dispose();
   }
 
   @NotNull
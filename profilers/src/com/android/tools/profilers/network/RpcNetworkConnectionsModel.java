@@ -42,11 +42,13 @@ import org.jetbrains.annotations.NotNull;
 public class RpcNetworkConnectionsModel implements NetworkConnectionsModel {
   @NotNull private final TransportServiceGrpc.TransportServiceBlockingStub myTransportService;
   @NotNull private final Common.Session mySession;
+  @NotNull private final NetworkPayloadStore myPayloadStore;
 
   public RpcNetworkConnectionsModel(@NotNull TransportServiceGrpc.TransportServiceBlockingStub transportService,
                                     @NotNull Common.Session session) {
     myTransportService = transportService;
     mySession = session;
+    myPayloadStore = new NetworkPayloadStore(this::requestBytes);
   }
 
   @NotNull
@@ -158,4 +160,15 @@ public class RpcNetworkConnectionsModel implements NetworkConnectionsModel {
     BytesResponse response = myTransportService.getBytes(request);
     return response.getContents();
   }
+
+  @NotNull
+  @Override
+  public ByteString requestDecodedBytes(@NotNull String id, @NotNull String contentEncoding) {
+    return myPayloadStore.getDecodedBytes(id, contentEncoding);
+  }
+
+  @Override
+  public void dispose() {
+    myPayloadStore.clear();
+  }
 }
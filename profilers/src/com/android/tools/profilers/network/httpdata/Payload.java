@@ -17,12 +17,10 @@ package com.android.tools.profilers.network.httpdata;
 
 import com.android.tools.profilers.network.NetworkConnectionsModel;
 import com.android.tools.idea.protobuf.ByteString;
-import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.zip.GZIPInputStream;
 
@@ -87,19 +85,25 @@ public abstract class Payload {
       return myCachedBytes;
     }
 
-    myCachedBytes = myModel.requestBytes(getId());
-    String contentEncoding = getHeader().getContentEncoding();
+    myCachedBytes = myModel.requestDecodedBytes(getId(), getHeader().getContentEncoding());
+    return myCachedBytes;
+  }
+
+  /**
+   * Decodes payload bytes fetched from the transport according to the content encoding of their header.
+   */
+  @NotNull
+  public static ByteString decode(@NotNull ByteString bytes, @NotNull String contentEncoding) {
     if (StringUtil.toLowerCase(contentEncoding).contains("gzip")) {
-      try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(myCachedBytes.toByteArray()))) {
-        myCachedBytes = ByteString.copyFrom(FileUtil.loadBytes(inputStream));
+      try (GZIPInputStream inputStream = new GZIPInputStream(bytes.newInput())) {
+        return ByteString.readFrom(inputStream);
       }
       catch (IOException ignored) {
         // If we got here, it means we failed to unzip data that was supposedly zipped. Just
         // fallback and return the content directly.
       }
     }
-
-    return myCachedBytes;
+    return bytes;
   }
 
   @NotNull
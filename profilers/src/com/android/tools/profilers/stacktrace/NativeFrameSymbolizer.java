@@ -16,6 +16,8 @@
 package com.android.tools.profilers.stacktrace;
 
 import com.android.tools.profiler.proto.Memory.NativeCallStack;
+import java.util.ArrayList;
+import java.util.List;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -24,4 +26,17 @@ import org.jetbrains.annotations.NotNull;
 public interface NativeFrameSymbolizer {
   @NotNull
   NativeCallStack.NativeFrame symbolize(String abi, NativeCallStack.NativeFrame unsymbolizedFrame);
+
+  /**
+   * Resolves several frames at once, returning the resolved frames in the same order. Implementations can override it to resolve the
+   * frames of each module in a single request.
+   */
+  @NotNull
+  default List<NativeCallStack.NativeFrame> symbolize(String abi, @NotNull List<NativeCallStack.NativeFrame> unsymbolizedFrames) {
+    List<NativeCallStack.NativeFrame> symbolizedFrames = new ArrayList<>(unsymbolizedFrames.size());
+    for (NativeCallStack.NativeFrame unsymbolizedFrame : unsymbolizedFrames) {
+      symbolizedFrames.add(symbolize(abi, unsymbolizedFrame));
+    }
+    return symbolizedFrames;
+  }
 }
@@ -26,6 +26,7 @@ import com.android.sdklib.AndroidVersion;
 import com.android.tools.adtui.model.AspectObserver;
 import com.android.tools.adtui.model.FakeTimer;
 import com.android.tools.adtui.model.StreamingTimeline;
+import com.android.tools.idea.protobuf.ByteString;
 import com.android.tools.idea.transport.faketransport.FakeGrpcServer;
 import com.android.tools.idea.transport.faketransport.FakeTransportService;
 import com.android.tools.profiler.proto.Common;
@@ -37,6 +38,10 @@ import com.android.tools.profilers.energy.EnergyProfilerStage;
 import com.android.tools.profilers.memory.MemoryProfilerStage;
 import com.android.tools.profilers.network.NetworkProfilerStage;
 import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +49,7 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
@@ -63,6 +69,8 @@ public final class StudioProfilersTest {
   private final FakeGrpcServer.CpuService myCpuService = myGrpcServer.getCpuService();
   private final FakeIdeProfilerServices myIdeProfilerServices;
 
+  @Rule public TemporaryFolder myTemporaryFolder = new TemporaryFolder();
+
   private final boolean myNewEventPipeline;
 
   public StudioProfilersTest(boolean useNewEventPipeline) {
@@ -253,6 +261,20 @@ public final class StudioProfilersTest {
     assertThat(profilers.getProcess().getName()).isEqualTo("FakeProcess");
   }
 
+  @Test
+  public void testReadFileContentsDoesNotKeepFile() throws IOException {
+    File file = myTemporaryFolder.newFile("capture.hprof");
+    byte[] contents = "heap dump contents".getBytes(StandardCharsets.UTF_8);
+    Files.write(file.toPath(), contents);
+
+    ByteString bytes = StudioProfilers.readFileContents(file);
+    // The file can be truncated or deleted once read without affecting the imported contents.
+    Files.write(file.toPath(), new byte[0]);
+    assertTrue(file.delete());
+    assertThat(bytes.toByteArray()).isEqualTo(contents);
+    assertThat(bytes.asReadOnlyByteBuffer().remaining()).isEqualTo(contents.length);
+  }
+
   @Test
   public void testAlreadyConnected() {
     Common.Device device = createDevice(AndroidVersion.VersionCodes.BASE, "FakeDevice", Common.Device.State.ONLINE);
@@ -110,6 +110,25 @@ class AtraceDataSeriesTest {
     verifySeriesDataMatches(seriesData, testSeriesData, 9, 10)
   }
 
+  @Test
+  fun testSeriesDataStoreRange() {
+    val testSeriesData = buildSeriesData(1, 100, 10)
+    val store = SeriesDataStore<CpuProfilerStage.ThreadState>()
+    testSeriesData.forEach { store.add(it.x, it.value) }
+    val series = AtraceDataSeries<CpuProfilerStage.ThreadState>(capture, { _ -> store })
+    assertThat(store).containsExactlyElementsIn(testSeriesData).inOrder()
+
+    // Ranges starting before, inside and after the data should return the same elements as a list backed series.
+    verifySeriesDataMatches(series.getDataForRange(Range(0.0, TimeUnit.MILLISECONDS.toMicros(50).toDouble())), testSeriesData, 0, 5)
+    verifySeriesDataMatches(series.getDataForRange(Range(TimeUnit.MILLISECONDS.toMicros(50).toDouble(),
+                                                         TimeUnit.MILLISECONDS.toMicros(75).toDouble())), testSeriesData, 5, 8)
+    verifySeriesDataMatches(series.getDataForRange(Range(TimeUnit.MILLISECONDS.toMicros(100).toDouble(),
+                                                         TimeUnit.MILLISECONDS.toMicros(150).toDouble())), testSeriesData, 9, 10)
+    assertThat(store.indexOfFirstAfter(0)).isEqualTo(0)
+    assertThat(store.indexOfFirstAfter(TimeUnit.MILLISECONDS.toMicros(1))).isEqualTo(1)
+    assertThat(store.indexOfFirstAfter(Long.MAX_VALUE)).isEqualTo(10)
+  }
+
   @Test
   fun testEmptySeries() {
     val testSeriesData = buildSeriesData(1, 100, 0)
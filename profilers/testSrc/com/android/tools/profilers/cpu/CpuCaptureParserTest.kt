@@ -345,6 +345,40 @@ class CpuCaptureParserTest {
     assertThat(fakeFeatureTracker.lastCpuCaptureMetadata).isNull()
   }
 
+  @Test
+  fun traceTypeIsSniffedFromFileHeader() {
+    assertThat(CpuCaptureParser.sniffTraceType(CpuProfilerTestUtils.getTraceFile("valid_trace.trace"))).isEqualTo(Cpu.CpuTraceType.ART)
+    assertThat(CpuCaptureParser.sniffTraceType(CpuProfilerTestUtils.getTraceFile("simpleperf.trace")))
+      .isEqualTo(Cpu.CpuTraceType.SIMPLEPERF)
+    assertThat(CpuCaptureParser.sniffTraceType(CpuProfilerTestUtils.getTraceFile("atrace.ctrace"))).isEqualTo(Cpu.CpuTraceType.ATRACE)
+
+    val unknownFile = File(TestUtils.createTempDirDeletedOnExit(), "unknown_trace")
+    unknownFile.writeBytes(ByteArray(4))
+    assertThat(CpuCaptureParser.sniffTraceType(unknownFile)).isNull()
+  }
+
+  @Test
+  fun leastRecentlyUsedCapturesAreDroppedAndParsedAgainWhenRequested() {
+    val parser = CpuCaptureParser(FakeIdeProfilerServices())
+    val traceBytes = CpuProfilerTestUtils.traceFileToByteString("valid_trace.trace")
+    // Keep a single parsed capture in memory.
+    parser.setMaxCachedTracesSize(traceBytes.size().toLong())
+
+    val firstCapture = parser.parse(ProfilersTestData.SESSION_DATA, ANY_TRACE_ID, traceBytes, Cpu.CpuTraceType.ART)!!
+    firstCapture.get()
+    val secondCapture = parser.parse(ProfilersTestData.SESSION_DATA, ANY_TRACE_ID + 1, traceBytes, Cpu.CpuTraceType.ART)!!
+    secondCapture.get()
+
+    // The most recently used capture is kept.
+    assertThat(parser.getCapture(ANY_TRACE_ID + 1)).isSameAs(secondCapture)
+
+    // The first capture was dropped, and is parsed again from its saved trace.
+    val reloadedCapture = parser.getCapture(ANY_TRACE_ID)!!
+    assertThat(reloadedCapture).isNotSameAs(firstCapture)
+    checkValidCapture(reloadedCapture.get())
+    assertThat(parser.getCapture(ANY_TRACE_ID)).isSameAs(reloadedCapture)
+  }
+
   /**
    * Check some fields of a [CpuCapture] to see if it was properly built.
    */
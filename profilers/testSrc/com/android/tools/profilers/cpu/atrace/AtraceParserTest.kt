@@ -24,6 +24,12 @@ import com.google.common.collect.Iterables
 import com.google.common.truth.Truth.assertThat
 import org.junit.Before
 import org.junit.Test
+import trebuchet.model.Model
+import trebuchet.model.fragments.CpuModelFragment
+import trebuchet.model.fragments.ModelFragment
+import trebuchet.model.fragments.ProcessModelFragment
+import trebuchet.model.fragments.ThreadModelFragment
+import java.io.File
 
 class AtraceParserTest {
 
@@ -226,6 +232,33 @@ class AtraceParserTest {
     }
   }
 
+  @Test
+  fun cpuSliceStartingAfterCaptureEnd() {
+    val process = ProcessModelFragment(TEST_PID, "Test")
+    val thread = process.threadFor(THREAD_ID, "Main")
+    // Switching to the idle thread ends the running slice.
+    val idleThread = ThreadModelFragment(0, ProcessModelFragment(0, "swapper"), "swapper")
+    val fragment = ModelFragment().apply {
+      processes.add(process)
+      cpus.add(CpuModelFragment(0).apply {
+        schedulingProcessBuilder.switchProcess(process, thread, 1.0)
+        schedulingProcessBuilder.switchProcess(idleThread.process, idleThread, 2.0)
+        schedulingProcessBuilder.switchProcess(process, thread, 3.5)
+        schedulingProcessBuilder.switchProcess(idleThread.process, idleThread, 4.0)
+      })
+      globalStartTime = 1.0
+      // The capture ends before the last slice starts.
+      globalEndTime = 3.0
+    }
+    val parser = AtraceParser(Model(fragment), TEST_PID)
+    parser.parse(File("unused"), 0)
+
+    // The null process closing the CPU data is moved to the start of the last slice instead of breaking the order of the series.
+    val series = parser.cpuThreadSliceInfoStates[0]!!
+    assertThat(series.map { it.value.name }).containsExactly("Main", "", "Main", "").inOrder()
+    assertThat(series.map { it.x }).containsExactly(1_000_000L, 2_000_000L, 3_500_000L, 3_500_000L).inOrder()
+  }
+
   companion object {
     private val DELTA = .00000001
 
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.cpu.audits
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Before
+import org.junit.Test
+
+class RenderAuditEngineTest {
+  private val engine = RenderAuditEngine()
+
+  @Before
+  fun setUp() {
+    // A frame every 50ms, drawn in as many us as its index. Frames 500, 501 and 800 take 40ms, which misses 2 display refreshes each.
+    for (i in 0 until FRAME_COUNT) {
+      val startUs = i * 50000L
+      val isLongFrame = i == 500 || i == 501 || i == 800
+      val stageDurations = IntArray(RenderStage.values().size)
+      stageDurations[RenderStage.DRAW.ordinal] = i
+      stageDurations[RenderStage.MISC_TIME.ordinal] = 1000
+      engine.addFrame(startUs, startUs + if (isLongFrame) 40000 else 10000, stageDurations, isLongFrame)
+    }
+  }
+
+  @Test
+  fun statsAreScopedToRange() {
+    // Frames 300 to 599, which starts and ends in the middle of blocks of frames.
+    val stats = engine.getRenderStageStats(300 * 50000.0, 599 * 50000.0 + 5000)
+    val drawStats = stats.getValue(RenderStage.DRAW)
+    assertThat(drawStats.meanDurationUs).isEqualTo(449)
+    assertThat(drawStats.sdDurationUs).isEqualTo(86)
+    assertThat(drawStats.p50DurationUs.toDouble()).isWithin(450 / 8.0).of(450.0)
+    assertThat(drawStats.p90DurationUs.toDouble()).isWithin(570 / 8.0).of(570.0)
+    assertThat(drawStats.p99DurationUs.toDouble()).isWithin(597 / 8.0).of(597.0)
+
+    val miscStats = stats.getValue(RenderStage.MISC_TIME)
+    assertThat(miscStats.meanDurationUs).isEqualTo(1000)
+    assertThat(miscStats.sdDurationUs).isEqualTo(0)
+    assertThat(stats.getValue(RenderStage.INPUT).p99DurationUs).isEqualTo(0)
+
+    assertThat(engine.getAuditFrames(300 * 50000.0, 599 * 50000.0 + 5000)).hasSize(300)
+    assertThat(engine.getRenderStageStats(-2.0, -1.0)).isEmpty()
+  }
+
+  @Test
+  fun longFramesAreGroupedIntoClusters() {
+    assertThat(engine.getLongFrames(0.0, 600 * 50000.0))
+      .containsExactly(LongFrame(500 * 50000L, 500 * 50000L + 40000), LongFrame(501 * 50000L, 501 * 50000L + 40000)).inOrder()
+    assertThat(engine.getSkippedFrames(0.0, 600 * 50000.0)).hasSize(4)
+    assertThat(engine.getSkippedFrameClusters(0.0, FRAME_COUNT * 50000.0))
+      .containsExactly(SkippedFrameCluster(500 * 50000L, 501 * 50000L + 40000, 4),
+                       SkippedFrameCluster(800 * 50000L, 800 * 50000L + 40000, 2)).inOrder()
+    // Frames that only partly overlap the range are included.
+    assertThat(engine.getSkippedFrameClusters(800 * 50000.0 + 30000, FRAME_COUNT * 50000.0))
+      .containsExactly(SkippedFrameCluster(800 * 50000L, 800 * 50000L + 40000, 2))
+  }
+
+  companion object {
+    private const val FRAME_COUNT = 1000
+  }
+}
@@ -239,6 +239,15 @@ public class HeapDumpCaptureObjectTest {
     capture.getInstanceFilterExecutor().execute(removeFilterLatch::countDown);
     removeFilterLatch.await();
     Truth.assertThat(capture.getInstances().count()).isEqualTo(allInstanceCount);
+
+    // Toggling the filter quickly only applies the last change, which reuses the matches of the first run.
+    CountDownLatch toggleFilterLatch = new CountDownLatch(1);
+    capture.addInstanceFilter(leakFilter.get(), Runnable::run);
+    capture.removeInstanceFilter(leakFilter.get(), Runnable::run);
+    capture.addInstanceFilter(leakFilter.get(), Runnable::run);
+    capture.getInstanceFilterExecutor().execute(toggleFilterLatch::countDown);
+    toggleFilterLatch.await();
+    Truth.assertThat(capture.getInstances().count()).isEqualTo(7L);
   }
 
   private static void verifyInstance(@NotNull InstanceObject instance,
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.memory.adapters;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class InstanceObjectSetTest {
+  private final FakeCaptureObject myCaptureObject = new FakeCaptureObject.Builder().build();
+
+  @Test
+  public void testInstancesAreKeptInInsertionOrder() {
+    List<InstanceObject> instances = createInstances(100);
+    InstanceObjectSet set = new InstanceObjectSet();
+    instances.forEach(set::add);
+    assertThat(set.add(instances.get(42))).isFalse();
+
+    assertThat(set).hasSize(100);
+    assertThat(set).containsExactlyElementsIn(instances).inOrder();
+    assertThat(set.stream().collect(Collectors.toList())).containsExactlyElementsIn(instances).inOrder();
+  }
+
+  @Test
+  public void testRemoveAndReAdd() {
+    List<InstanceObject> instances = createInstances(100);
+    InstanceObjectSet set = new InstanceObjectSet();
+    instances.forEach(set::add);
+
+    // Removing more than half of the instances compacts the set.
+    List<InstanceObject> remaining = new ArrayList<>();
+    for (int i = 0; i < instances.size(); i++) {
+      if (i % 3 == 0) {
+        remaining.add(instances.get(i));
+      }
+      else {
+        assertThat(set.remove(instances.get(i))).isTrue();
+      }
+    }
+    assertThat(set.remove(instances.get(1))).isFalse();
+    assertThat(set).containsExactlyElementsIn(remaining).inOrder();
+    assertThat(set.contains(instances.get(1))).isFalse();
+    assertThat(set.contains(instances.get(3))).isTrue();
+
+    // A re-added instance goes to the end.
+    assertThat(set.add(instances.get(1))).isTrue();
+    remaining.add(instances.get(1));
+    assertThat(set.stream().collect(Collectors.toList())).containsExactlyElementsIn(remaining).inOrder();
+
+    set.clear();
+    assertThat(set).isEmpty();
+    assertThat(set.contains(instances.get(0))).isFalse();
+  }
+
+  @Test
+  public void testRemoveThroughIterator() {
+    List<InstanceObject> instances = createInstances(100);
+    InstanceObjectSet set = new InstanceObjectSet();
+    instances.forEach(set::add);
+
+    List<InstanceObject> remaining = new ArrayList<>();
+    for (int i = 0; i < instances.size(); i++) {
+      if (i % 3 == 0) {
+        remaining.add(instances.get(i));
+      }
+    }
+    assertThat(set.removeIf(instance -> !remaining.contains(instance))).isTrue();
+    assertThat(set).hasSize(remaining.size());
+    assertThat(set).containsExactlyElementsIn(remaining).inOrder();
+    assertThat(set.contains(instances.get(1))).isFalse();
+
+    // The removed instances can be added again, after the ones that were kept.
+    instances.forEach(set::add);
+    assertThat(set).hasSize(100);
+    assertThat(set.contains(instances.get(1))).isTrue();
+
+    Iterator<InstanceObject> iterator = set.iterator();
+    iterator.next();
+    iterator.remove();
+    try {
+      iterator.remove();
+      fail();
+    }
+    catch (IllegalStateException ignored) {
+    }
+    assertThat(set.contains(instances.get(0))).isFalse();
+  }
+
+  private List<InstanceObject> createInstances(int count) {
+    List<InstanceObject> instances = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      instances.add(new FakeInstanceObject.Builder(myCaptureObject, i, "Class" + i).setName("instance" + i).build());
+    }
+    return instances;
+  }
+}
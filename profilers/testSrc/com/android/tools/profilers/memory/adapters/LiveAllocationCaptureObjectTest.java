@@ -565,6 +565,52 @@ public class LiveAllocationCaptureObjectTest {
       verifyClassifierResult(heapSet, new LinkedList<>(expected_0_to_4), 0);
     }
 
+    @Test
+    public void testSelectionShiftFromSnapshotCheckpoint() throws Exception {
+      boolean[] loadSuccess = new boolean[1];
+      LiveAllocationCaptureObject capture = new LiveAllocationCaptureObject(myProfilerClient,
+                                                                            ProfilersTestData.SESSION_DATA,
+                                                                            CAPTURE_START_TIME,
+                                                                            LOAD_SERVICE,
+                                                                            myStage);
+      capture.setSnapshotCheckpointIntervalNs(TimeUnit.SECONDS.toNanos(1));
+
+      HeapSet heapSet = capture.getHeapSet(myHeapId);
+      heapSet.setClassGrouping(MemoryProfilerConfiguration.ClassGrouping.ARRANGE_BY_PACKAGE);
+      myStage.getAspect().addDependency(myAspectObserver).onChange(MemoryProfilerAspect.CURRENT_HEAP_CONTENTS, () -> loadSuccess[0] = true);
+
+      Queue<ClassifierSetTestData> expected_4_to_8 = new LinkedList<>();
+      expected_4_to_8.add(new ClassifierSetTestData(0, myHeapName, 4, 4, 2, 6, 2, true));
+      expected_4_to_8.add(new ClassifierSetTestData(1, "This", 2, 2, 1, 3, 2, true));
+      expected_4_to_8.add(new ClassifierSetTestData(2, "Also", 1, 1, 1, 2, 1, true));
+      expected_4_to_8.add(new ClassifierSetTestData(3, "Foo", 1, 1, 1, 2, 0, true));
+      expected_4_to_8.add(new ClassifierSetTestData(2, "Is", 1, 1, 0, 1, 1, true));
+      expected_4_to_8.add(new ClassifierSetTestData(3, "Foo", 1, 1, 0, 1, 0, true));
+      expected_4_to_8.add(new ClassifierSetTestData(1, "That", 2, 2, 1, 3, 2, true));
+      expected_4_to_8.add(new ClassifierSetTestData(2, "Also", 1, 1, 1, 2, 1, true));
+      expected_4_to_8.add(new ClassifierSetTestData(3, "Bar", 1, 1, 1, 2, 0, true));
+      expected_4_to_8.add(new ClassifierSetTestData(2, "Is", 1, 1, 0, 1, 1, true));
+      expected_4_to_8.add(new ClassifierSetTestData(3, "Bar", 1, 1, 0, 1, 0, true));
+
+      // The first snapshot is established from the start of the session, and checkpoints the live allocations along the way.
+      Range loadRange = new Range(CAPTURE_START_TIME + TimeUnit.SECONDS.toMicros(4), CAPTURE_START_TIME + TimeUnit.SECONDS.toMicros(8));
+      loadSuccess[0] = false;
+      capture.load(loadRange, LOAD_JOINER);
+      assertThat(loadSuccess[0]).isTrue();
+      assertThat(capture.getSnapshotCheckpointCount()).isGreaterThan(0);
+      verifyClassifierResult(heapSet, new LinkedList<>(expected_4_to_8), 0);
+
+      // Select a disjoint range, then come back: the snapshot is now established from the closest checkpoint.
+      loadSuccess[0] = false;
+      loadRange.set(CAPTURE_START_TIME, CAPTURE_START_TIME + TimeUnit.SECONDS.toMicros(2));
+      assertThat(loadSuccess[0]).isTrue();
+
+      loadSuccess[0] = false;
+      loadRange.set(CAPTURE_START_TIME + TimeUnit.SECONDS.toMicros(4), CAPTURE_START_TIME + TimeUnit.SECONDS.toMicros(8));
+      assertThat(loadSuccess[0]).isTrue();
+      verifyClassifierResult(heapSet, new LinkedList<>(expected_4_to_8), 0);
+    }
+
     @Test
     public void testInfoMessageBasedOnSelection() {
       MemoryAllocSamplingData fullData = MemoryAllocSamplingData.newBuilder()
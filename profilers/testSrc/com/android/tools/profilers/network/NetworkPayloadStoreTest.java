@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2020 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.tools.profilers.network;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.android.tools.idea.protobuf.ByteString;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.junit.After;
+import org.junit.Test;
+
+public class NetworkPayloadStoreTest {
+  private final Map<String, ByteString> myPayloads = new HashMap<>();
+  private final Map<String, Integer> myFetchCounts = new HashMap<>();
+  private final NetworkPayloadStore myStore = new NetworkPayloadStore(id -> {
+    myFetchCounts.merge(id, 1, Integer::sum);
+    return myPayloads.getOrDefault(id, ByteString.EMPTY);
+  });
+
+  @After
+  public void tearDown() {
+    myStore.clear();
+  }
+
+  @Test
+  public void payloadsAreFetchedAndDecodedOnce() throws IOException {
+    ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+    try (GZIPOutputStream output = new GZIPOutputStream(zipped)) {
+      output.write("zipped payload".getBytes());
+    }
+    myPayloads.put("zipped", ByteString.copyFrom(zipped.toByteArray()));
+    myPayloads.put("plain", ByteString.copyFromUtf8("plain payload"));
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(myStore.getDecodedBytes("zipped", "gzip").toStringUtf8()).isEqualTo("zipped payload");
+      assertThat(myStore.getDecodedBytes("plain", "").toStringUtf8()).isEqualTo("plain payload");
+    }
+    assertThat(myFetchCounts).containsExactly("zipped", 1, "plain", 1);
+
+    // Missing payloads may arrive later, so they are fetched again.
+    assertThat(myStore.getDecodedBytes("missing", "")).isEqualTo(ByteString.EMPTY);
+    assertThat(myStore.getDecodedBytes("missing", "")).isEqualTo(ByteString.EMPTY);
+    assertThat(myFetchCounts.get("missing")).isEqualTo(2);
+    assertThat(myStore.getDecodedBytes("", "")).isEqualTo(ByteString.EMPTY);
+  }
+
+  @Test
+  public void clearDropsStoredPayloads() {
+    myPayloads.put("plain", ByteString.copyFromUtf8("plain payload"));
+    assertThat(myStore.getDecodedBytes("plain", "").toStringUtf8()).isEqualTo("plain payload");
+
+    myStore.clear();
+    assertThat(myStore.getDecodedBytes("plain", "").toStringUtf8()).isEqualTo("plain payload");
+    assertThat(myFetchCounts).containsExactly("plain", 2);
+  }
+
+  @Test
+  public void leastRecentlyUsedPayloadsAreDroppedBeyondMaxSize() {
+    Map<String, Integer> fetchCounts = new HashMap<>();
+    myPayloads.put("first", ByteString.copyFromUtf8("first payload"));
+    myPayloads.put("second", ByteString.copyFromUtf8("second payload"));
+    myPayloads.put("third", ByteString.copyFromUtf8("third payload"));
+    NetworkPayloadStore store = new NetworkPayloadStore(id -> {
+      fetchCounts.merge(id, 1, Integer::sum);
+      return myPayloads.getOrDefault(id, ByteString.EMPTY);
+    }, 60);
+
+    store.getDecodedBytes("first", "");
+    store.getDecodedBytes("second", "");
+    // Using the first payload again makes the second one the least recently used.
+    store.getDecodedBytes("first", "");
+    store.getDecodedBytes("third", "");
+    assertThat(store.getStoredBytes()).isAtMost(60L);
+
+    assertThat(store.getDecodedBytes("first", "").toStringUtf8()).isEqualTo("first payload");
+    assertThat(store.getDecodedBytes("second", "").toStringUtf8()).isEqualTo("second payload");
+    assertThat(fetchCounts).containsExactly("first", 1, "second", 2, "third", 1);
+  }
+}